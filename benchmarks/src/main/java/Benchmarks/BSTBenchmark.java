@@ -0,0 +1,182 @@
+package Benchmarks;
+
+import AVL.AVLTree;
+import BST.ArrayBasedBST;
+import BST.BST;
+import BST.Cursor;
+import RedBlackTree.RedBlackTree;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+Throughput of add, contains and remove for every BST<E> implementation.
+add and remove are measured over the whole key stream (one operation = n updates), contains is
+measured per lookup against a tree pre-built from the same stream. iterate walks that tree in
+order, summing its keys. containsAll looks up the same probes in batches of BATCH through the
+batch API and is reported per key, so it reads directly against contains.
+nearbyContains and nearbySeekNear look the probes up in ascending order, like a scan over a time
+range; the second goes through a Cursor from the last position (AVL and RED_BLACK only).
+Run with -prof gc to get the allocation rate alongside the timings.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xss64m", "-Xmx8g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BSTBenchmark {
+
+  private static final long SEED = 42L;
+  private static final int BATCH = 1024;
+
+  @Param({"LINKED_NODES", "AVL", "RED_BLACK", "ARRAY_BASED", "ADAPTIVE_RADIX",
+      "B_PLUS_TREE", "PERSISTENT_AVL", "PERSISTENT_RED_BLACK"})
+  public TreeImplementation implementation;
+
+  @Param({"RANDOM", "SORTED", "REVERSE_SORTED", "ZIPFIAN"})
+  public KeyDistribution distribution;
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  public int size;
+
+  private Integer[] keys;
+  private Integer[] probes;
+  private BST<Integer> populated;
+  private int probeIndex;
+  private final Integer[] batch = new Integer[BATCH];
+  private final boolean[] batchResults = new boolean[BATCH];
+  private int batchIndex;
+  private Integer[] nearby;
+  private int nearbyIndex;
+  private Cursor<Integer> cursor;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    keys = distribution.keys(size, SEED);
+    //half the probes are hits, half are (almost certainly) misses
+    Integer[] misses = KeyDistribution.RANDOM.keys(size, SEED + 1);
+    probes = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      probes[i] = (i & 1) == 0 ? keys[i] : misses[i];
+    }
+    populated = build();
+    if (populated instanceof ArrayBasedBST) {
+      //a read-mostly table is rebuilt once loading is done, folding in its pending elements
+      ((ArrayBasedBST<Integer>) populated).rebuild();
+    }
+    nearby = probes.clone();
+    Arrays.sort(nearby);
+    if (populated instanceof AVLTree) {
+      cursor = ((AVLTree<Integer>) populated).cursor();
+    } else if (populated instanceof RedBlackTree) {
+      cursor = ((RedBlackTree<Integer>) populated).cursor();
+    }
+  }
+
+  BST<Integer> build() {
+    BST<Integer> tree = implementation.create(size);
+    for (Integer key : keys) {
+      tree.add(key);
+    }
+    return tree;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public BST<Integer> add() {
+    return build();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean contains() {
+    Integer probe = probes[probeIndex];
+    probeIndex = probeIndex + 1 == probes.length ? 0 : probeIndex + 1;
+    return populated.contains(probe);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @OperationsPerInvocation(BATCH)
+  public boolean[] containsAll() {
+    for (int i = 0; i < BATCH; i++) {
+      batch[i] = probes[batchIndex];
+      batchIndex = batchIndex + 1 == probes.length ? 0 : batchIndex + 1;
+    }
+    populated.containsAll(batch, batchResults);
+    return batchResults;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean nearbyContains() {
+    Integer probe = nearby[nearbyIndex];
+    nearbyIndex = nearbyIndex + 1 == nearby.length ? 0 : nearbyIndex + 1;
+    return populated.contains(probe);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean nearbySeekNear() {
+    if (cursor == null) {
+      throw new UnsupportedOperationException(implementation + " has no cursor.");
+    }
+    Integer probe = nearby[nearbyIndex];
+    nearbyIndex = nearbyIndex + 1 == nearby.length ? 0 : nearbyIndex + 1;
+    return cursor.seekNear(probe);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long iterate() {
+    if (!(populated instanceof Iterable)) {
+      throw new UnsupportedOperationException(implementation + " cannot be iterated.");
+    }
+    long sum = 0;
+    @SuppressWarnings("unchecked")
+    Iterable<Integer> elements = (Iterable<Integer>) populated;
+    for (Integer key : elements) {
+      sum += key;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void remove(DrainState state, Blackhole blackhole) {
+    for (Integer key : keys) {
+      blackhole.consume(state.tree.remove(key));
+    }
+  }
+
+  //kept separate so the per-invocation rebuild only runs for the remove benchmark
+  @State(Scope.Thread)
+  public static class DrainState {
+
+    private BST<Integer> tree;
+
+    @Setup(Level.Invocation)
+    public void setUp(BSTBenchmark benchmark) {
+      tree = benchmark.build();
+    }
+  }
+}
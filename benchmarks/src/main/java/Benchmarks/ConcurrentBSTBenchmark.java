@@ -0,0 +1,148 @@
+package Benchmarks;
+
+import AVL.AVLTree;
+import AVL.ConcurrentAVLTree;
+import BST.BST;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Read scaling of the thread-safe sets against a single AVLTree behind one global lock.
+containsOnN runs contains on N threads, so a single run gives the scaling curve from 1 to 16
+threads (per-thread throughput that holds steady as N grows is linear scaling; counts above the
+machine's core count only measure time slicing):
+  java -jar benchmarks.jar ConcurrentBSTBenchmark.containsOn
+mixed runs 15 reader threads against 1 writer thread on the same set.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrentBSTBenchmark {
+
+  public enum Implementation {
+    CONCURRENT_AVL {
+      @Override
+      BST<Integer> create() {
+        return new ConcurrentAVLTree<>();
+      }
+    },
+    GLOBAL_LOCK_AVL {
+      @Override
+      BST<Integer> create() {
+        return new GloballyLocked<>(new AVLTree<Integer>());
+      }
+    };
+
+    abstract BST<Integer> create();
+  }
+
+  @Param({"CONCURRENT_AVL", "GLOBAL_LOCK_AVL"})
+  public Implementation implementation;
+
+  @Param({"1000000"})
+  public int size;
+
+  private BST<Integer> set;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    set = implementation.create();
+    //even keys are present, so half of all lookups hit
+    for (int i = 0; i < size; i++) {
+      set.add(2 * i);
+    }
+  }
+
+  private int randomKey() {
+    return ThreadLocalRandom.current().nextInt(2 * size);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public boolean containsOn1() {
+    return set.contains(randomKey());
+  }
+
+  @Benchmark
+  @Threads(2)
+  public boolean containsOn2() {
+    return set.contains(randomKey());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean containsOn4() {
+    return set.contains(randomKey());
+  }
+
+  @Benchmark
+  @Threads(8)
+  public boolean containsOn8() {
+    return set.contains(randomKey());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public boolean containsOn16() {
+    return set.contains(randomKey());
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(15)
+  public boolean mixedRead() {
+    return set.contains(randomKey());
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(1)
+  public boolean mixedWrite() {
+    //toggle odd keys so the set keeps its size
+    int key = randomKey() | 1;
+    return set.add(key) || set.remove(key);
+  }
+
+  //the current practice: one lock around the whole tree
+  static final class GloballyLocked<E extends Comparable<E>> implements BST<E> {
+
+    private final BST<E> tree;
+
+    GloballyLocked(BST<E> tree) {
+      this.tree = tree;
+    }
+
+    @Override
+    public synchronized boolean add(E element) {
+      return tree.add(element);
+    }
+
+    @Override
+    public synchronized boolean remove(E element) {
+      return tree.remove(element);
+    }
+
+    @Override
+    public synchronized boolean contains(E element) {
+      return tree.contains(element);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package Benchmarks;
+
+import java.util.Random;
+
+public enum KeyDistribution {
+  RANDOM {
+    @Override
+    public Integer[] keys(int n, long seed) {
+      Random random = new Random(seed);
+      Integer[] keys = new Integer[n];
+      for (int i = 0; i < n; i++) {
+        keys[i] = random.nextInt();
+      }
+      return keys;
+    }
+  },
+  SORTED {
+    @Override
+    public Integer[] keys(int n, long seed) {
+      Integer[] keys = new Integer[n];
+      for (int i = 0; i < n; i++) {
+        keys[i] = i;
+      }
+      return keys;
+    }
+  },
+  REVERSE_SORTED {
+    @Override
+    public Integer[] keys(int n, long seed) {
+      Integer[] keys = new Integer[n];
+      for (int i = 0; i < n; i++) {
+        keys[i] = n - 1 - i;
+      }
+      return keys;
+    }
+  },
+  ZIPFIAN {
+    @Override
+    public Integer[] keys(int n, long seed) {
+      //a skewed stream over n distinct keys: a few hot keys repeat, most keys are rare
+      ZipfianGenerator zipf = new ZipfianGenerator(n, new Random(seed));
+      Integer[] keys = new Integer[n];
+      for (int i = 0; i < n; i++) {
+        keys[i] = scramble(zipf.next());
+      }
+      return keys;
+    }
+  };
+
+  public abstract Integer[] keys(int n, long seed);
+
+  private static int scramble(long rank) {
+    //spread hot ranks over the key space so the hottest keys are not also the smallest
+    long h = rank * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /*
+  Zipfian rank generator (Gray et al., "Quickly Generating Billion-Record Synthetic Databases"),
+  the same scheme used by YCSB. Only zeta(n) is precomputed, so it needs O(1) memory.
+   */
+  private static final class ZipfianGenerator {
+
+    private static final double THETA = 0.99;
+
+    private final long items;
+    private final Random random;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+
+    ZipfianGenerator(long items, Random random) {
+      this.items = items;
+      this.random = random;
+      double zeta2 = zeta(2);
+      this.zetaN = zeta(items);
+      this.alpha = 1.0 / (1.0 - THETA);
+      this.eta = (1 - Math.pow(2.0 / items, 1 - THETA)) / (1 - zeta2 / zetaN);
+    }
+
+    private static double zeta(long n) {
+      double sum = 0;
+      for (long i = 1; i <= n; i++) {
+        sum += 1 / Math.pow(i, THETA);
+      }
+      return sum;
+    }
+
+    long next() {
+      double u = random.nextDouble();
+      double uz = u * zetaN;
+      if (uz < 1.0) {
+        return 0;
+      }
+      if (uz < 1.0 + Math.pow(0.5, THETA)) {
+        return 1;
+      }
+      return (long) (items * Math.pow(eta * u - eta + 1, alpha));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package Benchmarks;
+
+import Heaps.LongMinHeap;
+import Heaps.MinHeap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+push fills an empty heap with the whole key stream, pop drains a full one, and pushPop measures a
+single steady-state replace on a heap of the given size. longPushPop is the same replace against
+the unboxed LongMinHeap.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MinHeapBenchmark {
+
+  private static final long SEED = 42L;
+
+  @Param({"RANDOM", "SORTED", "REVERSE_SORTED", "ZIPFIAN"})
+  public KeyDistribution distribution;
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  public int size;
+
+  private Integer[] keys;
+  private MinHeap<Integer> steadyState;
+  private LongMinHeap<Object> longSteadyState;
+  private int keyIndex;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    keys = distribution.keys(size, SEED);
+    steadyState = fill(size + 1);
+    longSteadyState = new LongMinHeap<>(size + 1);
+    for (Integer key : keys) {
+      longSteadyState.add(key);
+    }
+  }
+
+  MinHeap<Integer> fill(int capacity) {
+    MinHeap<Integer> heap = new MinHeap<>(capacity);
+    for (Integer key : keys) {
+      heap.add(key);
+    }
+    return heap;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public MinHeap<Integer> push() {
+    return fill(size);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void pop(DrainState state, Blackhole blackhole) {
+    while (!state.heap.isEmpty()) {
+      blackhole.consume(state.heap.removeMin());
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Integer pushPop() {
+    steadyState.add(keys[keyIndex]);
+    keyIndex = keyIndex + 1 == keys.length ? 0 : keyIndex + 1;
+    return steadyState.removeMin();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long longPushPop() {
+    longSteadyState.add(keys[keyIndex]);
+    keyIndex = keyIndex + 1 == keys.length ? 0 : keyIndex + 1;
+    return longSteadyState.removeMin();
+  }
+
+  //kept separate so the per-invocation refill only runs for the pop benchmark
+  @State(Scope.Thread)
+  public static class DrainState {
+
+    private MinHeap<Integer> heap;
+
+    @Setup(Level.Invocation)
+    public void setUp(MinHeapBenchmark benchmark) {
+      heap = benchmark.fill(benchmark.size);
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package Benchmarks;
+
+import SimplePrefixTree.ConcurrentPrefixTree;
+import SimplePrefixTree.FrozenWordSet;
+import SimplePrefixTree.InvalidWordException;
+import SimplePrefixTree.MappedWordSet;
+import SimplePrefixTree.RadixPrefixTree;
+import SimplePrefixTree.SimplePrefixTree;
+import SimplePrefixTree.UnicodePrefixTree;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Trie insert and lookup over a real word list (see WordList for how it is located).
+insert builds a trie from the whole list in shuffled or dictionary order, lookupHit and
+lookupMiss measure single contains calls, batchLookupHit the same hits through containsAll in
+batches of BATCH, reported per word. Run lookupHit and concurrentLookupHit with -t 16 to see
+the synchronized SimplePrefixTree against the lock-free ConcurrentPrefixTree. The radix* variants
+run the same operations on RadixPrefixTree; compare footprints with -prof gc on insert.
+freeze compiles the populated trie into a FrozenWordSet, which frozenLookupHit then queries.
+The frozen set is also written to a temporary file: mappedOpen times opening it as a
+MappedWordSet (the cold-start cost) and mappedLookupHit queries it through the mapping.
+topCompletions asks a trie with random word weights for the 10 heaviest completions of each
+word's first two letters, the shape of a type-ahead request. fuzzyMatches looks up the
+misspelled miss words within two edits. The unicode* variants run insert and lookup on the
+UTF-8 UnicodePrefixTree, to compare its adaptive nodes with the 26-letter tries on ASCII words.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PrefixTreeBenchmark {
+
+  private static final int BATCH = 1024;
+
+  @Param({"true", "false"})
+  public boolean shuffled;
+
+  private String[] words;
+  private String[] misses;
+  private SimplePrefixTree populated;
+  private SimplePrefixTree weighted;
+  private ConcurrentPrefixTree concurrent;
+  private RadixPrefixTree radix;
+  private UnicodePrefixTree unicode;
+  private FrozenWordSet frozen;
+  private Path mappedFile;
+  private MappedWordSet mapped;
+  private int hitIndex;
+  private final String[] batch = new String[BATCH];
+  private final boolean[] batchResults = new boolean[BATCH];
+  private int missIndex;
+
+  @Setup(Level.Trial)
+  public void setUp() throws InvalidWordException, IOException {
+    List<String> list = WordList.load();
+    if (shuffled) {
+      list = new ArrayList<>(list);
+      Collections.shuffle(list, new Random(42L));
+    }
+    words = list.toArray(new String[0]);
+    populated = insertAll();
+    radix = radixInsert();
+    unicode = unicodeInsert();
+    frozen = populated.freeze();
+    Random weights = new Random(7L);
+    weighted = new SimplePrefixTree();
+    for (String word : words) {
+      weighted.add(word, weights.nextInt(1_000_000));
+    }
+    mappedFile = Files.createTempFile("words", ".dawg");
+    MappedWordSet.write(frozen, mappedFile);
+    mapped = MappedWordSet.open(mappedFile);
+    concurrent = new ConcurrentPrefixTree();
+    for (String word : words) {
+      concurrent.add(word);
+    }
+    //misses share the dictionary's prefixes so the lookup walks most of the path before failing
+    List<String> missList = new ArrayList<>();
+    for (String word : words) {
+      String candidate = word + "q";
+      if (!populated.contains(candidate)) {
+        missList.add(candidate);
+      }
+    }
+    misses = missList.toArray(new String[0]);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(mappedFile);
+  }
+
+  private SimplePrefixTree insertAll() throws InvalidWordException {
+    SimplePrefixTree trie = new SimplePrefixTree();
+    for (String word : words) {
+      trie.add(word);
+    }
+    return trie;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public SimplePrefixTree insert() throws InvalidWordException {
+    return insertAll();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean lookupHit() throws InvalidWordException {
+    String word = words[hitIndex];
+    hitIndex = hitIndex + 1 == words.length ? 0 : hitIndex + 1;
+    return populated.contains(word);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @OperationsPerInvocation(BATCH)
+  public boolean[] batchLookupHit() throws InvalidWordException {
+    for (int i = 0; i < BATCH; i++) {
+      batch[i] = words[hitIndex];
+      hitIndex = hitIndex + 1 == words.length ? 0 : hitIndex + 1;
+    }
+    populated.containsAll(batch, batchResults);
+    return batchResults;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public RadixPrefixTree radixInsert() throws InvalidWordException {
+    RadixPrefixTree trie = new RadixPrefixTree();
+    for (String word : words) {
+      trie.add(word);
+    }
+    return trie;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean radixLookupHit() throws InvalidWordException {
+    String word = words[hitIndex];
+    hitIndex = hitIndex + 1 == words.length ? 0 : hitIndex + 1;
+    return radix.contains(word);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public UnicodePrefixTree unicodeInsert() throws InvalidWordException {
+    UnicodePrefixTree trie = new UnicodePrefixTree();
+    for (String word : words) {
+      trie.add(word);
+    }
+    return trie;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean unicodeLookupHit() throws InvalidWordException {
+    String word = words[hitIndex];
+    hitIndex = hitIndex + 1 == words.length ? 0 : hitIndex + 1;
+    return unicode.contains(word);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public FrozenWordSet freeze() {
+    return populated.freeze();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean frozenLookupHit() throws InvalidWordException {
+    String word = words[hitIndex];
+    hitIndex = hitIndex + 1 == words.length ? 0 : hitIndex + 1;
+    return frozen.contains(word);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public MappedWordSet mappedOpen() throws IOException {
+    return MappedWordSet.open(mappedFile);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean mappedLookupHit() throws InvalidWordException {
+    String word = words[hitIndex];
+    hitIndex = hitIndex + 1 == words.length ? 0 : hitIndex + 1;
+    return mapped.contains(word);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<String> topCompletions() throws InvalidWordException {
+    String word = words[hitIndex];
+    hitIndex = hitIndex + 1 == words.length ? 0 : hitIndex + 1;
+    return weighted.topCompletions(word.substring(0, Math.min(2, word.length())), 10);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<String> fuzzyMatches() throws InvalidWordException {
+    String word = misses[missIndex];
+    missIndex = missIndex + 1 == misses.length ? 0 : missIndex + 1;
+    return populated.fuzzyMatches(word, 2);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean lookupMiss() throws InvalidWordException {
+    String word = misses[missIndex];
+    missIndex = missIndex + 1 == misses.length ? 0 : missIndex + 1;
+    return populated.contains(word);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean concurrentLookupHit() throws InvalidWordException {
+    String word = words[ThreadLocalRandom.current().nextInt(words.length)];
+    return concurrent.contains(word);
+  }
+}
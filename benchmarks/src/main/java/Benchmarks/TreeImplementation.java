@@ -0,0 +1,66 @@
+package Benchmarks;
+
+import AVL.AVLTree;
+import AVL.PersistentAVLTree;
+import AdaptiveRadixTree.AdaptiveRadixTree;
+import BPlusTree.BPlusTree;
+import BST.ArrayBasedBST;
+import BST.BST;
+import BST.KeyEncoders;
+import BST.LinkedNodesBST;
+import BST.SnapshotBST;
+import RedBlackTree.PersistentRedBlackTree;
+import RedBlackTree.RedBlackTree;
+
+public enum TreeImplementation {
+  LINKED_NODES {
+    @Override
+    public BST<Integer> create(int expectedSize) {
+      return new LinkedNodesBST<>();
+    }
+  },
+  AVL {
+    @Override
+    public BST<Integer> create(int expectedSize) {
+      return new AVLTree<>();
+    }
+  },
+  RED_BLACK {
+    @Override
+    public BST<Integer> create(int expectedSize) {
+      return new RedBlackTree<>();
+    }
+  },
+  ARRAY_BASED {
+    @Override
+    public BST<Integer> create(int expectedSize) {
+      return new ArrayBasedBST<>();
+    }
+  },
+  ADAPTIVE_RADIX {
+    @Override
+    public BST<Integer> create(int expectedSize) {
+      return new AdaptiveRadixTree<>(KeyEncoders.INTEGER);
+    }
+  },
+  B_PLUS_TREE {
+    @Override
+    public BST<Integer> create(int expectedSize) {
+      return new BPlusTree<>();
+    }
+  },
+  PERSISTENT_AVL {
+    @Override
+    public BST<Integer> create(int expectedSize) {
+      return new SnapshotBST<Integer>(PersistentAVLTree.empty());
+    }
+  },
+  PERSISTENT_RED_BLACK {
+    @Override
+    public BST<Integer> create(int expectedSize) {
+      return new SnapshotBST<Integer>(PersistentRedBlackTree.empty());
+    }
+  };
+
+  public abstract BST<Integer> create(int expectedSize);
+}
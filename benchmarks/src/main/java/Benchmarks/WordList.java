@@ -0,0 +1,82 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+public final class WordList {
+
+  public static final String PROPERTY = "benchmark.words";
+  private static final String SYSTEM_DICTIONARY = "/usr/share/dict/words";
+
+  private WordList() {
+  }
+
+  /*
+  Loads the dictionary named by -Dbenchmark.words, falling back to the system dictionary.
+  Only words made of 'a'-'z' are kept, since that is all SimpleCompactWordSet accepts.
+  If neither file exists a synthetic list is generated so the suite still runs, with a warning.
+   */
+  public static List<String> load() {
+    String configured = System.getProperty(PROPERTY);
+    Path path = Paths.get(configured != null ? configured : SYSTEM_DICTIONARY);
+    if (!Files.isReadable(path)) {
+      if (configured != null) {
+        throw new IllegalStateException("Word list " + path + " is not readable.");
+      }
+      System.err.println("No word list at " + path + ", set -D" + PROPERTY
+          + "=<file> for realistic results. Using synthetic words.");
+      return synthetic(250_000, 42L);
+    }
+    try {
+      Set<String> words = new LinkedHashSet<>();
+      for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+        String word = line.trim().toLowerCase(Locale.ROOT);
+        if (isLowerCaseAscii(word)) {
+          words.add(word);
+        }
+      }
+      return new ArrayList<>(words);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static boolean isLowerCaseAscii(String word) {
+    if (word.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < word.length(); i++) {
+      if (word.charAt(i) < 'a' || word.charAt(i) > 'z') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<String> synthetic(int count, long seed) {
+    //letter frequencies roughly follow English so the trie has a realistic shape
+    String letters = "eeeeeeeeeeeettttttttaaaaaaaooooooiiiiiiinnnnnnsssssshhhhhhrrrrrrddddllllcccuuummwwffggyypbvkjxqz";
+    Random random = new Random(seed);
+    Set<String> words = new LinkedHashSet<>();
+    StringBuilder builder = new StringBuilder();
+    while (words.size() < count) {
+      builder.setLength(0);
+      int length = 3 + random.nextInt(9);
+      for (int i = 0; i < length; i++) {
+        builder.append(letters.charAt(random.nextInt(letters.length())));
+      }
+      words.add(builder.toString());
+    }
+    return new ArrayList<>(words);
+  }
+}
@@ -1,10 +1,16 @@
 package AVL;
 
+import BST.Cursor;
 import BST.LinkedNodesBST;
-import java.util.HashSet;
-import java.util.Set;
+import BST.SizedLinkedNodesBST;
+import BST.SortedMerge;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
 
-public class AVLTree<E extends Comparable<E>> extends LinkedNodesBST<E> {
+public class AVLTree<E extends Comparable<E>> extends SizedLinkedNodesBST<E> {
 
   /*
   AVL Invariant: for every node, the difference between the heights of its left and right child
@@ -14,140 +20,534 @@ public class AVLTree<E extends Comparable<E>> extends LinkedNodesBST<E> {
     - nodes at level h - 1 have 0, 1 or 2 children
     - nodes at level h have no children (are leaves)
   Check after insertion or removal whether the tree became unbalanced and then rebalance if needed
+  Both updates descend once and then walk back up the parent pointers, fixing heights and rotating
+  where needed. The walk stops as soon as a subtree's height comes out unchanged, since nothing
+  above it can be affected; after an insertion that happens at the latest at the first rotation.
    */
 
   public AVLTree(E element) {
-    root = new AVLNode<>(element);
+    setRoot(element);
   }
 
   public AVLTree() {
     root = null;
   }
 
-  @SuppressWarnings("unchecked")
   private AVLNode<E> rightRotation(AVLNode<E> subTree) {
-    AVLNode tempTree = (AVLNode<E>) subTree.getLeftSubtree();
+    AVLNode<E> tempTree = leftOf(subTree);
     subTree.setLeftSubtree(tempTree.getRightSubtree());
+    if (rightOf(tempTree) != null) {
+      rightOf(tempTree).setParent(subTree);
+    }
+    transplant(subTree, tempTree);
     tempTree.setRightSubtree(subTree);
-    subTree.setHeight(Math.max(height((AVLNode<E>) subTree.getLeftSubtree()), height((AVLNode<E>) subTree.getRightSubtree())) + 1);
-    tempTree.setHeight(Math.max(height((AVLNode<E>) tempTree.getLeftSubtree()), subTree.getHeight()) + 1);
+    subTree.setParent(tempTree);
+    updateHeight(subTree);
+    updateHeight(tempTree);
+    updateSize(subTree);
+    updateSize(tempTree);
     return tempTree;
   }
 
-  @SuppressWarnings("unchecked")
   private AVLNode<E> leftRotation(AVLNode<E> subTree) {
-    AVLNode tempTree = (AVLNode<E>) subTree.getRightSubtree();
+    AVLNode<E> tempTree = rightOf(subTree);
     subTree.setRightSubtree(tempTree.getLeftSubtree());
+    if (leftOf(tempTree) != null) {
+      leftOf(tempTree).setParent(subTree);
+    }
+    transplant(subTree, tempTree);
     tempTree.setLeftSubtree(subTree);
-    subTree.setHeight(Math.max(height((AVLNode<E>) subTree.getLeftSubtree()), height((AVLNode<E>) subTree.getRightSubtree())) + 1);
-    tempTree.setHeight(Math.max(height((AVLNode<E>) tempTree.getRightSubtree()), subTree.getHeight()) + 1);
+    subTree.setParent(tempTree);
+    updateHeight(subTree);
+    updateHeight(tempTree);
+    updateSize(subTree);
+    updateSize(tempTree);
     return tempTree;
   }
 
   private AVLNode<E> leftRightRotation(AVLNode<E> subTree) {
-    subTree.setLeftSubtree(leftRotation((AVLNode<E>) subTree.getLeftSubtree()));
+    leftRotation(leftOf(subTree));
     return rightRotation(subTree);
   }
 
   private AVLNode<E> rightLeftRotation(AVLNode<E> subTree) {
-    subTree.setRightSubtree(rightRotation((AVLNode<E>) subTree.getRightSubtree()));
+    rightRotation(rightOf(subTree));
     return leftRotation(subTree);
   }
 
-  private void rebalance(AVLNode<E> node) {
+  //returns the root of the rebalanced subtree, which has taken node's place under its parent
+  private AVLNode<E> rebalance(AVLNode<E> node) {
     int deltaHeight = deltaHeight(node);
-    if (deltaHeight == 2) {
+    if (deltaHeight > 1) {
       //tree must be unbalanced to the left
-      if (height((AVLNode<E>) node.getLeftSubtree().getLeftSubtree()) >=
-          height((AVLNode<E>) node.getLeftSubtree().getRightSubtree())) {
-        rightRotation(node);
+      if (deltaHeight(leftOf(node)) >= 0) {
+        return rightRotation(node);
       } else {
-        leftRightRotation(node);
+        return leftRightRotation(node);
       }
-    } else if (deltaHeight == -2) {
-      if (height((AVLNode<E>) node.getRightSubtree().getRightSubtree()) >=
-          height((AVLNode<E>) node.getRightSubtree().getLeftSubtree())) {
-        leftRotation(node);
+    } else if (deltaHeight < -1) {
+      if (deltaHeight(rightOf(node)) <= 0) {
+        return leftRotation(node);
       } else {
-        rightLeftRotation(node);
+        return rightLeftRotation(node);
       }
     }
+    return node;
   }
 
   private int height(AVLNode<E> node) {
     return node == null ? -1 : node.getHeight();
   }
 
-  private int deltaHeight(Node<E> node) {
-    return height((AVLNode<E>) node.getLeftSubtree()) - height((AVLNode<E>) node.getRightSubtree());
+  private int deltaHeight(AVLNode<E> node) {
+    return height(leftOf(node)) - height(rightOf(node));
+  }
+
+  private void updateHeight(AVLNode<E> node) {
+    node.setHeight(Math.max(height(leftOf(node)), height(rightOf(node))) + 1);
+  }
+
+  //walks from node up to the root, stopping once a subtree's height is unchanged
+  private void retrace(AVLNode<E> node) {
+    while (node != null) {
+      int oldHeight = node.getHeight();
+      AVLNode<E> parent = node.getParent();
+      updateHeight(node);
+      AVLNode<E> subTree = rebalance(node);
+      if (subTree.getHeight() == oldHeight) {
+        return;
+      }
+      node = parent;
+    }
   }
 
+  @Override
   public boolean add(E element) {
     if (getRoot() == null) {
       setRoot(element);
       return true;
-    } else {
-      return add(root, element);
     }
+    return insertBelow((AVLNode<E>) root, element) != null;
   }
 
+  //adds element somewhere below from, whose subtree must span element's position; returns the
+  //new node, or null when the element is already in the tree
+  private AVLNode<E> insertBelow(AVLNode<E> from, E element) {
+    AVLNode<E> current = from;
+    AVLNode<E> parent;
+    int comparison;
+    do {
+      parent = current;
+      comparison = element.compareTo(current.getElement());
+      if (comparison < 0) {
+        current = leftOf(current);
+      } else if (comparison > 0) {
+        current = rightOf(current);
+      } else {
+        //element is already in the tree
+        return null;
+      }
+    } while (current != null);
+    AVLNode<E> node = new AVLNode<>(element, parent);
+    if (comparison < 0) {
+      parent.setLeftSubtree(node);
+    } else {
+      parent.setRightSubtree(node);
+    }
+    adjustSizesUpwards(parent, 1);
+    retrace(parent);
+    return node;
+  }
 
-  private boolean add(Node<E> subTree, E element) {
-    if (element.compareTo(subTree.getElement()) == 0) {
-      //element is already in the tree
+  @Override
+  public boolean remove(E element) {
+    AVLNode<E> node = findNode(element);
+    if (node == null) {
+      //the node is not in the set
       return false;
-    } else if (element.compareTo(subTree.getElement()) < 0) {
-      //element is in the left subtree
-      if (subTree.getLeftSubtree() == null) {
-        //reached the leaves
-        subTree.setLeftSubtree(new AVLNode<>(element));
-        rebalance((AVLNode<E>) subTree);
-        return true;
+    }
+    AVLNode<E> retraceFrom;
+    if (leftOf(node) == null || rightOf(node) == null) {
+      //0 or 1 children - the child (possibly null) moves up
+      retraceFrom = node.getParent();
+      transplant(node, leftOf(node) == null ? rightOf(node) : leftOf(node));
+    } else {
+      //2 children - splice the successor node into the removed node's position
+      AVLNode<E> successor = rightOf(node);
+      while (leftOf(successor) != null) {
+        successor = leftOf(successor);
+      }
+      if (successor.getParent() == node) {
+        retraceFrom = successor;
       } else {
-        //recursively add to the left subtree
-        return add(subTree.getLeftSubtree(), element);
+        retraceFrom = successor.getParent();
+        transplant(successor, rightOf(successor));
+        successor.setRightSubtree(node.getRightSubtree());
+        rightOf(successor).setParent(successor);
       }
-    } else {
-      //element is in the right subtree
-      if (subTree.getRightSubtree() == null) {
-        //reached the leaves
-        subTree.setRightSubtree(new AVLNode<>(element));
-        rebalance((AVLNode<E>) subTree);
-        return true;
+      transplant(node, successor);
+      successor.setLeftSubtree(node.getLeftSubtree());
+      leftOf(successor).setParent(successor);
+      successor.setHeight(node.getHeight());
+      successor.setSize(node.getSize());
+    }
+    node.setLeftSubtree(null);
+    node.setRightSubtree(null);
+    node.setParent(null);
+    adjustSizesUpwards(retraceFrom, -1);
+    retrace(retraceFrom);
+    return true;
+  }
+
+  private AVLNode<E> findNode(E element) {
+    AVLNode<E> current = (AVLNode<E>) root;
+    while (current != null) {
+      int comparison = element.compareTo(current.getElement());
+      if (comparison < 0) {
+        current = leftOf(current);
+      } else if (comparison > 0) {
+        current = rightOf(current);
       } else {
-        //recursively add to the right subtree
-        return add(subTree.getRightSubtree(), element);
+        return current;
       }
     }
+    return null;
   }
 
-  public boolean remove(E element) {
-    Set<Node<E>> deletedNode = new HashSet<>();
-    root = remove(root, element, deletedNode);
-    return !deletedNode.isEmpty();
+  //builds a perfectly balanced tree from strictly ascending elements in O(n)
+  public static <E extends Comparable<E>> AVLTree<E> fromSorted(List<? extends E> sorted) {
+    SortedMerge.checkStrictlyAscending(sorted);
+    AVLTree<E> tree = new AVLTree<>();
+    tree.root = tree.buildBalanced(sorted, 0, sorted.size(), null);
+    return tree;
   }
 
-  private Node<E> remove(Node<E> subTree, E element, Set<Node<E>> deletedNode) {
-    if (subTree == null) {
-      //the node is not in the set
+  public static <E extends Comparable<E>> AVLTree<E> fromSorted(E[] sorted) {
+    return fromSorted(Arrays.asList(sorted));
+  }
+
+  private AVLNode<E> buildBalanced(List<? extends E> sorted, int from, int to,
+      AVLNode<E> parent) {
+    if (from >= to) {
       return null;
-    } else if (element.compareTo(subTree.getElement()) < 0) {
-      subTree.setLeftSubtree(remove(subTree.getLeftSubtree(), element, deletedNode));
-      rebalance((AVLNode<E>) subTree);
-    } else if (element.compareTo(subTree.getElement()) > 0) {
-      subTree.setRightSubtree(remove(subTree.getRightSubtree(), element, deletedNode));
-      rebalance((AVLNode<E>) subTree);
+    }
+    int middle = (from + to) >>> 1;
+    AVLNode<E> node = new AVLNode<>(sorted.get(middle), parent);
+    node.setLeftSubtree(buildBalanced(sorted, from, middle, node));
+    node.setRightSubtree(buildBalanced(sorted, middle + 1, to, node));
+    updateHeight(node);
+    updateSize(node);
+    return node;
+  }
+
+  /*
+  union, intersection and difference merge the two in-order sequences and rebuild with
+  fromSorted, so they run in O(n + m) and leave both operands untouched.
+   */
+  public AVLTree<E> union(LinkedNodesBST<E> other) {
+    return fromSorted(SortedMerge.union(iterator(), other.iterator()));
+  }
+
+  public AVLTree<E> intersection(LinkedNodesBST<E> other) {
+    return fromSorted(SortedMerge.intersection(iterator(), other.iterator()));
+  }
+
+  public AVLTree<E> difference(LinkedNodesBST<E> other) {
+    return fromSorted(SortedMerge.difference(iterator(), other.iterator()));
+  }
+
+  //see addAllInOrder
+  @Override
+  public boolean addAll(Collection<? extends E> elements) {
+    return addAllInOrder(elements, cursor());
+  }
+
+  @Override
+  public boolean removeAll(Collection<? extends E> elements) {
+    return removeAllInOrder(elements);
+  }
+
+  /*
+  join and split restructure the trees in place in O(log n): join grafts the shorter tree onto
+  the spine of the taller one at a matching height and retraces from there, and split cuts the
+  tree along the search path for the key and joins the pieces on either side back together.
+   */
+
+  //moves every element of greater, all of which must be greater than this tree's elements, into
+  //this tree and leaves greater empty
+  public void join(AVLTree<E> greater) {
+    if (greater == this) {
+      throw new IllegalArgumentException("Cannot join a tree with itself.");
+    }
+    if (greater.root == null) {
+      return;
+    }
+    if (root != null && last().compareTo(greater.first()) >= 0) {
+      throw new IllegalArgumentException(
+          "Every element of the joined tree must be greater than this tree's elements.");
+    }
+    AVLNode<E> middle = greater.findNode(greater.first());
+    greater.remove(middle.getElement());
+    AVLNode<E> right = (AVLNode<E>) greater.root;
+    greater.root = null;
+    root = joinNodes(detach((AVLNode<E>) root), middle, detach(right));
+  }
+
+  //keeps the elements smaller than key in this tree and returns a new tree of the rest
+  public AVLTree<E> split(E key) {
+    AVLNode<E>[] parts = splitNodes(detach((AVLNode<E>) root), key);
+    root = parts[0];
+    AVLTree<E> greater = new AVLTree<>();
+    greater.root = parts[1];
+    return greater;
+  }
+
+  public E first() {
+    AVLNode<E> node = (AVLNode<E>) root;
+    if (node == null) {
+      throw new NoSuchElementException();
+    }
+    while (leftOf(node) != null) {
+      node = leftOf(node);
+    }
+    return node.getElement();
+  }
+
+  public E last() {
+    AVLNode<E> node = (AVLNode<E>) root;
+    if (node == null) {
+      throw new NoSuchElementException();
+    }
+    while (rightOf(node) != null) {
+      node = rightOf(node);
+    }
+    return node.getElement();
+  }
+
+  //returns {elements < key, elements >= key}; recursion depth is bounded by the tree height
+  @SuppressWarnings("unchecked")
+  private AVLNode<E>[] splitNodes(AVLNode<E> subTree, E key) {
+    if (subTree == null) {
+      return (AVLNode<E>[]) new AVLNode[2];
+    }
+    AVLNode<E> left = detach(leftOf(subTree));
+    AVLNode<E> right = detach(rightOf(subTree));
+    subTree.setLeftSubtree(null);
+    subTree.setRightSubtree(null);
+    int comparison = key.compareTo(subTree.getElement());
+    if (comparison < 0) {
+      AVLNode<E>[] parts = splitNodes(left, key);
+      parts[1] = joinNodes(parts[1], subTree, right);
+      return parts;
+    } else if (comparison > 0) {
+      AVLNode<E>[] parts = splitNodes(right, key);
+      parts[0] = joinNodes(left, subTree, parts[0]);
+      return parts;
     } else {
-      deletedNode.add(subTree);
-      subTree = deleteNode(subTree);
+      AVLNode<E>[] parts = (AVLNode<E>[]) new AVLNode[2];
+      parts[0] = left;
+      parts[1] = joinNodes(null, subTree, right);
+      return parts;
     }
-    return subTree;
+  }
+
+  //joins two detached subtrees (all of left < middle < all of right) and returns the new root
+  private AVLNode<E> joinNodes(AVLNode<E> left, AVLNode<E> middle, AVLNode<E> right) {
+    int leftHeight = height(left);
+    int rightHeight = height(right);
+    if (leftHeight > rightHeight + 1) {
+      //walk down the right spine of left to the first subtree no taller than right + 1
+      AVLNode<E> parent = null;
+      AVLNode<E> spine = left;
+      while (height(spine) > rightHeight + 1) {
+        parent = spine;
+        spine = rightOf(spine);
+      }
+      link(middle, spine, right);
+      parent.setRightSubtree(middle);
+      middle.setParent(parent);
+      return retraceToTop(parent);
+    } else if (rightHeight > leftHeight + 1) {
+      AVLNode<E> parent = null;
+      AVLNode<E> spine = right;
+      while (height(spine) > leftHeight + 1) {
+        parent = spine;
+        spine = leftOf(spine);
+      }
+      link(middle, left, spine);
+      parent.setLeftSubtree(middle);
+      middle.setParent(parent);
+      return retraceToTop(parent);
+    } else {
+      link(middle, left, right);
+      middle.setParent(null);
+      return middle;
+    }
+  }
+
+  private void link(AVLNode<E> node, AVLNode<E> left, AVLNode<E> right) {
+    node.setLeftSubtree(left);
+    node.setRightSubtree(right);
+    if (left != null) {
+      left.setParent(node);
+    }
+    if (right != null) {
+      right.setParent(node);
+    }
+    updateHeight(node);
+    updateSize(node);
+  }
+
+  //fixes heights, sizes and balance from node up to the top of its (detached) subtree
+  private AVLNode<E> retraceToTop(AVLNode<E> node) {
+    AVLNode<E> top = node;
+    while (node != null) {
+      updateHeight(node);
+      updateSize(node);
+      top = rebalance(node);
+      node = top.getParent();
+    }
+    return top;
+  }
+
+  private AVLNode<E> detach(AVLNode<E> node) {
+    if (node != null) {
+      node.setParent(null);
+    }
+    return node;
+  }
+
+  /*
+  contains for a reader racing writers under a StampedLock optimistic read. The stamp is
+  re-validated every few steps, so a walk that strays into a half-rotated subtree (where it could
+  even loop) is abandoned. Returns null whenever the result cannot be trusted.
+   */
+  Boolean containsOptimistically(E element, StampedLock lock, long stamp) {
+    Node<E> current = root;
+    int steps = 0;
+    while (current != null) {
+      if ((++steps & 15) == 0 && !lock.validate(stamp)) {
+        return null;
+      }
+      int comparison = element.compareTo(current.getElement());
+      if (comparison == 0) {
+        break;
+      }
+      current = comparison < 0 ? current.getLeftSubtree() : current.getRightSubtree();
+    }
+    boolean found = current != null;
+    return lock.validate(stamp) ? found : null;
+  }
+
+  //a cursor that starts off the end; see ParentLinkedCursor
+  public Cursor<E> cursor() {
+    return new TreeCursor();
+  }
+
+  private class TreeCursor extends ParentLinkedCursor {
+
+    @Override
+    protected Node<E> parentOf(Node<E> node) {
+      return ((AVLNode<E>) node).getParent();
+    }
+
+    @Override
+    protected Node<E> insertBelow(Node<E> from, E element) {
+      return AVLTree.this.insertBelow((AVLNode<E>) from, element);
+    }
+  }
+
+  //replaces the subtree rooted at oldNode with the one rooted at newNode in oldNode's parent
+  private void transplant(AVLNode<E> oldNode, AVLNode<E> newNode) {
+    AVLNode<E> parent = oldNode.getParent();
+    if (parent == null) {
+      root = newNode;
+    } else if (oldNode == leftOf(parent)) {
+      parent.setLeftSubtree(newNode);
+    } else {
+      parent.setRightSubtree(newNode);
+    }
+    if (newNode != null) {
+      newNode.setParent(parent);
+    }
+  }
+
+  @Override
+  protected int sizeOf(Node<E> node) {
+    return size((AVLNode<E>) node);
+  }
+
+  private int size(AVLNode<E> node) {
+    return node == null ? 0 : node.getSize();
+  }
+
+  private void updateSize(AVLNode<E> node) {
+    node.setSize(size(leftOf(node)) + size(rightOf(node)) + 1);
+  }
+
+  //adds delta to the size of node and every ancestor above it
+  private void adjustSizesUpwards(AVLNode<E> node, int delta) {
+    while (node != null) {
+      node.setSize(node.getSize() + delta);
+      node = node.getParent();
+    }
+  }
+
+  /*
+  Walks the whole tree and throws IllegalStateException at the first broken invariant: element
+  order, parent pointers, the stored heights and sizes, and the AVL balance itself. For tests.
+   */
+  void checkInvariants() {
+    AVLNode<E> top = (AVLNode<E>) root;
+    if (top != null && top.getParent() != null) {
+      throw new IllegalStateException("The root has a parent.");
+    }
+    checkSubtree(top, null, null);
+  }
+
+  //returns the height of the subtree, whose elements must all lie strictly between lo and hi
+  private int checkSubtree(AVLNode<E> node, E lo, E hi) {
+    if (node == null) {
+      return -1;
+    }
+    E element = node.getElement();
+    if ((lo != null && element.compareTo(lo) <= 0) || (hi != null && element.compareTo(hi) >= 0)) {
+      throw new IllegalStateException("Element " + element + " is out of order.");
+    }
+    AVLNode<E> left = leftOf(node);
+    AVLNode<E> right = rightOf(node);
+    if ((left != null && left.getParent() != node)
+        || (right != null && right.getParent() != node)) {
+      throw new IllegalStateException("A child of " + element + " has the wrong parent.");
+    }
+    int leftHeight = checkSubtree(left, lo, element);
+    int rightHeight = checkSubtree(right, element, hi);
+    if (Math.abs(leftHeight - rightHeight) > 1) {
+      throw new IllegalStateException("The subtree at " + element + " is unbalanced.");
+    }
+    int height = Math.max(leftHeight, rightHeight) + 1;
+    if (node.getHeight() != height) {
+      throw new IllegalStateException("The height stored at " + element + " is wrong.");
+    }
+    if (node.getSize() != size(left) + size(right) + 1) {
+      throw new IllegalStateException("The size stored at " + element + " is wrong.");
+    }
+    return height;
+  }
+
+  private AVLNode<E> leftOf(AVLNode<E> node) {
+    return node == null ? null : (AVLNode<E>) node.getLeftSubtree();
+  }
+
+  private AVLNode<E> rightOf(AVLNode<E> node) {
+    return node == null ? null : (AVLNode<E>) node.getRightSubtree();
   }
 
   public Node<E> getRoot() {
     return root;
   }
 
+  @Override
   public void setRoot(E element) {
     root = new AVLNode<>(element);
   }
@@ -155,9 +555,17 @@ public class AVLTree<E extends Comparable<E>> extends LinkedNodesBST<E> {
   private class AVLNode<T> extends Node<T> {
 
     private int height;
+    private AVLNode<T> parent;
+    private int size;
+
+    private AVLNode(T element, AVLNode<T> parent) {
+      this(element);
+      this.parent = parent;
+    }
 
     private AVLNode(T element) {
       super(element);
+      this.size = 1;
       this.height = 0;
     }
 
@@ -168,6 +576,22 @@ public class AVLTree<E extends Comparable<E>> extends LinkedNodesBST<E> {
     public void setHeight(int height) {
       this.height = height;
     }
+
+    public int getSize() {
+      return size;
+    }
+
+    public void setSize(int size) {
+      this.size = size;
+    }
+
+    public AVLNode<T> getParent() {
+      return parent;
+    }
+
+    public void setParent(AVLNode<T> parent) {
+      this.parent = parent;
+    }
   }
 
 }
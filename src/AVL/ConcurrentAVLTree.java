@@ -0,0 +1,222 @@
+package AVL;
+
+import BST.BST;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/*
+Thread-safe BST built from AVL trees over disjoint key ranges. The set is cut into partitions
+[lo, hi), kept in key order in a copy-on-write array, and each partition is an AVLTree guarded by
+its own StampedLock:
+  - an element is routed to its partition by binary search on the lower bounds, so only
+    compareTo is used and the partitions, read in order, give the set in order
+  - contains is an optimistic read: it walks the partition without locking and only falls back
+    to the read lock if a writer on the same partition invalidated the walk
+  - add and remove take the write lock of their partition only, so writers to different key
+    ranges never contend
+A partition that grows past the split size is split at its median: the upper half becomes a new
+partition, which is published in the array before the old one's upper bound is lowered. A lower
+bound never changes, so a reader or writer that routed on a stale array sees the key fall outside
+the partition's range once it holds the lock (or validates its stamp) and routes again.
+Partitions are never merged, so a set that shrinks keeps its partitions. The whole-set operations
+(size, inOrderTraversal) walk the partitions in key order one after the other, so they are
+consistent per partition but not an atomic snapshot of the set.
+ */
+public class ConcurrentAVLTree<E extends Comparable<E>> implements BST<E> {
+
+  private static final int DEFAULT_SPLIT_SIZE = 1 << 12;
+
+  private final int splitSize;
+  private volatile Partition<E>[] partitions;
+
+  @SuppressWarnings("unchecked")
+  public ConcurrentAVLTree(int splitSize) {
+    if (splitSize < 2) {
+      throw new IllegalArgumentException("Split size must be at least 2.");
+    }
+    this.splitSize = splitSize;
+    partitions = (Partition<E>[]) new Partition[] {new Partition<>(null, null, new AVLTree<E>())};
+  }
+
+  public ConcurrentAVLTree() {
+    this(DEFAULT_SPLIT_SIZE);
+  }
+
+  //the last partition whose lower bound is at most element; the first one has no lower bound
+  private Partition<E> route(E element) {
+    Partition<E>[] current = partitions;
+    int low = 1;
+    int high = current.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (current[mid].lo.compareTo(element) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return current[low - 1];
+  }
+
+  @Override
+  public boolean add(E element) {
+    while (true) {
+      Partition<E> partition = route(element);
+      long stamp = partition.lock.writeLock();
+      try {
+        if (!partition.covers(element)) {
+          //split while we waited for the lock
+          continue;
+        }
+        boolean added = partition.tree.add(element);
+        if (added && partition.tree.size() > splitSize) {
+          split(partition);
+        }
+        return added;
+      } finally {
+        partition.lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  @Override
+  public boolean remove(E element) {
+    while (true) {
+      Partition<E> partition = route(element);
+      long stamp = partition.lock.writeLock();
+      try {
+        if (partition.covers(element)) {
+          return partition.tree.remove(element);
+        }
+      } finally {
+        partition.lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(E element) {
+    while (true) {
+      Partition<E> partition = route(element);
+      StampedLock lock = partition.lock;
+      long stamp = lock.tryOptimisticRead();
+      if (stamp != 0) {
+        Boolean found = partition.tree.containsOptimistically(element, lock, stamp);
+        //the bound is read before the final validate, so it belongs to the same version
+        if (found != null && partition.covers(element) && lock.validate(stamp)) {
+          return found;
+        }
+      }
+      stamp = lock.readLock();
+      try {
+        if (partition.covers(element)) {
+          return partition.tree.contains(element);
+        }
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+  }
+
+  //the caller holds the partition's write lock
+  private void split(Partition<E> partition) {
+    E median = partition.tree.select(partition.tree.size() / 2);
+    Partition<E> upper = new Partition<>(median, partition.hi, partition.tree.split(median));
+    synchronized (this) {
+      Partition<E>[] current = partitions;
+      int i = Arrays.asList(current).indexOf(partition);
+      Partition<E>[] next = Arrays.copyOf(current, current.length + 1);
+      System.arraycopy(current, i + 1, next, i + 2, current.length - i - 1);
+      next[i + 1] = upper;
+      partitions = next;
+    }
+    partition.hi = median;
+  }
+
+  /*
+  The partition after p is the one whose lower bound is p's upper bound as read under p's lock:
+  it was published before that bound was set, and any later split of it only adds partitions
+  further up. So following the bounds visits every key range once, even across splits.
+   */
+
+  public int size() {
+    int size = 0;
+    Partition<E> partition = partitions[0];
+    while (partition != null) {
+      long stamp = partition.lock.readLock();
+      E hi;
+      try {
+        size += partition.tree.size();
+        hi = partition.hi;
+      } finally {
+        partition.lock.unlockRead(stamp);
+      }
+      partition = hi == null ? null : route(hi);
+    }
+    return size;
+  }
+
+  //copies every partition under its read lock, in key order
+  public List<E> inOrderTraversal() {
+    List<E> elements = new ArrayList<>();
+    Partition<E> partition = partitions[0];
+    while (partition != null) {
+      long stamp = partition.lock.readLock();
+      E hi;
+      try {
+        elements.addAll(partition.tree.inOrderTraversal());
+        hi = partition.hi;
+      } finally {
+        partition.lock.unlockRead(stamp);
+      }
+      partition = hi == null ? null : route(hi);
+    }
+    return elements;
+  }
+
+  public int getPartitionCount() {
+    return partitions.length;
+  }
+
+  //for tests, with no writers running: every partition is a valid AVL tree inside its bounds
+  void checkInvariants() {
+    Partition<E>[] current = partitions;
+    if (current[0].lo != null || current[current.length - 1].hi != null) {
+      throw new IllegalStateException("The partitions do not cover every key.");
+    }
+    for (int i = 0; i < current.length; i++) {
+      Partition<E> partition = current[i];
+      if (i > 0 && current[i - 1].hi.compareTo(partition.lo) != 0) {
+        throw new IllegalStateException("Partitions " + (i - 1) + " and " + i + " do not meet.");
+      }
+      partition.tree.checkInvariants();
+      if (partition.tree.size() > 0 && (!partition.covers(partition.tree.last())
+          || partition.lo != null && partition.lo.compareTo(partition.tree.first()) > 0)) {
+        throw new IllegalStateException("Partition " + i + " holds a key outside its range.");
+      }
+    }
+  }
+
+  private static final class Partition<E extends Comparable<E>> {
+
+    //null bounds are unbounded; lo is fixed, hi only ever moves down when the partition splits
+    private final E lo;
+    private volatile E hi;
+    private final AVLTree<E> tree;
+    private final StampedLock lock = new StampedLock();
+
+    private Partition(E lo, E hi, AVLTree<E> tree) {
+      this.lo = lo;
+      this.hi = hi;
+      this.tree = tree;
+    }
+
+    //lo <= element holds for any partition element was routed to, so only hi is checked
+    private boolean covers(E element) {
+      E bound = hi;
+      return bound == null || element.compareTo(bound) < 0;
+    }
+  }
+}
@@ -0,0 +1,257 @@
+package AVL;
+
+import BST.PersistentSortedSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+Persistent (immutable) AVL tree. Nodes are never modified once built: an update rebuilds only
+the nodes on the path from the root to the change, rebalancing with rotations that create new
+nodes too, and every subtree off that path is shared with the previous version. So with and
+without cost O(log n) time and new nodes, and each version is a consistent set that never
+changes. Nodes have no parent pointers, since a shared subtree has a parent in every version
+that contains it. The recursion depth is bounded by the height of the tree.
+ */
+public final class PersistentAVLTree<E extends Comparable<E>> implements PersistentSortedSet<E> {
+
+  private static final PersistentAVLTree<?> EMPTY = new PersistentAVLTree<>(null);
+
+  private final Node<E> root;
+
+  private PersistentAVLTree(Node<E> root) {
+    this.root = root;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E extends Comparable<E>> PersistentAVLTree<E> empty() {
+    return (PersistentAVLTree<E>) EMPTY;
+  }
+
+  private PersistentAVLTree<E> withRoot(Node<E> newRoot) {
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot == null ? empty() : new PersistentAVLTree<>(newRoot);
+  }
+
+  @Override
+  public PersistentAVLTree<E> with(E element) {
+    return withRoot(insert(root, element));
+  }
+
+  @Override
+  public PersistentAVLTree<E> without(E element) {
+    return withRoot(delete(root, element));
+  }
+
+  //returns node itself when element is already in its subtree
+  private Node<E> insert(Node<E> node, E element) {
+    if (node == null) {
+      return new Node<>(element, null, null);
+    }
+    int comparison = element.compareTo(node.element);
+    if (comparison < 0) {
+      Node<E> left = insert(node.left, element);
+      return left == node.left ? node : balance(node.element, left, node.right);
+    } else if (comparison > 0) {
+      Node<E> right = insert(node.right, element);
+      return right == node.right ? node : balance(node.element, node.left, right);
+    }
+    return node;
+  }
+
+  //returns node itself when element is not in its subtree
+  private Node<E> delete(Node<E> node, E element) {
+    if (node == null) {
+      return null;
+    }
+    int comparison = element.compareTo(node.element);
+    if (comparison < 0) {
+      Node<E> left = delete(node.left, element);
+      return left == node.left ? node : balance(node.element, left, node.right);
+    } else if (comparison > 0) {
+      Node<E> right = delete(node.right, element);
+      return right == node.right ? node : balance(node.element, node.left, right);
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    //2 children - the successor takes the removed element's place
+    Node<E> successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor.element, node.left, deleteMin(node.right));
+  }
+
+  private Node<E> deleteMin(Node<E> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node.element, deleteMin(node.left), node.right);
+  }
+
+  //a new node over left and right, rotated if their heights differ by 2
+  private Node<E> balance(E element, Node<E> left, Node<E> right) {
+    int deltaHeight = height(left) - height(right);
+    if (deltaHeight > 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node<>(left.element, left.left, new Node<>(element, left.right, right));
+      }
+      //left-right case: left's right child becomes the root of the subtree
+      Node<E> pivot = left.right;
+      return new Node<>(pivot.element, new Node<>(left.element, left.left, pivot.left),
+          new Node<>(element, pivot.right, right));
+    } else if (deltaHeight < -1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node<>(right.element, new Node<>(element, left, right.left), right.right);
+      }
+      Node<E> pivot = right.left;
+      return new Node<>(pivot.element, new Node<>(element, left, pivot.left),
+          new Node<>(right.element, pivot.right, right.right));
+    }
+    return new Node<>(element, left, right);
+  }
+
+  private static int height(Node<?> node) {
+    return node == null ? -1 : node.height;
+  }
+
+  @Override
+  public boolean contains(E element) {
+    Node<E> current = root;
+    while (current != null) {
+      int comparison = element.compareTo(current.element);
+      if (comparison < 0) {
+        current = current.left;
+      } else if (comparison > 0) {
+        current = current.right;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    return root == null ? 0 : root.size;
+  }
+
+  //the k-th smallest element, counting from 0
+  public E select(int k) {
+    if (k < 0 || k >= size()) {
+      throw new IndexOutOfBoundsException("Index " + k + " is out of range for a set of size "
+          + size() + ".");
+    }
+    Node<E> current = root;
+    while (true) {
+      int leftSize = current.left == null ? 0 : current.left.size;
+      if (k < leftSize) {
+        current = current.left;
+      } else if (k > leftSize) {
+        k -= leftSize + 1;
+        current = current.right;
+      } else {
+        return current.element;
+      }
+    }
+  }
+
+  //for tests: order, sizes, stored heights and the AVL balance rule
+  void checkInvariants() {
+    checkSubtree(root, null, null);
+  }
+
+  //returns the height of the subtree, whose elements must all lie strictly between lo and hi
+  private int checkSubtree(Node<E> node, E lo, E hi) {
+    if (node == null) {
+      return -1;
+    }
+    E element = node.element;
+    if ((lo != null && element.compareTo(lo) <= 0) || (hi != null && element.compareTo(hi) >= 0)) {
+      throw new IllegalStateException("Element " + element + " is out of order.");
+    }
+    int leftHeight = checkSubtree(node.left, lo, element);
+    int rightHeight = checkSubtree(node.right, element, hi);
+    if (Math.abs(leftHeight - rightHeight) > 1) {
+      throw new IllegalStateException("Node " + element + " is unbalanced.");
+    }
+    if (node.height != Math.max(leftHeight, rightHeight) + 1) {
+      throw new IllegalStateException("The height stored at " + element + " is wrong.");
+    }
+    if (node.size != (node.left == null ? 0 : node.left.size)
+        + (node.right == null ? 0 : node.right.size) + 1) {
+      throw new IllegalStateException("The size stored at " + element + " is wrong.");
+    }
+    return node.height;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new InOrderIterator<>(root);
+  }
+
+  @Override
+  public List<E> inOrderTraversal() {
+    List<E> elements = new ArrayList<>(size());
+    iterator().forEachRemaining(elements::add);
+    return elements;
+  }
+
+  private static final class InOrderIterator<E> implements Iterator<E> {
+
+    private final Deque<Node<E>> stack = new ArrayDeque<>();
+
+    private InOrderIterator(Node<E> root) {
+      pushLeftSpine(root);
+    }
+
+    private void pushLeftSpine(Node<E> node) {
+      while (node != null) {
+        stack.push(node);
+        node = node.left;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public E next() {
+      if (stack.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      Node<E> node = stack.pop();
+      pushLeftSpine(node.right);
+      return node.element;
+    }
+  }
+
+  //static, so a node shared between versions does not keep the tree that created it alive
+  private static final class Node<E> {
+
+    private final E element;
+    private final Node<E> left;
+    private final Node<E> right;
+    private final int height;
+    private final int size;
+
+    private Node(E element, Node<E> left, Node<E> right) {
+      this.element = element;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = (left == null ? 0 : left.size) + (right == null ? 0 : right.size) + 1;
+    }
+  }
+}
@@ -0,0 +1,619 @@
+package AdaptiveRadixTree;
+
+import BST.BST;
+import BST.KeyEncoder;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+Adaptive Radix Tree (Leis et al., ICDE 2013). Elements are turned into byte strings by a
+KeyEncoder and stored as a radix tree over those bytes, so a lookup costs one step per key byte
+- independent of how many elements there are - and never calls compareTo. Iteration visits the
+keys in unsigned byte order, which for an order-preserving KeyEncoder is ascending order.
+Each node adapts its child map to its fan-out:
+  - Node4 and Node16 keep up to 4 / 16 key bytes in a sorted array beside the children
+  - Node48 maps every byte to a slot in a 48-entry child array
+  - Node256 is indexed directly by byte
+A node grows to the next type when it fills up and shrinks back when it gets sparse. Chains of
+single-child nodes are path-compressed into a byte prefix on the node below them. A key that is
+a prefix of another key (for example a string and its extension) is marked on the inner node
+where it ends. Not thread-safe.
+ */
+public class AdaptiveRadixTree<E extends Comparable<E>> implements BST<E>, Iterable<E> {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final KeyEncoder<E> encoder;
+  //the root's prefix is always empty, so it is never split or merged away
+  private Node root;
+  private int size;
+
+  public AdaptiveRadixTree(KeyEncoder<E> encoder) {
+    this.encoder = encoder;
+    root = new Node4(EMPTY);
+    size = 0;
+  }
+
+  //how many bytes of prefix match key from position from onwards
+  private static int matchPrefix(byte[] prefix, byte[] key, int from) {
+    int limit = Math.min(prefix.length, key.length - from);
+    int matched = 0;
+    while (matched < limit && prefix[matched] == key[from + matched]) {
+      matched++;
+    }
+    return matched;
+  }
+
+  @Override
+  public boolean add(E element) {
+    byte[] key = encoder.encode(element);
+    Node parent = null;
+    int edge = 0;
+    Node node = root;
+    int depth = 0;
+    while (true) {
+      int matched = matchPrefix(node.prefix, key, depth);
+      if (matched < node.prefix.length) {
+        //the key leaves this node's prefix part way along: split the prefix at that point
+        Node middle = new Node4(Arrays.copyOf(node.prefix, matched));
+        int splitByte = node.prefix[matched] & 0xFF;
+        node.prefix = Arrays.copyOfRange(node.prefix, matched + 1, node.prefix.length);
+        middle.addChild(splitByte, node);
+        depth += matched;
+        if (depth == key.length) {
+          middle.isKey = true;
+        } else {
+          middle.addChild(key[depth] & 0xFF, leaf(key, depth + 1));
+        }
+        parent.replaceChild(edge, middle);
+        size++;
+        return true;
+      }
+      depth += matched;
+      if (depth == key.length) {
+        if (node.isKey) {
+          return false;
+        }
+        node.isKey = true;
+        size++;
+        return true;
+      }
+      int next = key[depth] & 0xFF;
+      Node child = node.findChild(next);
+      if (child == null) {
+        Node grown = node.addChild(next, leaf(key, depth + 1));
+        if (grown != node) {
+          replace(parent, edge, grown);
+        }
+        size++;
+        return true;
+      }
+      parent = node;
+      edge = next;
+      node = child;
+      depth++;
+    }
+  }
+
+  private static Node leaf(byte[] key, int from) {
+    Node leaf = new Node4(Arrays.copyOfRange(key, from, key.length));
+    leaf.isKey = true;
+    return leaf;
+  }
+
+  private void replace(Node parent, int edge, Node node) {
+    if (parent == null) {
+      root = node;
+    } else {
+      parent.replaceChild(edge, node);
+    }
+  }
+
+  /*
+  After unmarking the key, an empty leaf is unlinked from its parent, and a non-key node left
+  with a single child is merged into that child, so the tree stays as compressed as if the key
+  had never been added.
+   */
+  @Override
+  public boolean remove(E element) {
+    byte[] key = encoder.encode(element);
+    Node grandparent = null;
+    int parentEdge = 0;
+    Node parent = null;
+    int edge = 0;
+    Node node = root;
+    int depth = 0;
+    while (true) {
+      if (matchPrefix(node.prefix, key, depth) < node.prefix.length) {
+        return false;
+      }
+      depth += node.prefix.length;
+      if (depth == key.length) {
+        break;
+      }
+      Node child = node.findChild(key[depth] & 0xFF);
+      if (child == null) {
+        return false;
+      }
+      grandparent = parent;
+      parentEdge = edge;
+      parent = node;
+      edge = key[depth] & 0xFF;
+      node = child;
+      depth++;
+    }
+    if (!node.isKey) {
+      return false;
+    }
+    node.isKey = false;
+    size--;
+    if (node == root) {
+      return true;
+    }
+    if (node.count == 0) {
+      Node shrunk = parent.removeChild(edge);
+      if (parent != root && !parent.isKey && shrunk.count == 1) {
+        replace(grandparent, parentEdge, mergeWithOnlyChild(shrunk));
+      } else if (shrunk != parent) {
+        replace(grandparent, parentEdge, shrunk);
+      }
+    } else if (node.count == 1) {
+      parent.replaceChild(edge, mergeWithOnlyChild(node));
+    }
+    return true;
+  }
+
+  //the only child of node, with node's prefix and the byte leading to it prepended to its own
+  private static Node mergeWithOnlyChild(Node node) {
+    int edge = node.nextKey(0);
+    Node child = node.findChild(edge);
+    byte[] merged = new byte[node.prefix.length + 1 + child.prefix.length];
+    System.arraycopy(node.prefix, 0, merged, 0, node.prefix.length);
+    merged[node.prefix.length] = (byte) edge;
+    System.arraycopy(child.prefix, 0, merged, node.prefix.length + 1, child.prefix.length);
+    child.prefix = merged;
+    return child;
+  }
+
+  @Override
+  public boolean contains(E element) {
+    byte[] key = encoder.encode(element);
+    Node node = root;
+    int depth = 0;
+    while (true) {
+      if (matchPrefix(node.prefix, key, depth) < node.prefix.length) {
+        return false;
+      }
+      depth += node.prefix.length;
+      if (depth == key.length) {
+        return node.isKey;
+      }
+      node = node.findChild(key[depth] & 0xFF);
+      if (node == null) {
+        return false;
+      }
+      depth++;
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  //ascending byte order, i.e. the encoder's order; keys are decoded from the current path
+  @Override
+  public Iterator<E> iterator() {
+    return new KeyIterator();
+  }
+
+  public Stream<E> stream() {
+    return StreamSupport.stream(Spliterators.spliterator(iterator(), size,
+        Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL),
+        false);
+  }
+
+  private class KeyIterator implements Iterator<E> {
+
+    private byte[] path = new byte[64];
+    private int pathLength;
+    private Node[] nodes = new Node[16];
+    //the next child byte to visit at each depth, -1 until the node itself has been reported
+    private int[] nextByte = new int[16];
+    //pathLength before each node's edge byte and prefix were appended
+    private int[] pathBefore = new int[16];
+    private int depth;
+    private E next;
+
+    KeyIterator() {
+      push(root, -1);
+      next = advance();
+    }
+
+    private void append(int b) {
+      if (pathLength == path.length) {
+        path = Arrays.copyOf(path, pathLength * 2);
+      }
+      path[pathLength++] = (byte) b;
+    }
+
+    private void push(Node node, int edge) {
+      if (depth == nodes.length) {
+        nodes = Arrays.copyOf(nodes, depth * 2);
+        nextByte = Arrays.copyOf(nextByte, depth * 2);
+        pathBefore = Arrays.copyOf(pathBefore, depth * 2);
+      }
+      nodes[depth] = node;
+      nextByte[depth] = -1;
+      pathBefore[depth] = pathLength;
+      depth++;
+      if (edge >= 0) {
+        append(edge);
+      }
+      for (byte b : node.prefix) {
+        append(b);
+      }
+    }
+
+    private E advance() {
+      while (depth > 0) {
+        Node node = nodes[depth - 1];
+        int b = nextByte[depth - 1];
+        if (b == -1) {
+          nextByte[depth - 1] = 0;
+          if (node.isKey) {
+            return encoder.decode(path, 0, pathLength);
+          }
+          continue;
+        }
+        int edge = b > 0xFF ? -1 : node.nextKey(b);
+        if (edge >= 0) {
+          nextByte[depth - 1] = edge + 1;
+          push(node.findChild(edge), edge);
+        } else {
+          depth--;
+          pathLength = pathBefore[depth];
+          nodes[depth] = null;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public E next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      E result = next;
+      next = advance();
+      return result;
+    }
+  }
+
+  /*
+  Child bytes are passed around as ints 0-255. addChild and removeChild return the node that now
+  holds the children - this one, or a grown or shrunk copy that the caller must link in instead.
+   */
+  private abstract static class Node {
+
+    byte[] prefix;
+    boolean isKey;
+    int count;
+
+    Node(byte[] prefix) {
+      this.prefix = prefix;
+    }
+
+    abstract Node findChild(int b);
+
+    //the smallest child byte >= from, or -1
+    abstract int nextKey(int from);
+
+    //b must not be taken yet
+    abstract Node addChild(int b, Node child);
+
+    abstract Node removeChild(int b);
+
+    abstract void replaceChild(int b, Node child);
+
+    void copyHeader(Node from) {
+      isKey = from.isKey;
+    }
+  }
+
+  //up to 4 children; a leaf allocates no arrays at all
+  private static final class Node4 extends Node {
+
+    private byte[] keys;
+    private Node[] children;
+
+    Node4(byte[] prefix) {
+      super(prefix);
+    }
+
+    @Override
+    Node findChild(int b) {
+      for (int i = 0; i < count; i++) {
+        if ((keys[i] & 0xFF) == b) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    @Override
+    int nextKey(int from) {
+      for (int i = 0; i < count; i++) {
+        if ((keys[i] & 0xFF) >= from) {
+          return keys[i] & 0xFF;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Node addChild(int b, Node child) {
+      if (count == 4) {
+        Node16 grown = new Node16(prefix);
+        grown.copyHeader(this);
+        for (int i = 0; i < count; i++) {
+          grown.addChild(keys[i] & 0xFF, children[i]);
+        }
+        return grown.addChild(b, child);
+      }
+      if (keys == null) {
+        keys = new byte[4];
+        children = new Node[4];
+      }
+      count = SortedKeys.insert(keys, children, count, b, child);
+      return this;
+    }
+
+    @Override
+    Node removeChild(int b) {
+      count = SortedKeys.delete(keys, children, count, b);
+      if (count == 0) {
+        keys = null;
+        children = null;
+      }
+      return this;
+    }
+
+    @Override
+    void replaceChild(int b, Node child) {
+      children[SortedKeys.indexOf(keys, count, b)] = child;
+    }
+  }
+
+  private static final class Node16 extends Node {
+
+    private final byte[] keys = new byte[16];
+    private final Node[] children = new Node[16];
+
+    Node16(byte[] prefix) {
+      super(prefix);
+    }
+
+    @Override
+    Node findChild(int b) {
+      int i = SortedKeys.indexOf(keys, count, b);
+      return i < 0 ? null : children[i];
+    }
+
+    @Override
+    int nextKey(int from) {
+      for (int i = 0; i < count; i++) {
+        if ((keys[i] & 0xFF) >= from) {
+          return keys[i] & 0xFF;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Node addChild(int b, Node child) {
+      if (count == 16) {
+        Node48 grown = new Node48(prefix);
+        grown.copyHeader(this);
+        for (int i = 0; i < count; i++) {
+          grown.addChild(keys[i] & 0xFF, children[i]);
+        }
+        return grown.addChild(b, child);
+      }
+      count = SortedKeys.insert(keys, children, count, b, child);
+      return this;
+    }
+
+    @Override
+    Node removeChild(int b) {
+      count = SortedKeys.delete(keys, children, count, b);
+      if (count > 3) {
+        return this;
+      }
+      Node4 shrunk = new Node4(prefix);
+      shrunk.copyHeader(this);
+      for (int i = 0; i < count; i++) {
+        shrunk.addChild(keys[i] & 0xFF, children[i]);
+      }
+      return shrunk;
+    }
+
+    @Override
+    void replaceChild(int b, Node child) {
+      children[SortedKeys.indexOf(keys, count, b)] = child;
+    }
+  }
+
+  private static final class Node48 extends Node {
+
+    //slot + 1 of the child for each byte, 0 if there is none
+    private final byte[] index = new byte[256];
+    private final Node[] children = new Node[48];
+
+    Node48(byte[] prefix) {
+      super(prefix);
+    }
+
+    @Override
+    Node findChild(int b) {
+      int slot = index[b];
+      return slot == 0 ? null : children[slot - 1];
+    }
+
+    @Override
+    int nextKey(int from) {
+      for (int b = from; b < 256; b++) {
+        if (index[b] != 0) {
+          return b;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Node addChild(int b, Node child) {
+      if (count == 48) {
+        Node256 grown = new Node256(prefix);
+        grown.copyHeader(this);
+        for (int key = 0; key < 256; key++) {
+          if (index[key] != 0) {
+            grown.addChild(key, children[index[key] - 1]);
+          }
+        }
+        return grown.addChild(b, child);
+      }
+      int slot = 0;
+      while (children[slot] != null) {
+        slot++;
+      }
+      children[slot] = child;
+      index[b] = (byte) (slot + 1);
+      count++;
+      return this;
+    }
+
+    @Override
+    Node removeChild(int b) {
+      children[index[b] - 1] = null;
+      index[b] = 0;
+      count--;
+      if (count > 12) {
+        return this;
+      }
+      Node16 shrunk = new Node16(prefix);
+      shrunk.copyHeader(this);
+      for (int key = 0; key < 256; key++) {
+        if (index[key] != 0) {
+          shrunk.addChild(key, children[index[key] - 1]);
+        }
+      }
+      return shrunk;
+    }
+
+    @Override
+    void replaceChild(int b, Node child) {
+      children[index[b] - 1] = child;
+    }
+  }
+
+  private static final class Node256 extends Node {
+
+    private final Node[] children = new Node[256];
+
+    Node256(byte[] prefix) {
+      super(prefix);
+    }
+
+    @Override
+    Node findChild(int b) {
+      return children[b];
+    }
+
+    @Override
+    int nextKey(int from) {
+      for (int b = from; b < 256; b++) {
+        if (children[b] != null) {
+          return b;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Node addChild(int b, Node child) {
+      children[b] = child;
+      count++;
+      return this;
+    }
+
+    @Override
+    Node removeChild(int b) {
+      children[b] = null;
+      count--;
+      //shrink well below 48 so a node hovering around the boundary does not flip every time
+      if (count > 36) {
+        return this;
+      }
+      Node48 shrunk = new Node48(prefix);
+      shrunk.copyHeader(this);
+      for (int key = 0; key < 256; key++) {
+        if (children[key] != null) {
+          shrunk.addChild(key, children[key]);
+        }
+      }
+      return shrunk;
+    }
+
+    @Override
+    void replaceChild(int b, Node child) {
+      children[b] = child;
+    }
+  }
+
+  //sorted key byte arrays shared by Node4 and Node16, compared as unsigned
+  private static final class SortedKeys {
+
+    private SortedKeys() {
+    }
+
+    static int indexOf(byte[] keys, int count, int b) {
+      for (int i = 0; i < count; i++) {
+        if ((keys[i] & 0xFF) == b) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    //returns the new count
+    static int insert(byte[] keys, Node[] children, int count, int b, Node child) {
+      int i = count;
+      while (i > 0 && (keys[i - 1] & 0xFF) > b) {
+        keys[i] = keys[i - 1];
+        children[i] = children[i - 1];
+        i--;
+      }
+      keys[i] = (byte) b;
+      children[i] = child;
+      return count + 1;
+    }
+
+    //returns the new count
+    static int delete(byte[] keys, Node[] children, int count, int b) {
+      int i = indexOf(keys, count, b);
+      System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+      System.arraycopy(children, i + 1, children, i, count - i - 1);
+      children[count - 1] = null;
+      return count - 1;
+    }
+  }
+}
@@ -0,0 +1,513 @@
+package BPlusTree;
+
+import BST.BST;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+In-memory B+-tree. Elements are packed into sorted arrays of up to fanout elements per leaf, and
+inner nodes hold up to fanout children with the separating elements between them, so a lookup
+touches about log_fanout(n) nodes - each one a binary search over a contiguous array - rather
+than one separately allocated node per comparison. All elements live in the leaves, which are
+chained left to right, so iteration and range scans just walk the leaf chain.
+Every node except the root is kept at least half full: inserts split a full node in two, and
+removes refill an underfull node from a sibling or merge it into one. Not thread-safe.
+ */
+public class BPlusTree<E extends Comparable<E>> implements BST<E>, Iterable<E> {
+
+  public static final int DEFAULT_FANOUT = 64;
+  private static final int MIN_FANOUT = 4;
+  private static final int LANES = 8;
+
+  private final int fanout;
+  private Node root;
+  private LeafNode firstLeaf;
+  private int size;
+  //set by insert when a node splits: the element separating the new right sibling from it
+  private E promoted;
+
+  public BPlusTree(int fanout) {
+    if (fanout < MIN_FANOUT) {
+      throw new IllegalArgumentException("Fanout must be at least " + MIN_FANOUT + ".");
+    }
+    this.fanout = fanout;
+    firstLeaf = new LeafNode();
+    root = firstLeaf;
+    size = 0;
+  }
+
+  public BPlusTree() {
+    this(DEFAULT_FANOUT);
+  }
+
+  public int getFanout() {
+    return fanout;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  //the fewest elements a leaf, or children an inner node, may have unless it is the root
+  private int minLeafElements() {
+    return fanout / 2;
+  }
+
+  private int minInnerChildren() {
+    return (fanout + 1) / 2;
+  }
+
+  //the index of the first of the count elements of keys that is >= element
+  private int lowerBound(E[] keys, int count, E element) {
+    int lo = 0;
+    int hi = count;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (keys[mid].compareTo(element) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  //the child of inner that may hold element: child i holds the elements in [keys[i-1], keys[i])
+  private int childIndex(InnerNode inner, E element) {
+    int i = lowerBound(inner.keys, inner.count, element);
+    return i < inner.count && inner.keys[i].compareTo(element) == 0 ? i + 1 : i;
+  }
+
+  private LeafNode findLeaf(E element) {
+    Node node = root;
+    while (node instanceof BPlusTree.InnerNode) {
+      InnerNode inner = (InnerNode) node;
+      node = inner.children[childIndex(inner, element)];
+    }
+    return (LeafNode) node;
+  }
+
+  @Override
+  public boolean contains(E element) {
+    LeafNode leaf = findLeaf(element);
+    int i = lowerBound(leaf.keys, leaf.count, element);
+    return i < leaf.count && leaf.keys[i].compareTo(element) == 0;
+  }
+
+  /*
+  Searches the batch LANES keys at a time in lockstep. Every leaf is at the same depth, so the
+  lanes descend one level per round together, and the processor can overlap the round's node
+  loads instead of waiting for each lookup's cache misses in turn.
+   */
+  @Override
+  public void containsAll(E[] keys, boolean[] out) {
+    if (out.length < keys.length) {
+      throw new IllegalArgumentException("out is shorter than keys.");
+    }
+    @SuppressWarnings("unchecked")
+    Node[] lane = (Node[]) new BPlusTree<?>.Node[LANES];
+    for (int start = 0; start < keys.length; start += LANES) {
+      int lanes = Math.min(LANES, keys.length - start);
+      for (int j = 0; j < lanes; j++) {
+        lane[j] = root;
+      }
+      while (lane[0] instanceof BPlusTree.InnerNode) {
+        for (int j = 0; j < lanes; j++) {
+          InnerNode inner = (InnerNode) lane[j];
+          lane[j] = inner.children[childIndex(inner, keys[start + j])];
+        }
+      }
+      for (int j = 0; j < lanes; j++) {
+        LeafNode leaf = (LeafNode) lane[j];
+        E key = keys[start + j];
+        int i = lowerBound(leaf.keys, leaf.count, key);
+        out[start + j] = i < leaf.count && leaf.keys[i].compareTo(key) == 0;
+      }
+    }
+  }
+
+  @Override
+  public boolean add(E element) {
+    int sizeBefore = size;
+    Node right = insert(root, element);
+    if (right != null) {
+      //the root split: grow the tree by one level
+      InnerNode newRoot = new InnerNode();
+      newRoot.keys[0] = promoted;
+      newRoot.children[0] = root;
+      newRoot.children[1] = right;
+      newRoot.count = 1;
+      root = newRoot;
+      promoted = null;
+    }
+    return size != sizeBefore;
+  }
+
+  //inserts below node; returns the new right sibling if node had to split, null otherwise
+  private Node insert(Node node, E element) {
+    if (node instanceof BPlusTree.LeafNode) {
+      LeafNode leaf = (LeafNode) node;
+      int i = lowerBound(leaf.keys, leaf.count, element);
+      if (i < leaf.count && leaf.keys[i].compareTo(element) == 0) {
+        return null;
+      }
+      System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.count - i);
+      leaf.keys[i] = element;
+      leaf.count++;
+      size++;
+      return leaf.count > fanout ? splitLeaf(leaf) : null;
+    }
+    InnerNode inner = (InnerNode) node;
+    int i = childIndex(inner, element);
+    Node right = insert(inner.children[i], element);
+    if (right == null) {
+      return null;
+    }
+    System.arraycopy(inner.keys, i, inner.keys, i + 1, inner.count - i);
+    System.arraycopy(inner.children, i + 1, inner.children, i + 2, inner.count - i);
+    inner.keys[i] = promoted;
+    inner.children[i + 1] = right;
+    inner.count++;
+    return inner.count + 1 > fanout ? splitInner(inner) : null;
+  }
+
+  private LeafNode splitLeaf(LeafNode leaf) {
+    LeafNode right = new LeafNode();
+    int keep = (leaf.count + 1) / 2;
+    right.count = leaf.count - keep;
+    System.arraycopy(leaf.keys, keep, right.keys, 0, right.count);
+    clear(leaf.keys, keep, leaf.count);
+    leaf.count = keep;
+    right.next = leaf.next;
+    leaf.next = right;
+    promoted = right.keys[0];
+    return right;
+  }
+
+  //the middle element moves up to the parent rather than staying in either half
+  private InnerNode splitInner(InnerNode inner) {
+    InnerNode right = new InnerNode();
+    int middle = inner.count / 2;
+    promoted = inner.keys[middle];
+    right.count = inner.count - middle - 1;
+    System.arraycopy(inner.keys, middle + 1, right.keys, 0, right.count);
+    System.arraycopy(inner.children, middle + 1, right.children, 0, right.count + 1);
+    clear(inner.keys, middle, inner.count);
+    clear(inner.children, middle + 1, inner.count + 1);
+    inner.count = middle;
+    return right;
+  }
+
+  private static void clear(Object[] array, int from, int to) {
+    for (int i = from; i < to; i++) {
+      array[i] = null;
+    }
+  }
+
+  @Override
+  public boolean remove(E element) {
+    if (!delete(root, element)) {
+      return false;
+    }
+    if (root instanceof BPlusTree.InnerNode && ((InnerNode) root).count == 0) {
+      //the root is down to a single child: shrink the tree by one level
+      root = ((InnerNode) root).children[0];
+    }
+    return true;
+  }
+
+  //removes element below node, then repairs any child left underfull on the way back up
+  private boolean delete(Node node, E element) {
+    if (node instanceof BPlusTree.LeafNode) {
+      LeafNode leaf = (LeafNode) node;
+      int i = lowerBound(leaf.keys, leaf.count, element);
+      if (i == leaf.count || leaf.keys[i].compareTo(element) != 0) {
+        return false;
+      }
+      System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.count - i - 1);
+      leaf.keys[--leaf.count] = null;
+      size--;
+      return true;
+    }
+    InnerNode inner = (InnerNode) node;
+    int i = childIndex(inner, element);
+    if (!delete(inner.children[i], element)) {
+      return false;
+    }
+    Node child = inner.children[i];
+    if (child instanceof BPlusTree.LeafNode) {
+      if (((LeafNode) child).count < minLeafElements()) {
+        rebalanceLeaf(inner, i);
+      }
+    } else if (((InnerNode) child).count + 1 < minInnerChildren()) {
+      rebalanceInner(inner, i);
+    }
+    return true;
+  }
+
+  private void rebalanceLeaf(InnerNode parent, int i) {
+    LeafNode leaf = (LeafNode) parent.children[i];
+    LeafNode left = i > 0 ? (LeafNode) parent.children[i - 1] : null;
+    LeafNode right = i < parent.count ? (LeafNode) parent.children[i + 1] : null;
+    if (left != null && left.count > minLeafElements()) {
+      System.arraycopy(leaf.keys, 0, leaf.keys, 1, leaf.count);
+      leaf.keys[0] = left.keys[--left.count];
+      left.keys[left.count] = null;
+      leaf.count++;
+      parent.keys[i - 1] = leaf.keys[0];
+    } else if (right != null && right.count > minLeafElements()) {
+      leaf.keys[leaf.count++] = right.keys[0];
+      System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+      right.keys[--right.count] = null;
+      parent.keys[i] = right.keys[0];
+    } else if (left != null) {
+      mergeLeaves(parent, i - 1);
+    } else {
+      mergeLeaves(parent, i);
+    }
+  }
+
+  //appends child i + 1 of parent to child i and drops the separator between them
+  private void mergeLeaves(InnerNode parent, int i) {
+    LeafNode left = (LeafNode) parent.children[i];
+    LeafNode right = (LeafNode) parent.children[i + 1];
+    System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+    left.count += right.count;
+    left.next = right.next;
+    removeFromInner(parent, i);
+  }
+
+  private void rebalanceInner(InnerNode parent, int i) {
+    InnerNode node = (InnerNode) parent.children[i];
+    InnerNode left = i > 0 ? (InnerNode) parent.children[i - 1] : null;
+    InnerNode right = i < parent.count ? (InnerNode) parent.children[i + 1] : null;
+    if (left != null && left.count + 1 > minInnerChildren()) {
+      //rotate through the parent: its separator comes down, left's last element goes up
+      System.arraycopy(node.keys, 0, node.keys, 1, node.count);
+      System.arraycopy(node.children, 0, node.children, 1, node.count + 1);
+      node.keys[0] = parent.keys[i - 1];
+      node.children[0] = left.children[left.count];
+      node.count++;
+      parent.keys[i - 1] = left.keys[left.count - 1];
+      left.keys[left.count - 1] = null;
+      left.children[left.count] = null;
+      left.count--;
+    } else if (right != null && right.count + 1 > minInnerChildren()) {
+      node.keys[node.count] = parent.keys[i];
+      node.children[node.count + 1] = right.children[0];
+      node.count++;
+      parent.keys[i] = right.keys[0];
+      System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+      System.arraycopy(right.children, 1, right.children, 0, right.count);
+      right.keys[right.count - 1] = null;
+      right.children[right.count] = null;
+      right.count--;
+    } else if (left != null) {
+      mergeInner(parent, i - 1);
+    } else {
+      mergeInner(parent, i);
+    }
+  }
+
+  //appends child i + 1 of parent to child i, bringing the separator between them down
+  private void mergeInner(InnerNode parent, int i) {
+    InnerNode left = (InnerNode) parent.children[i];
+    InnerNode right = (InnerNode) parent.children[i + 1];
+    left.keys[left.count] = parent.keys[i];
+    System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+    System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+    left.count += right.count + 1;
+    removeFromInner(parent, i);
+  }
+
+  //removes separator i and child i + 1 of parent
+  private void removeFromInner(InnerNode parent, int i) {
+    System.arraycopy(parent.keys, i + 1, parent.keys, i, parent.count - i - 1);
+    System.arraycopy(parent.children, i + 2, parent.children, i + 1, parent.count - i - 1);
+    parent.keys[parent.count - 1] = null;
+    parent.children[parent.count] = null;
+    parent.count--;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new LeafIterator(firstLeaf, 0, null, false);
+  }
+
+  public Stream<E> stream() {
+    return StreamSupport.stream(Spliterators.spliterator(iterator(), size,
+        Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL),
+        false);
+  }
+
+  //elements strictly less than hi
+  public Iterable<E> headSet(E hi) {
+    return () -> new LeafIterator(firstLeaf, 0, hi, false);
+  }
+
+  //elements greater than or equal to lo
+  public Iterable<E> tailSet(E lo) {
+    return subSet(lo, true, null, false);
+  }
+
+  //elements in [lo, hi)
+  public Iterable<E> subSet(E lo, E hi) {
+    return subSet(lo, true, hi, false);
+  }
+
+  /*
+  One descent finds the leaf where lo belongs; the scan then follows the leaf chain and stops at
+  the first element past hi, so a range costs O(log n + elements in range).
+   */
+  public Iterable<E> subSet(E lo, boolean loInclusive, E hi, boolean hiInclusive) {
+    if (hi != null && lo.compareTo(hi) > 0) {
+      throw new IllegalArgumentException("Lower bound is greater than upper bound.");
+    }
+    return () -> {
+      LeafNode leaf = findLeaf(lo);
+      int i = lowerBound(leaf.keys, leaf.count, lo);
+      if (!loInclusive && i < leaf.count && leaf.keys[i].compareTo(lo) == 0) {
+        i++;
+      }
+      return new LeafIterator(leaf, i, hi, hiInclusive);
+    };
+  }
+
+  private class LeafIterator implements Iterator<E> {
+
+    private final E hi;
+    private final boolean hiInclusive;
+    private LeafNode leaf;
+    private int index;
+
+    LeafIterator(LeafNode leaf, int index, E hi, boolean hiInclusive) {
+      this.leaf = leaf;
+      this.index = index;
+      this.hi = hi;
+      this.hiInclusive = hiInclusive;
+      skipExhaustedLeaves();
+    }
+
+    private void skipExhaustedLeaves() {
+      while (leaf != null && index >= leaf.count) {
+        leaf = leaf.next;
+        index = 0;
+      }
+      if (leaf != null && hi != null) {
+        int comparison = leaf.keys[index].compareTo(hi);
+        if (hiInclusive ? comparison > 0 : comparison >= 0) {
+          leaf = null;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return leaf != null;
+    }
+
+    @Override
+    public E next() {
+      if (leaf == null) {
+        throw new NoSuchElementException();
+      }
+      E element = leaf.keys[index++];
+      skipExhaustedLeaves();
+      return element;
+    }
+  }
+
+  /*
+  Walks the whole tree and throws IllegalStateException at the first broken invariant: element
+  order within and across nodes, every node but the root at least half full, every leaf at the
+  same depth, the leaf chain linking the leaves left to right, and the size. For tests.
+   */
+  void checkInvariants() {
+    List<LeafNode> leaves = new ArrayList<>();
+    checkSubtree(root, null, null, root, leaves);
+    LeafNode leaf = firstLeaf;
+    int elements = 0;
+    for (LeafNode expected : leaves) {
+      if (leaf != expected) {
+        throw new IllegalStateException("The leaf chain does not follow the leaves in order.");
+      }
+      elements += leaf.count;
+      leaf = leaf.next;
+    }
+    if (leaf != null) {
+      throw new IllegalStateException("The leaf chain runs past the last leaf.");
+    }
+    if (elements != size) {
+      throw new IllegalStateException("The size is " + size + " but the leaves hold " + elements
+          + ".");
+    }
+  }
+
+  //returns the depth of node's leaves; its elements must lie in [lo, hi)
+  private int checkSubtree(Node node, E lo, E hi, Node top, List<LeafNode> leaves) {
+    for (int i = 0; i < node.count; i++) {
+      E key = node.keys[i];
+      if ((i > 0 && node.keys[i - 1].compareTo(key) >= 0)
+          || (lo != null && key.compareTo(lo) < 0) || (hi != null && key.compareTo(hi) >= 0)) {
+        throw new IllegalStateException("Element " + key + " is out of order.");
+      }
+    }
+    if (node instanceof BPlusTree.LeafNode) {
+      if (node != top && node.count < minLeafElements()) {
+        throw new IllegalStateException("A leaf holds only " + node.count + " elements.");
+      }
+      leaves.add((LeafNode) node);
+      return 0;
+    }
+    InnerNode inner = (InnerNode) node;
+    if (inner.count + 1 < (inner == top ? 2 : minInnerChildren())) {
+      throw new IllegalStateException("An inner node has only " + (inner.count + 1)
+          + " children.");
+    }
+    int depth = -1;
+    for (int i = 0; i <= inner.count; i++) {
+      int childDepth = checkSubtree(inner.children[i], i == 0 ? lo : inner.keys[i - 1],
+          i == inner.count ? hi : inner.keys[i], top, leaves);
+      if (depth >= 0 && childDepth != depth) {
+        throw new IllegalStateException("The leaves are not all at the same depth.");
+      }
+      depth = childDepth;
+    }
+    return depth + 1;
+  }
+
+  private abstract class Node {
+
+    E[] keys;
+    int count;
+  }
+
+  //count elements in keys; one spare slot holds the overflow just before a split
+  private class LeafNode extends Node {
+
+    LeafNode next;
+
+    @SuppressWarnings("unchecked")
+    LeafNode() {
+      keys = (E[]) new Comparable[fanout + 1];
+    }
+  }
+
+  //count separators in keys and count + 1 children; again one spare slot for the overflow
+  private class InnerNode extends Node {
+
+    final Node[] children;
+
+    @SuppressWarnings("unchecked")
+    InnerNode() {
+      keys = (E[]) new Comparable[fanout];
+      children = (Node[]) new BPlusTree<?>.Node[fanout + 1];
+    }
+  }
+}
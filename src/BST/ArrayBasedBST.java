@@ -1,96 +1,343 @@
 package BST;
 
-public class ArrayBasedBST<E extends Comparable<E>> implements BST<E> {
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
 
-  private static final int DEFAULT_CAPACITY = 512;
+/*
+Semi-static sorted set for read-mostly lookup tables. The elements live in one array in
+Eytzinger (breadth-first) order: the root is at index 1 and the children of index i at 2i and
+2i + 1. A search walks down from the root doing nothing but index arithmetic, and the next few
+levels it can visit sit next to each other in the array rather than behind separate pointers.
+The descent is branchless: the comparison's sign bit is added straight into the next index
+instead of choosing between two paths.
+Updates are batched rather than applied to the array:
+  - added elements wait in a small pending set, checked after the array
+  - removed elements are only marked dead in a bitset
+and both are folded into a freshly laid out array by rebuild() once the pending set outgrows
+an eighth of the array or a quarter of the array is dead, so the cost of a rebuild is spread
+over many updates. Call rebuild() after a batch of updates to get the fastest lookups back.
+Not thread-safe.
+ */
+public class ArrayBasedBST<E extends Comparable<E>> implements BST<E>, Iterable<E> {
 
-  private E[] elements;
-  private int size;
+  private static final int MIN_PENDING = 64;
+  private static final int LANES = 8;
+
+  //Eytzinger layout in tree[1 .. treeSize]; tree[0] is unused
+  private E[] tree;
+  private int treeSize;
+  //bit i set when tree[i] has been removed since the last rebuild
+  private long[] removed;
+  private int removedCount;
+  private final TreeSet<E> pending;
+
+  private ArrayBasedBST(E[] sorted) {
+    pending = new TreeSet<>();
+    layOut(sorted, sorted.length);
+  }
 
   @SuppressWarnings("unchecked")
+  public ArrayBasedBST() {
+    this((E[]) new Comparable[0]);
+  }
+
+  /*
+  Deprecated: capacity is ignored. The array is laid out afresh, at exactly the number of live
+  elements, by every rebuild, so there is nothing to presize; use ArrayBasedBST() or fromSorted.
+   */
+  @Deprecated
   public ArrayBasedBST(int capacity) {
-    elements = (E[]) new Object[capacity];
-    size = 0;
+    this();
   }
 
-  public ArrayBasedBST() {
-    this(DEFAULT_CAPACITY);
+  public static <E extends Comparable<E>> ArrayBasedBST<E> fromSorted(List<? extends E> sorted) {
+    SortedMerge.checkStrictlyAscending(sorted);
+    @SuppressWarnings("unchecked")
+    E[] elements = sorted.toArray((E[]) new Comparable[0]);
+    return new ArrayBasedBST<>(elements);
+  }
+
+  public static <E extends Comparable<E>> ArrayBasedBST<E> fromSorted(E[] sorted) {
+    return fromSorted(Arrays.asList(sorted));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void layOut(E[] sorted, int count) {
+    tree = (E[]) new Comparable[count + 1];
+    treeSize = count;
+    removed = new long[(count >>> 6) + 1];
+    removedCount = 0;
+    fill(sorted, 0, 1);
+  }
+
+  //an in-order walk of the implicit tree visits the slots in sorted order; returns the next
+  //sorted index to place
+  private int fill(E[] sorted, int next, int index) {
+    if (index > treeSize) {
+      return next;
+    }
+    next = fill(sorted, next, 2 * index);
+    tree[index] = sorted[next++];
+    return fill(sorted, next, 2 * index + 1);
+  }
+
+  public int size() {
+    return treeSize - removedCount + pending.size();
+  }
+
+  //for tests: how many added elements are waiting for the next rebuild
+  int pendingCount() {
+    return pending.size();
+  }
+
+  /*
+  The index of the smallest element >= element in the array, or 0 if there is none. The loop
+  goes right exactly when the comparison is negative, i.e. when its sign bit is 1. At the end
+  the trailing 1 bits of the index are the final run of right turns, past the answer; shifting
+  them and the left turn before them out gives the answer's index.
+   */
+  private int lowerBound(E element) {
+    int i = 1;
+    while (i <= treeSize) {
+      i = 2 * i + (tree[i].compareTo(element) >>> 31);
+    }
+    return i >>> (Integer.numberOfTrailingZeros(~i) + 1);
+  }
+
+  //the array index holding element, live or removed, or 0
+  private int indexOf(E element) {
+    int i = lowerBound(element);
+    return i != 0 && tree[i].compareTo(element) == 0 ? i : 0;
+  }
+
+  private boolean isRemoved(int index) {
+    return (removed[index >>> 6] & (1L << index)) != 0;
   }
 
   @Override
-  public boolean add(E element) {
-    return add(0, element);
+  public boolean contains(E element) {
+    int i = indexOf(element);
+    if (i != 0) {
+      return !isRemoved(i);
+    }
+    return !pending.isEmpty() && pending.contains(element);
   }
 
-  private boolean add(int index, E element) {
-    if (indexOutOfBounds(index)) {
-      throw new ArrayIndexOutOfBoundsException("Index " + index +
-          " is out of the range of the array.");
+  /*
+  Searches the batch eight keys at a time in lockstep, one level per round. Every descent
+  through the array takes the same number of steps, give or take the last level, and the eight
+  are independent, so the processor can have all eight of a round's memory loads in flight at
+  once rather than waiting for each lookup's loads in turn.
+   */
+  @Override
+  public void containsAll(E[] keys, boolean[] out) {
+    if (out.length < keys.length) {
+      throw new IllegalArgumentException("out is shorter than keys.");
     }
-    if (elements[index] == null) {
-      elements[index] = element;
-      incrementSize();
-      return true;
-    } else {
-      if (element.compareTo(elements[index]) == 0) {
-        //the element is already in the set
-        return false;
-      } else if (element.compareTo(elements[index]) < 0) {
-        //recursively try to add to the left subtree
-        int leftSubtree = getLeftChild(index);
-        return add(leftSubtree, element);
-      } else {
-        //recursively try to add to the right subtree
-        int rightSubtree = getRightChild(index);
-        return add(rightSubtree, element);
+    int levels = 32 - Integer.numberOfLeadingZeros(treeSize);
+    int[] lane = new int[LANES];
+    for (int start = 0; start < keys.length; start += LANES) {
+      int lanes = Math.min(LANES, keys.length - start);
+      Arrays.fill(lane, 0, lanes, 1);
+      for (int level = 0; level < levels; level++) {
+        for (int j = 0; j < lanes; j++) {
+          int i = lane[j];
+          if (i <= treeSize) {
+            lane[j] = 2 * i + (tree[i].compareTo(keys[start + j]) >>> 31);
+          }
+        }
+      }
+      for (int j = 0; j < lanes; j++) {
+        E key = keys[start + j];
+        int i = lane[j] >>> (Integer.numberOfTrailingZeros(~lane[j]) + 1);
+        if (i != 0 && tree[i].compareTo(key) == 0) {
+          out[start + j] = !isRemoved(i);
+        } else {
+          out[start + j] = !pending.isEmpty() && pending.contains(key);
+        }
       }
     }
   }
 
   @Override
-  public boolean remove(E element) {
-    return false;
+  public boolean add(E element) {
+    int i = indexOf(element);
+    if (i != 0) {
+      if (!isRemoved(i)) {
+        return false;
+      }
+      //added back before the next rebuild: just revive it in place
+      removed[i >>> 6] &= ~(1L << i);
+      removedCount--;
+      return true;
+    }
+    if (!pending.add(element)) {
+      return false;
+    }
+    if (pending.size() > Math.max(MIN_PENDING, treeSize / 8)) {
+      rebuild();
+    }
+    return true;
   }
 
+  //adds every element, then rebuilds at most once, when the pending set has outgrown the same
+  //threshold add uses
   @Override
-  public boolean contains(E element) {
-    return contains(0, element);
+  public boolean addAll(Collection<? extends E> elements) {
+    boolean changed = false;
+    for (E element : elements) {
+      int i = indexOf(element);
+      if (i != 0) {
+        if (isRemoved(i)) {
+          removed[i >>> 6] &= ~(1L << i);
+          removedCount--;
+          changed = true;
+        }
+      } else {
+        changed |= pending.add(element);
+      }
+    }
+    if (pending.size() > Math.max(MIN_PENDING, treeSize / 8)) {
+      rebuild();
+    }
+    return changed;
   }
 
-  private boolean contains(int index, E element) {
-    if (indexOutOfBounds(index)) {
-      throw new ArrayIndexOutOfBoundsException("Index " + index +
-          " is out of the range of the array.");
+  @Override
+  public boolean remove(E element) {
+    int i = indexOf(element);
+    if (i == 0) {
+      return pending.remove(element);
     }
-    if (elements[index] == null) {
+    if (isRemoved(i)) {
       return false;
-    } else {
-      if (element.compareTo(elements[index]) == 0) {
-        return true;
-      } else if (element.compareTo(elements[index]) < 0) {
-        int leftSubtree = getLeftChild(index);
-        return contains(leftSubtree, element);
-      } else {
-        int rightSubtree = getRightChild(index);
-        return contains(rightSubtree, element);
+    }
+    removed[i >>> 6] |= 1L << i;
+    removedCount++;
+    if (removedCount > Math.max(MIN_PENDING, treeSize / 4)) {
+      rebuild();
+    }
+    return true;
+  }
+
+  //removes every element, then rebuilds at most once
+  @Override
+  public boolean removeAll(Collection<? extends E> elements) {
+    boolean changed = false;
+    for (E element : elements) {
+      int i = indexOf(element);
+      if (i == 0) {
+        changed |= pending.remove(element);
+      } else if (!isRemoved(i)) {
+        removed[i >>> 6] |= 1L << i;
+        removedCount++;
+        changed = true;
       }
     }
+    if (removedCount > Math.max(MIN_PENDING, treeSize / 4)) {
+      rebuild();
+    }
+    return changed;
   }
 
-  private void incrementSize() {
-    size++;
+  //merges the live array elements with the pending ones into a new array, in O(n)
+  @SuppressWarnings("unchecked")
+  public void rebuild() {
+    E[] sorted = (E[]) new Comparable[size()];
+    int count = 0;
+    Iterator<E> added = pending.iterator();
+    E nextAdded = added.hasNext() ? added.next() : null;
+    for (int i = firstIndex(); i != 0; i = nextIndex(i)) {
+      if (isRemoved(i)) {
+        continue;
+      }
+      while (nextAdded != null && nextAdded.compareTo(tree[i]) < 0) {
+        sorted[count++] = nextAdded;
+        nextAdded = added.hasNext() ? added.next() : null;
+      }
+      sorted[count++] = tree[i];
+    }
+    while (nextAdded != null) {
+      sorted[count++] = nextAdded;
+      nextAdded = added.hasNext() ? added.next() : null;
+    }
+    pending.clear();
+    layOut(sorted, count);
   }
 
-  private int getLeftChild(int index) {
-    return 2 * index + 1;
+  //the array index of the smallest element, or 0 when the array is empty
+  private int firstIndex() {
+    if (treeSize == 0) {
+      return 0;
+    }
+    int i = 1;
+    while (2 * i <= treeSize) {
+      i = 2 * i;
+    }
+    return i;
   }
 
-  private int getRightChild(int index) {
-    return 2 * index + 2;
+  //the in-order successor of index i in the array, or 0 after the last one
+  private int nextIndex(int i) {
+    if (2 * i + 1 <= treeSize) {
+      i = 2 * i + 1;
+      while (2 * i <= treeSize) {
+        i = 2 * i;
+      }
+      return i;
+    }
+    //climb while i is a right child; its parent then comes next
+    while ((i & 1) == 1) {
+      i >>>= 1;
+    }
+    return i >>> 1;
   }
 
-  private boolean indexOutOfBounds(int index) {
-    return index >= elements.length;
+  //ascending order, merging the array with the pending elements; do not modify while iterating
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private final Iterator<E> added = pending.iterator();
+      private E nextAdded = added.hasNext() ? added.next() : null;
+      private int index = skipRemoved(firstIndex());
+
+      private int skipRemoved(int i) {
+        while (i != 0 && isRemoved(i)) {
+          i = nextIndex(i);
+        }
+        return i;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return index != 0 || nextAdded != null;
+      }
+
+      @Override
+      public E next() {
+        if (index == 0 && nextAdded == null) {
+          throw new NoSuchElementException();
+        }
+        if (index != 0 && (nextAdded == null || tree[index].compareTo(nextAdded) < 0)) {
+          E element = tree[index];
+          index = skipRemoved(nextIndex(index));
+          return element;
+        }
+        E element = nextAdded;
+        nextAdded = added.hasNext() ? added.next() : null;
+        return element;
+      }
+    };
   }
 
+  public List<E> inOrderTraversal() {
+    List<E> elements = new ArrayList<>(size());
+    iterator().forEachRemaining(elements::add);
+    return elements;
+  }
 }
@@ -1,5 +1,7 @@
 package BST;
 
+import java.util.Collection;
+
 public interface BST<E extends Comparable<E>> {
 
   boolean add(E element);
@@ -7,4 +9,35 @@ public interface BST<E extends Comparable<E>> {
   boolean remove(E element);
 
   boolean contains(E element);
+
+  /*
+  Batch operations. containsAll sets out[i] to whether keys[i] is present; addAll and removeAll
+  return true if the set changed. These defaults handle one key at a time; implementations
+  override them to share work across the batch, e.g. by running several lookups in lockstep or
+  by rebuilding once for the whole batch.
+   */
+  default void containsAll(E[] keys, boolean[] out) {
+    if (out.length < keys.length) {
+      throw new IllegalArgumentException("out is shorter than keys.");
+    }
+    for (int i = 0; i < keys.length; i++) {
+      out[i] = contains(keys[i]);
+    }
+  }
+
+  default boolean addAll(Collection<? extends E> elements) {
+    boolean changed = false;
+    for (E element : elements) {
+      changed |= add(element);
+    }
+    return changed;
+  }
+
+  default boolean removeAll(Collection<? extends E> elements) {
+    boolean changed = false;
+    for (E element : elements) {
+      changed |= remove(element);
+    }
+    return changed;
+  }
 }
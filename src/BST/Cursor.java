@@ -0,0 +1,36 @@
+package BST;
+
+/*
+A position in a sorted set that is remembered between calls, so a run of nearby lookups or
+inserts starts from where the last one ended rather than from the root. The cursor is either on
+an element or off the end: before the first seek, after seeking past the largest element, or
+after next() / prev() ran past either end.
+ */
+public interface Cursor<E extends Comparable<E>> {
+
+  //moves to the smallest element >= key, searching from the root; true when key itself is there
+  boolean seek(E key);
+
+  //as seek, but searches outwards from the current position
+  boolean seekNear(E key);
+
+  //false when the set is empty
+  boolean seekFirst();
+
+  boolean seekLast();
+
+  boolean isValid();
+
+  //the element under the cursor; throws NoSuchElementException when off the end
+  E get();
+
+  //move to the next larger / smaller element; false, leaving the cursor off the end, when there
+  //is none
+  boolean next();
+
+  boolean prev();
+
+  //adds element, searching outwards from the current position like seekNear, and moves onto it;
+  //false when it was already in the set
+  boolean insert(E element);
+}
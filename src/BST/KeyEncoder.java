@@ -0,0 +1,17 @@
+package BST;
+
+/*
+Turns elements into byte strings whose unsigned lexicographic order is the elements' compareTo
+order, so structures can compare, store or branch on raw bytes without decoding. Encodings must
+be injective: equal byte strings only for equal elements.
+ */
+public interface KeyEncoder<E extends Comparable<E>> {
+
+  byte[] encode(E element);
+
+  E decode(byte[] bytes, int offset, int length);
+
+  default E decode(byte[] bytes) {
+    return decode(bytes, 0, bytes.length);
+  }
+}
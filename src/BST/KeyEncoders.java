@@ -0,0 +1,100 @@
+package BST;
+
+public final class KeyEncoders {
+
+  private KeyEncoders() {
+  }
+
+  //big-endian with the sign bit flipped, so negative values sort before positive ones
+  public static final KeyEncoder<Long> LONG = new KeyEncoder<Long>() {
+    @Override
+    public byte[] encode(Long element) {
+      long bits = element ^ Long.MIN_VALUE;
+      byte[] bytes = new byte[Long.BYTES];
+      for (int i = Long.BYTES - 1; i >= 0; i--) {
+        bytes[i] = (byte) bits;
+        bits >>>= 8;
+      }
+      return bytes;
+    }
+
+    @Override
+    public Long decode(byte[] bytes, int offset, int length) {
+      long bits = 0;
+      for (int i = 0; i < Long.BYTES; i++) {
+        bits = (bits << 8) | (bytes[offset + i] & 0xFF);
+      }
+      return bits ^ Long.MIN_VALUE;
+    }
+  };
+
+  public static final KeyEncoder<Integer> INTEGER = new KeyEncoder<Integer>() {
+    @Override
+    public byte[] encode(Integer element) {
+      int bits = element ^ Integer.MIN_VALUE;
+      return new byte[] {(byte) (bits >>> 24), (byte) (bits >>> 16), (byte) (bits >>> 8),
+          (byte) bits};
+    }
+
+    @Override
+    public Integer decode(byte[] bytes, int offset, int length) {
+      int bits = (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+          | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+      return bits ^ Integer.MIN_VALUE;
+    }
+  };
+
+  /*
+  Each UTF-16 char is written as the 1 to 3 byte UTF-8 sequence of its own value (surrogates
+  are not paired up). That keeps ASCII at one byte per char and orders exactly like
+  String.compareTo, which compares chars rather than code points.
+   */
+  public static final KeyEncoder<String> STRING = new KeyEncoder<String>() {
+    @Override
+    public byte[] encode(String element) {
+      int length = 0;
+      for (int i = 0; i < element.length(); i++) {
+        char c = element.charAt(i);
+        length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+      }
+      byte[] bytes = new byte[length];
+      int j = 0;
+      for (int i = 0; i < element.length(); i++) {
+        char c = element.charAt(i);
+        if (c < 0x80) {
+          bytes[j++] = (byte) c;
+        } else if (c < 0x800) {
+          bytes[j++] = (byte) (0xC0 | c >>> 6);
+          bytes[j++] = (byte) (0x80 | c & 0x3F);
+        } else {
+          bytes[j++] = (byte) (0xE0 | c >>> 12);
+          bytes[j++] = (byte) (0x80 | c >>> 6 & 0x3F);
+          bytes[j++] = (byte) (0x80 | c & 0x3F);
+        }
+      }
+      return bytes;
+    }
+
+    @Override
+    public String decode(byte[] bytes, int offset, int length) {
+      StringBuilder builder = new StringBuilder(length);
+      int end = offset + length;
+      int i = offset;
+      while (i < end) {
+        int b = bytes[i] & 0xFF;
+        if (b < 0x80) {
+          builder.append((char) b);
+          i += 1;
+        } else if (b < 0xE0) {
+          builder.append((char) ((b & 0x1F) << 6 | bytes[i + 1] & 0x3F));
+          i += 2;
+        } else {
+          builder.append((char) ((b & 0x0F) << 12 | (bytes[i + 1] & 0x3F) << 6
+              | bytes[i + 2] & 0x3F));
+          i += 3;
+        }
+      }
+      return builder.toString();
+    }
+  };
+}
@@ -1,11 +1,28 @@
 package BST;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class LinkedNodesBST<E extends Comparable<E>> implements BST<E> {
+public class LinkedNodesBST<E extends Comparable<E>> implements BST<E>, Iterable<E> {
+
+  private static final int LANES = 8;
 
   protected Node<E> root;
 
@@ -17,121 +34,167 @@ public class LinkedNodesBST<E extends Comparable<E>> implements BST<E> {
     root = null;
   }
 
+  /*
+  Builds a perfectly balanced tree from strictly ascending elements in O(n), by making the middle
+  element of every range the root of that range's subtree.
+   */
+  public static <E extends Comparable<E>> LinkedNodesBST<E> fromSorted(List<? extends E> sorted) {
+    SortedMerge.checkStrictlyAscending(sorted);
+    LinkedNodesBST<E> tree = new LinkedNodesBST<>();
+    tree.root = tree.buildBalanced(sorted, 0, sorted.size());
+    return tree;
+  }
+
+  public static <E extends Comparable<E>> LinkedNodesBST<E> fromSorted(E[] sorted) {
+    return fromSorted(Arrays.asList(sorted));
+  }
+
+  private Node<E> buildBalanced(List<? extends E> sorted, int from, int to) {
+    if (from >= to) {
+      return null;
+    }
+    int middle = (from + to) >>> 1;
+    Node<E> node = new Node<>(sorted.get(middle));
+    node.setLeftSubtree(buildBalanced(sorted, from, middle));
+    node.setRightSubtree(buildBalanced(sorted, middle + 1, to));
+    return node;
+  }
+
   @Override
   public boolean add(E element) {
     if (getRoot() == null) {
       setRoot(element);
       return true;
-    } else {
-      return add(root, element);
     }
-  }
-
-  private boolean add(Node<E> subTree, E element) {
-    if (element.compareTo(subTree.getElement()) == 0) {
-      //the element is already in the set
-      return false;
-    } else if (element.compareTo(subTree.getElement()) < 0) {
-      //element is in the left subtree
-      if (subTree.getLeftSubtree() == null) {
-        //reached the leaves
-        subTree.setLeftSubtree(new Node<>(element));
-        return true;
+    Node<E> subTree = root;
+    while (true) {
+      int comparison = element.compareTo(subTree.getElement());
+      if (comparison == 0) {
+        //the element is already in the set
+        return false;
+      } else if (comparison < 0) {
+        //element is in the left subtree
+        if (subTree.getLeftSubtree() == null) {
+          //reached the leaves
+          subTree.setLeftSubtree(new Node<>(element));
+          return true;
+        }
+        subTree = subTree.getLeftSubtree();
       } else {
-        //haven't reached the leaves so recursively add to left subtree
-        return add(subTree.getLeftSubtree(), element);
-      }
-    } else {
-      //element is in the right subtree
-      if (subTree.getRightSubtree() == null) {
-        //reached the leaves
-        subTree.setRightSubtree(new Node<>(element));
-        return true;
-      } else {
-        //haven't reached the leaves yet so recursively add to right subtree
-        return add(subTree.getRightSubtree(), element);
+        //element is in the right subtree
+        if (subTree.getRightSubtree() == null) {
+          //reached the leaves
+          subTree.setRightSubtree(new Node<>(element));
+          return true;
+        }
+        subTree = subTree.getRightSubtree();
       }
     }
   }
 
   @Override
   public boolean remove(E element) {
-    Set<Node<E>> deletedNode = new HashSet<>();
-    root = remove(root, element, deletedNode);
-    return !deletedNode.isEmpty();
-  }
-
-  private Node<E> remove(Node<E> subTree, E element, Set<Node<E>> deletedNode) {
+    Node<E> parent = null;
+    Node<E> subTree = root;
+    while (subTree != null) {
+      int comparison = element.compareTo(subTree.getElement());
+      if (comparison == 0) {
+        break;
+      }
+      parent = subTree;
+      subTree = comparison < 0 ? subTree.getLeftSubtree() : subTree.getRightSubtree();
+    }
     if (subTree == null) {
       //the node is not in the set
-      return null;
-    } else if (element.compareTo(subTree.getElement()) < 0) {
-      subTree.setLeftSubtree(remove(subTree.getLeftSubtree(), element, deletedNode));
-    } else if (element.compareTo(subTree.getElement()) > 0) {
-      subTree.setRightSubtree(remove(subTree.getRightSubtree(), element, deletedNode));
+      return false;
+    }
+    Node<E> replacement = deleteNode(subTree);
+    if (parent == null) {
+      root = replacement;
+    } else if (parent.getLeftSubtree() == subTree) {
+      parent.setLeftSubtree(replacement);
     } else {
-      deletedNode.add(subTree);
-      subTree = deleteNode(subTree);
+      parent.setRightSubtree(replacement);
     }
-    return subTree;
+    return true;
   }
 
   protected Node<E> deleteNode(Node<E> subTree) {
-    if (subTree.getLeftSubtree() == null && subTree.getRightSubtree() == null) {
-      //Case 1: no children - the subTree node is a leaf node
-      return null;
-    } else if (subTree.getLeftSubtree() != null && subTree.getRightSubtree() == null) {
+    if (subTree.getLeftSubtree() == null) {
+      //Case 1 and 3: no children or only a right child - the right child (possibly null) moves up
+      return subTree.getRightSubtree();
+    } else if (subTree.getRightSubtree() == null) {
       //Case 2: 1 child - the subTree node has a left child
       return subTree.getLeftSubtree();
-    } else if (subTree.getLeftSubtree() == null && subTree.getRightSubtree() != null) {
-      //Case 3: 1 child = the subTree node has a right child
-      return subTree.getLeftSubtree();
     } else {
-      //Case 4: 2 children - replace the subTree node with the min node from the right child
-      Node<E> newSubTreeNode = findMinNode(subTree.getRightSubtree());
+      //Case 4: 2 children - replace the subTree node with the min node from the right child,
+      //found and unlinked in a single walk down the right child's left spine
+      Node<E> minParent = subTree;
+      Node<E> newSubTreeNode = subTree.getRightSubtree();
+      while (newSubTreeNode.getLeftSubtree() != null) {
+        minParent = newSubTreeNode;
+        newSubTreeNode = newSubTreeNode.getLeftSubtree();
+      }
+      if (minParent != subTree) {
+        minParent.setLeftSubtree(newSubTreeNode.getRightSubtree());
+        newSubTreeNode.setRightSubtree(subTree.getRightSubtree());
+      }
       newSubTreeNode.setLeftSubtree(subTree.getLeftSubtree());
-      newSubTreeNode.setRightSubtree(removeMinNode(subTree.getRightSubtree()));
       return newSubTreeNode;
     }
   }
 
-  private Node<E> removeMinNode(Node<E> subTree) {
-    if (subTree.getLeftSubtree() == null) {
-      return subTree.getRightSubtree();
-    } else {
-      subTree.setLeftSubtree(removeMinNode(subTree.getLeftSubtree()));
-      return subTree;
-    }
-  }
-
-  private Node<E> findMinNode(Node<E> subTree) {
-    if (subTree.getLeftSubtree() == null) {
-      //if the left child is null we have found the smallest element in the subTree
-      return subTree;
-    } else {
-      //recursively continue the search for the smallest element
-      return findMinNode(subTree.getLeftSubtree());
-    }
-  }
-
   @Override
   public boolean contains(E element) {
-    return contains(root, element);
+    Node<E> subTree = root;
+    while (subTree != null) {
+      int comparison = element.compareTo(subTree.getElement());
+      if (comparison == 0) {
+        //found the element
+        return true;
+      }
+      subTree = comparison < 0 ? subTree.getLeftSubtree() : subTree.getRightSubtree();
+    }
+    //element is not in the tree
+    return false;
   }
 
-  private boolean contains(Node<E> subTree, E element) {
-    if (subTree == null) {
-      //element is not in the tree
-      return false;
-    } else if (element.compareTo(subTree.getElement()) == 0) {
-      //found the element
-      return true;
-    } else if (element.compareTo(subTree.getElement()) < 0) {
-      //keep searching recursively in the left subtree
-      return contains(subTree.getLeftSubtree(), element);
-    } else {
-      //keep searching recursively in the right subtree
-      return contains(subTree.getRightSubtree(), element);
+  /*
+  Searches the batch LANES keys at a time in lockstep, one level per round. The lookups are
+  independent, so the processor can have a round's node loads all in flight at once instead of
+  waiting for each cache miss of one lookup before starting the next.
+   */
+  @Override
+  public void containsAll(E[] keys, boolean[] out) {
+    if (out.length < keys.length) {
+      throw new IllegalArgumentException("out is shorter than keys.");
+    }
+    @SuppressWarnings("unchecked")
+    Node<E>[] lane = (Node<E>[]) new LinkedNodesBST<?>.Node<?>[LANES];
+    for (int start = 0; start < keys.length; start += LANES) {
+      int lanes = Math.min(LANES, keys.length - start);
+      int searching = lanes;
+      for (int j = 0; j < lanes; j++) {
+        lane[j] = root;
+        out[start + j] = false;
+      }
+      while (searching > 0) {
+        searching = 0;
+        for (int j = 0; j < lanes; j++) {
+          Node<E> subTree = lane[j];
+          if (subTree == null) {
+            continue;
+          }
+          int comparison = keys[start + j].compareTo(subTree.getElement());
+          if (comparison == 0) {
+            out[start + j] = true;
+            lane[j] = null;
+          } else {
+            lane[j] = comparison < 0 ? subTree.getLeftSubtree() : subTree.getRightSubtree();
+            searching++;
+          }
+        }
+      }
     }
   }
 
@@ -144,54 +207,675 @@ public class LinkedNodesBST<E extends Comparable<E>> implements BST<E> {
   }
 
   public List<E> preOrderTraversal() {
+    return toList(preOrderIterator());
+  }
+
+  public List<E> inOrderTraversal() {
+    return toList(iterator());
+  }
+
+  public List<E> postOrderTraversal() {
+    return toList(postOrderIterator());
+  }
+
+  private List<E> toList(Iterator<E> iterator) {
     List<E> traversal = new ArrayList<>();
-    preOrderTraversal(root, traversal);
+    iterator.forEachRemaining(traversal::add);
     return traversal;
   }
 
-  private void preOrderTraversal(Node<E> subTree, List<E> traversal) {
-    if (subTree == null) {
-      return;
+  /*
+  The iterators below are lazy: they hold an explicit stack of at most height nodes and do
+  O(1) amortized work per element, so stopping after the first k elements costs O(k + height).
+  They do not support remove and are not safe against concurrent modification of the tree.
+   */
+
+  //in-order, i.e. ascending
+  @Override
+  public Iterator<E> iterator() {
+    return new InOrderIterator(null, false, null, false);
+  }
+
+  //splits on subtrees, see SubtreeSpliterator
+  @Override
+  public Spliterator<E> spliterator() {
+    return new SubtreeSpliterator(root);
+  }
+
+  public Stream<E> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  public Stream<E> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  //the number of elements in subTree, or -1 if this implementation does not track subtree sizes
+  protected int subtreeSize(Node<E> subTree) {
+    return -1;
+  }
+
+  /*
+  Fork-join bulk operations: each subtree's left child is forked while the task carries on with
+  the right child, down to subtrees small enough (or, without subtree sizes, deep enough) to be
+  folded sequentially. Elements are combined in ascending order, so reduce only needs
+  accumulator and combiner to be associative, as for Stream.reduce.
+   */
+  public <R> R reduce(R identity, BiFunction<R, ? super E, R> accumulator,
+      BinaryOperator<R> combiner) {
+    int forkDepth = 32 - Integer.numberOfLeadingZeros(ForkJoinPool.getCommonPoolParallelism()) + 4;
+    return ForkJoinPool.commonPool().invoke(
+        new ReduceTask<>(root, 0, forkDepth, identity, accumulator, combiner));
+  }
+
+  public long count(Predicate<? super E> predicate) {
+    return reduce(0L, (count, element) -> predicate.test(element) ? count + 1 : count, Long::sum);
+  }
+
+  //the action may be called from several threads at once and in no particular order
+  public void forEachParallel(Consumer<? super E> action) {
+    reduce(null, (ignored, element) -> {
+      action.accept(element);
+      return null;
+    }, (left, right) -> null);
+  }
+
+  private class ReduceTask<R> extends RecursiveTask<R> {
+
+    static final long serialVersionUID = 1L;
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 11;
+
+    private final Node<E> subTree;
+    private final int depth;
+    private final int forkDepth;
+    private final R identity;
+    private final BiFunction<R, ? super E, R> accumulator;
+    private final BinaryOperator<R> combiner;
+
+    ReduceTask(Node<E> subTree, int depth, int forkDepth, R identity,
+        BiFunction<R, ? super E, R> accumulator, BinaryOperator<R> combiner) {
+      this.subTree = subTree;
+      this.depth = depth;
+      this.forkDepth = forkDepth;
+      this.identity = identity;
+      this.accumulator = accumulator;
+      this.combiner = combiner;
+    }
+
+    @Override
+    protected R compute() {
+      if (subTree == null) {
+        return identity;
+      }
+      int size = subtreeSize(subTree);
+      if (size >= 0 ? size <= SEQUENTIAL_THRESHOLD : depth >= forkDepth) {
+        return computeSequentially();
+      }
+      ReduceTask<R> left = new ReduceTask<>(subTree.getLeftSubtree(), depth + 1, forkDepth,
+          identity, accumulator, combiner);
+      left.fork();
+      R right = new ReduceTask<>(subTree.getRightSubtree(), depth + 1, forkDepth,
+          identity, accumulator, combiner).compute();
+      R middle = accumulator.apply(identity, subTree.getElement());
+      return combiner.apply(combiner.apply(left.join(), middle), right);
+    }
+
+    private R computeSequentially() {
+      R result = identity;
+      Deque<Node<E>> stack = new ArrayDeque<>();
+      Node<E> node = subTree;
+      while (node != null || !stack.isEmpty()) {
+        while (node != null) {
+          stack.push(node);
+          node = node.getLeftSubtree();
+        }
+        node = stack.pop();
+        result = accumulator.apply(result, node.getElement());
+        node = node.getRightSubtree();
+      }
+      return result;
     }
-    traversal.add(subTree.getElement());
-    preOrderTraversal(subTree.getLeftSubtree(), traversal);
-    preOrderTraversal(subTree.getRightSubtree(), traversal);
   }
 
-  public List<E> inOrderTraversal() {
-    List<E> traversal = new ArrayList<>();
-    inOrderTraversal(root, traversal);
-    return traversal;
+  /*
+  In-order spliterator that splits along the tree's own structure. Its remaining elements are an
+  optional untouched subtree (first) followed by the usual in-order stack, where each stacked node
+  stands for its own element and then its right subtree. Splitting an untouched subtree hands off
+  its left child as the prefix; otherwise the prefix is the element on top of the stack, and this
+  spliterator carries on with that node's right subtree as its untouched subtree.
+  When the tree tracks subtree sizes the estimate is exact and the spliterator is SIZED.
+   */
+  private class SubtreeSpliterator implements Spliterator<E> {
+
+    private final Deque<Node<E>> stack = new ArrayDeque<>();
+    private final boolean sized;
+    private Node<E> first;
+    private long estimate;
+
+    SubtreeSpliterator(Node<E> subTree) {
+      this.first = subTree;
+      int size = subTree == null ? 0 : subtreeSize(subTree);
+      this.sized = size >= 0;
+      this.estimate = sized ? size : Long.MAX_VALUE;
+    }
+
+    private SubtreeSpliterator(Node<E> first, Node<E> stacked, boolean sized, long estimate) {
+      this.first = first;
+      if (stacked != null) {
+        stack.push(stacked);
+      }
+      this.sized = sized;
+      this.estimate = estimate;
+    }
+
+    private int knownSize(Node<E> subTree) {
+      return subTree == null ? 0 : subtreeSize(subTree);
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+      if (first != null && first.getLeftSubtree() == null) {
+        stack.push(first);
+        first = null;
+      }
+      if (first != null) {
+        Node<E> left = first.getLeftSubtree();
+        long leftEstimate = sized ? knownSize(left) : estimate >>> 1;
+        stack.push(first);
+        first = null;
+        estimate = sized ? estimate - leftEstimate : estimate >>> 1;
+        return new SubtreeSpliterator(left, null, sized, leftEstimate);
+      }
+      if (stack.isEmpty()) {
+        return null;
+      }
+      Node<E> top = stack.pop();
+      if (stack.isEmpty()) {
+        //only top and its right subtree are left: hand off the element, keep the subtree
+        if (top.getRightSubtree() == null) {
+          stack.push(top);
+          return null;
+        }
+        first = top.getRightSubtree();
+        estimate = sized ? estimate - 1 : estimate >>> 1;
+        return new SubtreeSpliterator(null, leafOf(top), sized, 1);
+      }
+      //several stacked nodes: hand off the smallest one together with its right subtree
+      long topEstimate = sized ? 1 + knownSize(top.getRightSubtree()) : estimate >>> 1;
+      estimate = sized ? estimate - topEstimate : estimate >>> 1;
+      return new SubtreeSpliterator(null, top, sized, topEstimate);
+    }
+
+    //a detached copy of node's element, so the handed-off prefix does not reach node's subtrees
+    private Node<E> leafOf(Node<E> node) {
+      return new Node<>(node.getElement());
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+      if (first != null) {
+        pushLeftSpine(first);
+        first = null;
+      }
+      if (stack.isEmpty()) {
+        return false;
+      }
+      Node<E> node = stack.pop();
+      pushLeftSpine(node.getRightSubtree());
+      if (sized) {
+        estimate--;
+      }
+      action.accept(node.getElement());
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+      while (tryAdvance(action)) {
+        //keep going
+      }
+    }
+
+    private void pushLeftSpine(Node<E> subTree) {
+      while (subTree != null) {
+        stack.push(subTree);
+        subTree = subTree.getLeftSubtree();
+      }
+    }
+
+    @Override
+    public long estimateSize() {
+      return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+      int characteristics = ORDERED | SORTED | DISTINCT | NONNULL;
+      return sized ? characteristics | SIZED | SUBSIZED : characteristics;
+    }
+
+    @Override
+    public Comparator<? super E> getComparator() {
+      //natural ordering
+      return null;
+    }
   }
 
-  private void inOrderTraversal(Node<E> subTree, List<E> traversal) {
-    if (subTree == null) {
-      return;
+  public Iterator<E> preOrderIterator() {
+    return new PreOrderIterator();
+  }
+
+  public Iterator<E> postOrderIterator() {
+    return new PostOrderIterator();
+  }
+
+  //elements strictly less than hi
+  public Range headSet(E hi) {
+    return new Range(null, false, hi, false);
+  }
+
+  //elements greater than or equal to lo
+  public Range tailSet(E lo) {
+    return new Range(lo, true, null, false);
+  }
+
+  //elements in [lo, hi)
+  public Range subSet(E lo, E hi) {
+    return subSet(lo, true, hi, false);
+  }
+
+  public Range subSet(E lo, boolean loInclusive, E hi, boolean hiInclusive) {
+    if (lo.compareTo(hi) > 0) {
+      throw new IllegalArgumentException("Lower bound is greater than upper bound.");
     }
-    inOrderTraversal(subTree.getLeftSubtree(), traversal);
-    traversal.add(subTree.getElement());
-    inOrderTraversal(subTree.getRightSubtree(), traversal);
+    return new Range(lo, loInclusive, hi, hiInclusive);
   }
 
-  public List<E> postOrderTraversal() {
-    List<E> traversal = new ArrayList<>();
-    postOrderTraversal(root, traversal);
-    return traversal;
+  //a live view of the elements of the tree between two optional bounds
+  public class Range implements Iterable<E> {
+
+    private final E lo;
+    private final boolean loInclusive;
+    private final E hi;
+    private final boolean hiInclusive;
+
+    private Range(E lo, boolean loInclusive, E hi, boolean hiInclusive) {
+      this.lo = lo;
+      this.loInclusive = loInclusive;
+      this.hi = hi;
+      this.hiInclusive = hiInclusive;
+    }
+
+    public boolean inRange(E element) {
+      return !tooLow(element, lo, loInclusive) && !tooHigh(element, hi, hiInclusive);
+    }
+
+    public boolean contains(E element) {
+      return inRange(element) && LinkedNodesBST.this.contains(element);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return new InOrderIterator(lo, loInclusive, hi, hiInclusive);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+      return Spliterators.spliteratorUnknownSize(iterator(),
+          Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    public Stream<E> stream() {
+      return StreamSupport.stream(spliterator(), false);
+    }
   }
 
-  private void postOrderTraversal(Node<E> subTree, List<E> traversal) {
-    if (subTree == null) {
-      return;
+  private boolean tooLow(E element, E lo, boolean loInclusive) {
+    if (lo == null) {
+      return false;
+    }
+    int comparison = element.compareTo(lo);
+    return loInclusive ? comparison < 0 : comparison <= 0;
+  }
+
+  private boolean tooHigh(E element, E hi, boolean hiInclusive) {
+    if (hi == null) {
+      return false;
+    }
+    int comparison = element.compareTo(hi);
+    return hiInclusive ? comparison > 0 : comparison >= 0;
+  }
+
+  /*
+  Batch updates for the subclasses with a ParentLinkedCursor. The batch is applied in place, one
+  element at a time in sorted order, so no node is replaced and an open cursor stays valid. The
+  inserts share one cursor, so each climbs from the element added before it rather than starting
+  at the root; removals splice nodes out and never move an element to another node either.
+   */
+  protected boolean addAllInOrder(Collection<? extends E> elements, Cursor<E> cursor) {
+    boolean changed = false;
+    for (E element : SortedMerge.sortedDistinct(elements)) {
+      changed |= cursor.insert(element);
+    }
+    return changed;
+  }
+
+  protected boolean removeAllInOrder(Collection<? extends E> elements) {
+    boolean changed = false;
+    for (E element : SortedMerge.sortedDistinct(elements)) {
+      changed |= remove(element);
+    }
+    return changed;
+  }
+
+  /*
+  A Cursor for subclasses whose nodes link back to their parents, which is all it needs to step
+  to a neighbour or climb from the current element towards a key. Subclasses supply the parent
+  link and an insert that starts its descent at a given node and rebalances afterwards. A cursor
+  stays valid across insertions, which never move an element to another node, but has to be
+  re-seeked after the element under it is removed.
+   */
+  protected abstract class ParentLinkedCursor implements Cursor<E> {
+
+    private Node<E> node;
+
+    protected abstract Node<E> parentOf(Node<E> node);
+
+    //adds element somewhere below from, whose subtree must span element's position; returns the
+    //new node, or null when the element is already in the tree
+    protected abstract Node<E> insertBelow(Node<E> from, E element);
+
+    @Override
+    public boolean seek(E key) {
+      node = ceilingBelow(root, key);
+      return node != null && node.getElement().compareTo(key) == 0;
+    }
+
+    @Override
+    public boolean seekNear(E key) {
+      if (node == null) {
+        return seek(key);
+      }
+      node = ceilingBelow(climbToward(node, key), key);
+      return node != null && node.getElement().compareTo(key) == 0;
+    }
+
+    @Override
+    public boolean seekFirst() {
+      node = root;
+      while (node != null && node.getLeftSubtree() != null) {
+        node = node.getLeftSubtree();
+      }
+      return node != null;
+    }
+
+    @Override
+    public boolean seekLast() {
+      node = root;
+      while (node != null && node.getRightSubtree() != null) {
+        node = node.getRightSubtree();
+      }
+      return node != null;
+    }
+
+    @Override
+    public boolean isValid() {
+      return node != null;
+    }
+
+    @Override
+    public E get() {
+      if (node == null) {
+        throw new NoSuchElementException();
+      }
+      return node.getElement();
+    }
+
+    @Override
+    public boolean next() {
+      node = successor(node);
+      return node != null;
+    }
+
+    @Override
+    public boolean prev() {
+      node = predecessor(node);
+      return node != null;
+    }
+
+    @Override
+    public boolean insert(E element) {
+      if (root == null) {
+        setRoot(element);
+        node = root;
+        return true;
+      }
+      Node<E> from = node == null ? root : climbToward(node, element);
+      Node<E> added = insertBelow(from, element);
+      if (added == null) {
+        node = ceilingBelow(from, element);
+        return false;
+      }
+      node = added;
+      return true;
+    }
+
+    /*
+    Climbs from node until the subtree spans key's position. Going up from a right child keeps
+    the subtree's upper bound, so for a key above node only parents reached from a left child
+    need a comparison, and the other way round for a key below. The climb stops at the lowest
+    common ancestor of node and key's position, which for nearby keys is usually close by.
+     */
+    private Node<E> climbToward(Node<E> node, E key) {
+      int comparison = key.compareTo(node.getElement());
+      Node<E> parent = parentOf(node);
+      if (comparison > 0) {
+        while (parent != null && (node != parent.getLeftSubtree()
+            || key.compareTo(parent.getElement()) >= 0)) {
+          node = parent;
+          parent = parentOf(node);
+        }
+      } else if (comparison < 0) {
+        while (parent != null && (node != parent.getRightSubtree()
+            || key.compareTo(parent.getElement()) <= 0)) {
+          node = parent;
+          parent = parentOf(node);
+        }
+      }
+      return node;
+    }
+
+    //the node of the smallest element >= key, searching the subtree of from and, when the whole
+    //subtree is smaller than key, the nodes after it; null if there is none
+    private Node<E> ceilingBelow(Node<E> from, E key) {
+      Node<E> current = from;
+      Node<E> last = null;
+      Node<E> ceiling = null;
+      while (current != null) {
+        last = current;
+        int comparison = key.compareTo(current.getElement());
+        if (comparison < 0) {
+          ceiling = current;
+          current = current.getLeftSubtree();
+        } else if (comparison > 0) {
+          current = current.getRightSubtree();
+        } else {
+          return current;
+        }
+      }
+      return ceiling != null ? ceiling : successor(last);
+    }
+
+    private Node<E> successor(Node<E> node) {
+      if (node == null) {
+        return null;
+      }
+      if (node.getRightSubtree() != null) {
+        node = node.getRightSubtree();
+        while (node.getLeftSubtree() != null) {
+          node = node.getLeftSubtree();
+        }
+        return node;
+      }
+      //climb while node is a right child; its parent then comes next
+      Node<E> parent = parentOf(node);
+      while (parent != null && node == parent.getRightSubtree()) {
+        node = parent;
+        parent = parentOf(node);
+      }
+      return parent;
+    }
+
+    private Node<E> predecessor(Node<E> node) {
+      if (node == null) {
+        return null;
+      }
+      if (node.getLeftSubtree() != null) {
+        node = node.getLeftSubtree();
+        while (node.getRightSubtree() != null) {
+          node = node.getRightSubtree();
+        }
+        return node;
+      }
+      Node<E> parent = parentOf(node);
+      while (parent != null && node == parent.getLeftSubtree()) {
+        node = parent;
+        parent = parentOf(node);
+      }
+      return parent;
+    }
+  }
+
+  private class InOrderIterator implements Iterator<E> {
+
+    private final Deque<Node<E>> stack = new ArrayDeque<>();
+    private final E hi;
+    private final boolean hiInclusive;
+
+    InOrderIterator(E lo, boolean loInclusive, E hi, boolean hiInclusive) {
+      this.hi = hi;
+      this.hiInclusive = hiInclusive;
+      //descend towards lo, stacking only the nodes that are in range; their right subtrees
+      //are visited later, and anything below lo is skipped without being visited at all
+      Node<E> subTree = root;
+      while (subTree != null) {
+        if (tooLow(subTree.getElement(), lo, loInclusive)) {
+          subTree = subTree.getRightSubtree();
+        } else {
+          stack.push(subTree);
+          subTree = subTree.getLeftSubtree();
+        }
+      }
+      trimHigh();
+    }
+
+    private void pushLeftSpine(Node<E> subTree) {
+      while (subTree != null) {
+        stack.push(subTree);
+        subTree = subTree.getLeftSubtree();
+      }
+    }
+
+    //once the next node is past hi, every remaining node is too, so the iteration is over
+    private void trimHigh() {
+      if (!stack.isEmpty() && tooHigh(stack.peek().getElement(), hi, hiInclusive)) {
+        stack.clear();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public E next() {
+      if (stack.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      Node<E> node = stack.pop();
+      pushLeftSpine(node.getRightSubtree());
+      trimHigh();
+      return node.getElement();
+    }
+  }
+
+  private class PreOrderIterator implements Iterator<E> {
+
+    private final Deque<Node<E>> stack = new ArrayDeque<>();
+
+    PreOrderIterator() {
+      if (root != null) {
+        stack.push(root);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public E next() {
+      if (stack.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      Node<E> node = stack.pop();
+      //right is pushed first so that the left subtree is visited first
+      if (node.getRightSubtree() != null) {
+        stack.push(node.getRightSubtree());
+      }
+      if (node.getLeftSubtree() != null) {
+        stack.push(node.getLeftSubtree());
+      }
+      return node.getElement();
     }
-    postOrderTraversal(subTree.getLeftSubtree(), traversal);
-    postOrderTraversal(subTree.getRightSubtree(), traversal);
-    traversal.add(subTree.getElement());
   }
 
+  private class PostOrderIterator implements Iterator<E> {
+
+    private final Deque<Node<E>> stack = new ArrayDeque<>();
+    private Node<E> lastVisited;
+
+    PostOrderIterator() {
+      if (root != null) {
+        stack.push(root);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public E next() {
+      if (stack.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      while (true) {
+        Node<E> node = stack.peek();
+        Node<E> left = node.getLeftSubtree();
+        Node<E> right = node.getRightSubtree();
+        boolean returningFromChild = lastVisited != null
+            && (lastVisited == left || lastVisited == right);
+        if (!returningFromChild && left != null) {
+          stack.push(left);
+        } else if (right != null && lastVisited != right) {
+          stack.push(right);
+        } else {
+          //both subtrees are done, so the node itself is next
+          stack.pop();
+          lastVisited = node;
+          return node.getElement();
+        }
+      }
+    }
+  }
 
   protected class Node<T> {
 
-    private T element;
+    private final T element;
     private Node<T> leftSubtree;
     private Node<T> rightSubtree;
 
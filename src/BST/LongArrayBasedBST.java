@@ -0,0 +1,111 @@
+package BST;
+
+import java.util.Arrays;
+
+/*
+Immutable set of long keys in an Eytzinger layout, the primitive counterpart of ArrayBasedBST for
+lookup tables where boxing every key would cost more than the search. Keys sit in a flat long[]
+with the root at index 1 and the children of index i at 2i and 2i + 1; index 0 is unused, so the
+16 descendants four levels below a node start at a multiple of 16 and share a cache line or two.
+Changes are made in batches by withChanges, which returns a new table and leaves this one as it
+was, so a table can be shared freely between threads.
+ */
+public final class LongArrayBasedBST {
+
+  private final long[] tree;
+  private final int size;
+
+  private LongArrayBasedBST(long[] sortedDistinct, int count) {
+    tree = new long[count + 1];
+    size = count;
+    fill(sortedDistinct, 0, 1);
+  }
+
+  //the keys may be in any order and contain duplicates; the array is not modified
+  public static LongArrayBasedBST of(long... keys) {
+    long[] sorted = keys.clone();
+    Arrays.sort(sorted);
+    return new LongArrayBasedBST(sorted, dedupe(sorted, sorted.length));
+  }
+
+  //moves the distinct values of sorted[0 .. count) to the front and returns how many there are
+  private static int dedupe(long[] sorted, int count) {
+    int distinct = 0;
+    for (int i = 0; i < count; i++) {
+      if (distinct == 0 || sorted[i] != sorted[distinct - 1]) {
+        sorted[distinct++] = sorted[i];
+      }
+    }
+    return distinct;
+  }
+
+  private int fill(long[] sorted, int next, int index) {
+    if (index > size) {
+      return next;
+    }
+    next = fill(sorted, next, 2 * index);
+    tree[index] = sorted[next++];
+    return fill(sorted, next, 2 * index + 1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  //index of the smallest key >= key, or 0; see ArrayBasedBST.lowerBound
+  private int lowerBound(long key) {
+    int i = 1;
+    while (i <= size) {
+      i = 2 * i + (tree[i] < key ? 1 : 0);
+    }
+    return i >>> (Integer.numberOfTrailingZeros(~i) + 1);
+  }
+
+  public boolean contains(long key) {
+    int i = lowerBound(key);
+    return i != 0 && tree[i] == key;
+  }
+
+  //all keys in ascending order
+  public long[] toSortedArray() {
+    long[] sorted = new long[size];
+    collect(sorted, 0, 1);
+    return sorted;
+  }
+
+  private int collect(long[] sorted, int next, int index) {
+    if (index > size) {
+      return next;
+    }
+    next = collect(sorted, next, 2 * index);
+    sorted[next++] = tree[index];
+    return collect(sorted, next, 2 * index + 1);
+  }
+
+  //a new table holding this one's keys plus additions minus removals (a key in both is
+  //removed), built in one pass
+  public LongArrayBasedBST withChanges(long[] additions, long[] removals) {
+    long[] added = additions.clone();
+    Arrays.sort(added);
+    long[] removedKeys = removals.clone();
+    Arrays.sort(removedKeys);
+    long[] current = toSortedArray();
+    long[] merged = new long[current.length + added.length];
+    int count = 0;
+    int a = 0;
+    int c = 0;
+    while (c < current.length || a < added.length) {
+      long next;
+      if (a == added.length || (c < current.length && current[c] <= added[a])) {
+        next = current[c++];
+      } else {
+        next = added[a++];
+      }
+      if ((count == 0 || merged[count - 1] != next)
+          && Arrays.binarySearch(removedKeys, next) < 0) {
+        merged[count++] = next;
+      }
+    }
+    return new LongArrayBasedBST(merged, count);
+  }
+}
@@ -0,0 +1,250 @@
+package BST;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+A sorted snapshot of a tree written to disk and searched in place through a read-only memory
+mapping. Elements are stored in the byte form given by a KeyEncoder, whose byte order matches
+compareTo, so a lookup binary-searches raw bytes in the mapped pages and only decodes the
+elements it returns. Opening a snapshot checks the header and that the offsets run in order
+within the file, and JVMs that map the same file share one copy in the page cache.
+File layout, all little-endian:
+  - header (16 bytes): magic "SSET", format version, number of elements, 4 reserved bytes
+  - count + 1 int offsets; element i is the bytes from offsets[i] to offsets[i + 1], counted from
+    the start of the element data
+  - the element data, in ascending order
+A file is limited to 2 GB by the size of a single mapping. add and remove are not supported.
+ */
+public class MappedSortedSet<E extends Comparable<E>> implements OrderStatisticBST<E>,
+    Iterable<E> {
+
+  private static final int MAGIC = 'S' | 'S' << 8 | 'E' << 16 | 'T' << 24;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 16;
+
+  private final MappedByteBuffer buffer;
+  private final KeyEncoder<E> encoder;
+  private final int size;
+  private final int dataAt;
+
+  private MappedSortedSet(MappedByteBuffer buffer, KeyEncoder<E> encoder, int size) {
+    this.buffer = buffer;
+    this.encoder = encoder;
+    this.size = size;
+    dataAt = HEADER_BYTES + Integer.BYTES * (size + 1);
+  }
+
+  /*
+  elements must iterate in strictly ascending order, as any of the trees do. Writes to a
+  temporary file that is then moved into place, so readers of an older copy are not disturbed.
+   */
+  public static <E extends Comparable<E>> void write(Iterable<E> elements,
+      KeyEncoder<E> encoder, Path path) throws IOException {
+    List<byte[]> encoded = new ArrayList<>();
+    long dataBytes = 0;
+    byte[] previous = null;
+    for (E element : elements) {
+      byte[] bytes = encoder.encode(element);
+      if (previous != null && Arrays.compareUnsigned(previous, bytes) >= 0) {
+        throw new IllegalArgumentException("Elements must be strictly ascending.");
+      }
+      encoded.add(bytes);
+      dataBytes += bytes.length;
+      previous = bytes;
+    }
+    long length = HEADER_BYTES + Integer.BYTES * (encoded.size() + 1L) + dataBytes;
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Snapshot is too large for a single mapped file.");
+    }
+    Path parent = path.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        out.order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(encoded.size()).putInt(0);
+        int offset = 0;
+        out.putInt(offset);
+        for (byte[] bytes : encoded) {
+          offset += bytes.length;
+          out.putInt(offset);
+        }
+        for (byte[] bytes : encoded) {
+          out.put(bytes);
+        }
+        out.force();
+      }
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  //encoder must be the one the snapshot was written with
+  public static <E extends Comparable<E>> MappedSortedSet<E> open(Path path,
+      KeyEncoder<E> encoder) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_BYTES + Integer.BYTES || length > Integer.MAX_VALUE) {
+        throw new IOException(path + " is not a mapped sorted set.");
+      }
+      //the mapping stays valid after the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      if (buffer.getInt(0) != MAGIC) {
+        throw new IOException(path + " is not a mapped sorted set.");
+      }
+      int version = buffer.getInt(4);
+      if (version != VERSION) {
+        throw new IOException(path + " has format version " + version + ", expected " + VERSION
+            + ".");
+      }
+      int size = buffer.getInt(8);
+      long dataAt = HEADER_BYTES + Integer.BYTES * (size + 1L);
+      if (size < 0 || dataAt > length
+          || dataAt + buffer.getInt(HEADER_BYTES + Integer.BYTES * size) != length) {
+        throw new IOException(path + " is truncated or corrupt.");
+      }
+      //so that no element can reach outside the element data
+      int previous = 0;
+      for (int i = 0; i <= size; i++) {
+        int offset = buffer.getInt(HEADER_BYTES + Integer.BYTES * i);
+        if (offset < previous || (i == 0 && offset != 0)) {
+          throw new IOException(path + " is truncated or corrupt.");
+        }
+        previous = offset;
+      }
+      return new MappedSortedSet<>(buffer, encoder, size);
+    }
+  }
+
+  @Override
+  public boolean add(E element) {
+    throw new UnsupportedOperationException("A mapped sorted set cannot be modified.");
+  }
+
+  @Override
+  public boolean remove(E element) {
+    throw new UnsupportedOperationException("A mapped sorted set cannot be modified.");
+  }
+
+  private int offset(int index) {
+    return buffer.getInt(HEADER_BYTES + Integer.BYTES * index);
+  }
+
+  //compares element index with key as unsigned bytes, without copying it out of the mapping
+  private int compareAt(int index, byte[] key) {
+    int from = dataAt + offset(index);
+    int length = offset(index + 1) - offset(index);
+    int common = Math.min(length, key.length);
+    for (int i = 0; i < common; i++) {
+      int difference = (buffer.get(from + i) & 0xFF) - (key[i] & 0xFF);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return length - key.length;
+  }
+
+  //the index of the first element >= key
+  private int lowerBound(byte[] key) {
+    int lo = 0;
+    int hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (compareAt(mid, key) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  @Override
+  public boolean contains(E element) {
+    byte[] key = encoder.encode(element);
+    int index = lowerBound(key);
+    return index < size && compareAt(index, key) == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public E select(int k) {
+    if (k < 0 || k >= size) {
+      throw new IndexOutOfBoundsException("k = " + k + ", size = " + size);
+    }
+    return decode(k);
+  }
+
+  private E decode(int index) {
+    int from = offset(index);
+    byte[] bytes = new byte[offset(index + 1) - from];
+    //a duplicate has its own position, so concurrent readers do not disturb each other
+    buffer.duplicate().position(dataAt + from).get(bytes);
+    return encoder.decode(bytes);
+  }
+
+  @Override
+  public int rank(E element) {
+    return lowerBound(encoder.encode(element));
+  }
+
+  @Override
+  public int countInRange(E lo, E hi) {
+    if (lo.compareTo(hi) > 0) {
+      return 0;
+    }
+    int from = lowerBound(encoder.encode(lo));
+    byte[] high = encoder.encode(hi);
+    int to = lowerBound(high);
+    if (to < size && compareAt(to, high) == 0) {
+      to++;
+    }
+    return to - from;
+  }
+
+  //asks the OS to page the whole file in now rather than on first touch
+  public MappedSortedSet<E> load() {
+    buffer.load();
+    return this;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public E next() {
+        if (next >= size) {
+          throw new NoSuchElementException();
+        }
+        return decode(next++);
+      }
+    };
+  }
+}
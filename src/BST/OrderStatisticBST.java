@@ -0,0 +1,21 @@
+package BST;
+
+public interface OrderStatisticBST<E extends Comparable<E>> extends BST<E> {
+
+  /*
+  Implementations keep the size of every subtree in its root node, so all of these run in
+  O(log n) on a balanced tree without touching the rest of the tree.
+    - select(k) is the k-th smallest element, counting from 0
+    - rank(element) is the number of elements strictly smaller than element (whether or not
+      element is itself in the set)
+    - countInRange(lo, hi) is the number of elements e with lo <= e <= hi
+   */
+
+  int size();
+
+  E select(int k);
+
+  int rank(E element);
+
+  int countInRange(E lo, E hi);
+}
@@ -0,0 +1,30 @@
+package BST;
+
+import java.util.Iterator;
+import java.util.List;
+
+/*
+An immutable sorted set. with and without never change the set they are called on: they return
+a new version that shares every unchanged subtree with the old one, copying only the O(log n)
+nodes on the path to the change, or the same set when there is nothing to change. Old versions
+stay valid for as long as they are referenced and can be read from any thread without locking.
+ */
+public interface PersistentSortedSet<E extends Comparable<E>> extends Iterable<E> {
+
+  PersistentSortedSet<E> with(E element);
+
+  PersistentSortedSet<E> without(E element);
+
+  boolean contains(E element);
+
+  int size();
+
+  default boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  Iterator<E> iterator();
+
+  List<E> inOrderTraversal();
+}
@@ -0,0 +1,76 @@
+package BST;
+
+/*
+A LinkedNodesBST whose nodes store the size of their subtree, which is all the order statistics
+need: select and countBelow walk a single root-to-leaf path, steering by the size of the left
+subtree at each node. Subclasses supply sizeOf, and keep the stored sizes up to date through
+their own rotations.
+ */
+public abstract class SizedLinkedNodesBST<E extends Comparable<E>> extends LinkedNodesBST<E>
+    implements OrderStatisticBST<E> {
+
+  //the size stored in node, 0 for an empty subtree
+  protected abstract int sizeOf(Node<E> node);
+
+  @Override
+  protected int subtreeSize(Node<E> subTree) {
+    return sizeOf(subTree);
+  }
+
+  @Override
+  public int size() {
+    return sizeOf(root);
+  }
+
+  @Override
+  public E select(int k) {
+    if (k < 0 || k >= size()) {
+      throw new IndexOutOfBoundsException("Index " + k + " is out of range for a set of size "
+          + size() + ".");
+    }
+    Node<E> current = root;
+    while (true) {
+      int leftSize = sizeOf(current.getLeftSubtree());
+      if (k < leftSize) {
+        current = current.getLeftSubtree();
+      } else if (k > leftSize) {
+        //skip the left subtree and the current node
+        k -= leftSize + 1;
+        current = current.getRightSubtree();
+      } else {
+        return current.getElement();
+      }
+    }
+  }
+
+  @Override
+  public int rank(E element) {
+    return countBelow(element, false);
+  }
+
+  @Override
+  public int countInRange(E lo, E hi) {
+    if (lo.compareTo(hi) > 0) {
+      return 0;
+    }
+    return countBelow(hi, true) - countBelow(lo, false);
+  }
+
+  //number of elements smaller than element, or smaller than or equal to it when inclusive
+  private int countBelow(E element, boolean inclusive) {
+    int count = 0;
+    Node<E> current = root;
+    while (current != null) {
+      int comparison = element.compareTo(current.getElement());
+      if (comparison < 0) {
+        current = current.getLeftSubtree();
+      } else if (comparison > 0) {
+        count += sizeOf(current.getLeftSubtree()) + 1;
+        current = current.getRightSubtree();
+      } else {
+        return count + sizeOf(current.getLeftSubtree()) + (inclusive ? 1 : 0);
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,101 @@
+package BST;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/*
+Mutable, thread-safe set over a PersistentSortedSet, for readers that need consistent
+point-in-time views while writers keep going. Each update builds the next version by path
+copying and publishes it through a volatile field:
+  - snapshot() hands out the current version in O(1); later updates never change it
+  - contains, size and iteration read whichever version is current when they start, without
+    locking, and are never disturbed by a concurrent writer
+  - writers are serialised on the set's monitor, so no copying work is wasted on retries
+addAll and removeAll publish once for the whole batch, so readers see all of it or none.
+ */
+public class SnapshotBST<E extends Comparable<E>> implements BST<E>, Iterable<E> {
+
+  private volatile PersistentSortedSet<E> current;
+
+  //e.g. new SnapshotBST<Integer>(PersistentAVLTree.empty())
+  public SnapshotBST(PersistentSortedSet<E> initial) {
+    current = initial;
+  }
+
+  public PersistentSortedSet<E> snapshot() {
+    return current;
+  }
+
+  @Override
+  public synchronized boolean add(E element) {
+    PersistentSortedSet<E> next = current.with(element);
+    if (next == current) {
+      return false;
+    }
+    current = next;
+    return true;
+  }
+
+  @Override
+  public synchronized boolean remove(E element) {
+    PersistentSortedSet<E> next = current.without(element);
+    if (next == current) {
+      return false;
+    }
+    current = next;
+    return true;
+  }
+
+  @Override
+  public synchronized boolean addAll(Collection<? extends E> elements) {
+    PersistentSortedSet<E> next = current;
+    for (E element : elements) {
+      next = next.with(element);
+    }
+    boolean changed = next != current;
+    current = next;
+    return changed;
+  }
+
+  @Override
+  public synchronized boolean removeAll(Collection<? extends E> elements) {
+    PersistentSortedSet<E> next = current;
+    for (E element : elements) {
+      next = next.without(element);
+    }
+    boolean changed = next != current;
+    current = next;
+    return changed;
+  }
+
+  @Override
+  public boolean contains(E element) {
+    return current.contains(element);
+  }
+
+  //the keys are all looked up in the same version
+  @Override
+  public void containsAll(E[] keys, boolean[] out) {
+    if (out.length < keys.length) {
+      throw new IllegalArgumentException("out is shorter than keys.");
+    }
+    PersistentSortedSet<E> version = current;
+    for (int i = 0; i < keys.length; i++) {
+      out[i] = version.contains(keys[i]);
+    }
+  }
+
+  public int size() {
+    return current.size();
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return current.iterator();
+  }
+
+  public List<E> inOrderTraversal() {
+    return current.inOrderTraversal();
+  }
+}
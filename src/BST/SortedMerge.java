@@ -0,0 +1,113 @@
+package BST;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/*
+Linear-time set algebra over two ascending, duplicate-free iterations, e.g. the in-order iterators
+of two trees. The results are ascending and duplicate-free too, ready for a fromSorted build.
+ */
+public final class SortedMerge {
+
+  private SortedMerge() {
+  }
+
+  public static <E extends Comparable<E>> List<E> union(Iterator<E> a, Iterator<E> b) {
+    List<E> result = new ArrayList<>();
+    E x = next(a);
+    E y = next(b);
+    while (x != null && y != null) {
+      int comparison = x.compareTo(y);
+      if (comparison < 0) {
+        result.add(x);
+        x = next(a);
+      } else if (comparison > 0) {
+        result.add(y);
+        y = next(b);
+      } else {
+        result.add(x);
+        x = next(a);
+        y = next(b);
+      }
+    }
+    for (; x != null; x = next(a)) {
+      result.add(x);
+    }
+    for (; y != null; y = next(b)) {
+      result.add(y);
+    }
+    return result;
+  }
+
+  public static <E extends Comparable<E>> List<E> intersection(Iterator<E> a, Iterator<E> b) {
+    List<E> result = new ArrayList<>();
+    E x = next(a);
+    E y = next(b);
+    while (x != null && y != null) {
+      int comparison = x.compareTo(y);
+      if (comparison < 0) {
+        x = next(a);
+      } else if (comparison > 0) {
+        y = next(b);
+      } else {
+        result.add(x);
+        x = next(a);
+        y = next(b);
+      }
+    }
+    return result;
+  }
+
+  //the elements of a that are not in b
+  public static <E extends Comparable<E>> List<E> difference(Iterator<E> a, Iterator<E> b) {
+    List<E> result = new ArrayList<>();
+    E x = next(a);
+    E y = next(b);
+    while (x != null) {
+      int comparison = y == null ? -1 : x.compareTo(y);
+      if (comparison < 0) {
+        result.add(x);
+        x = next(a);
+      } else if (comparison > 0) {
+        y = next(b);
+      } else {
+        x = next(a);
+        y = next(b);
+      }
+    }
+    return result;
+  }
+
+  public static <E extends Comparable<E>> void checkStrictlyAscending(List<? extends E> elements) {
+    E previous = null;
+    for (E element : elements) {
+      if (element == null) {
+        throw new IllegalArgumentException("Elements cannot be null.");
+      }
+      if (previous != null && previous.compareTo(element) >= 0) {
+        throw new IllegalArgumentException("Elements must be in strictly ascending order.");
+      }
+      previous = element;
+    }
+  }
+
+  //the elements ascending, with duplicates dropped
+  public static <E extends Comparable<E>> List<E> sortedDistinct(
+      Collection<? extends E> elements) {
+    List<E> sorted = new ArrayList<>(elements);
+    sorted.sort(null);
+    List<E> distinct = new ArrayList<>(sorted.size());
+    for (E element : sorted) {
+      if (distinct.isEmpty() || distinct.get(distinct.size() - 1).compareTo(element) != 0) {
+        distinct.add(element);
+      }
+    }
+    return distinct;
+  }
+
+  private static <E> E next(Iterator<E> iterator) {
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+}
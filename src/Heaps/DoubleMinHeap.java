@@ -0,0 +1,176 @@
+package Heaps;
+
+import java.util.Arrays;
+
+/*
+MinHeap specialised for double keys: keys live in a flat double[] so add/removeMin never box and
+comparisons never chase a pointer. An optional payload can ride along with each key in a parallel
+array, which is only allocated once the first payload is added.
+IntMinHeap, LongMinHeap and DoubleMinHeap are deliberately the same code with the key type swapped:
+generics cannot range over primitives without boxing, which is the cost these classes exist to
+avoid, so a change to one must be made to all three. The one difference is in add: int and
+long have no unordered values, so only this heap has to reject a key (NaN).
+ */
+public class DoubleMinHeap<V> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private double[] keys;
+  private Object[] values;
+  private int size;
+
+  public DoubleMinHeap(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1.");
+    }
+    keys = new double[capacity];
+    size = 0;
+  }
+
+  public DoubleMinHeap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  private int parent(int index) {
+    return (index - 1) / 2;
+  }
+
+  private int leftChild(int index) {
+    return 2 * index + 1;
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity > keys.length) {
+      int newCapacity = Math.max(minCapacity, keys.length + (keys.length >> 1) + 1);
+      keys = Arrays.copyOf(keys, newCapacity);
+      if (values != null) {
+        values = Arrays.copyOf(values, newCapacity);
+      }
+    }
+  }
+
+  public void add(double key) {
+    add(key, null);
+  }
+
+  public void add(double key, V value) {
+    if (Double.isNaN(key)) {
+      //NaN is unordered against every key and would silently break the heap property
+      throw new HeapException("Cannot add NaN to the heap.");
+    }
+    ensureCapacity(size + 1);
+    if (value != null && values == null) {
+      values = new Object[keys.length];
+    }
+    siftUp(size, key, value);
+    size++;
+  }
+
+  private void siftUp(int i, double key, Object value) {
+    while (i > 0) {
+      int parent = parent(i);
+      double parentKey = keys[parent];
+      if (key >= parentKey) {
+        break;
+      }
+      keys[i] = parentKey;
+      if (values != null) {
+        values[i] = values[parent];
+      }
+      i = parent;
+    }
+    keys[i] = key;
+    if (values != null) {
+      values[i] = value;
+    }
+  }
+
+  public double removeMin() {
+    if (isEmpty()) {
+      throw new HeapException("Heap is empty.");
+    }
+    double min = keys[0];
+    removeRoot();
+    return min;
+  }
+
+  //removes the minimum and returns its payload rather than its key
+  @SuppressWarnings("unchecked")
+  public V removeMinValue() {
+    if (isEmpty()) {
+      throw new HeapException("Heap is empty.");
+    }
+    V min = values == null ? null : (V) values[0];
+    removeRoot();
+    return min;
+  }
+
+  private void removeRoot() {
+    size--;
+    double lastKey = keys[size];
+    Object lastValue = null;
+    if (values != null) {
+      lastValue = values[size];
+      values[size] = null;
+    }
+    if (size > 0) {
+      siftDown(0, lastKey, lastValue);
+    }
+  }
+
+  private void siftDown(int i, double key, Object value) {
+    int half = size >>> 1;
+    while (i < half) {
+      int child = leftChild(i);
+      double childKey = keys[child];
+      int right = child + 1;
+      if (right < size && keys[right] < childKey) {
+        child = right;
+        childKey = keys[right];
+      }
+      if (key <= childKey) {
+        break;
+      }
+      keys[i] = childKey;
+      if (values != null) {
+        values[i] = values[child];
+      }
+      i = child;
+    }
+    keys[i] = key;
+    if (values != null) {
+      values[i] = value;
+    }
+  }
+
+  public double getMin() {
+    if (isEmpty()) {
+      throw new HeapException("Heap is empty.");
+    }
+    return keys[0];
+  }
+
+  @SuppressWarnings("unchecked")
+  public V getMinValue() {
+    if (isEmpty() || values == null) {
+      return null;
+    }
+    return (V) values[0];
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    if (values != null) {
+      Arrays.fill(values, 0, size, null);
+    }
+    size = 0;
+  }
+
+}
@@ -0,0 +1,245 @@
+package Heaps;
+
+import java.util.Arrays;
+
+/*
+A d-ary MinHeap whose entries can be found again: insert hands back a Handle, and the heap keeps
+each handle's current array index up to date as entries move. That makes decreaseKey, increaseKey
+and remove(handle) O(log n) instead of leaving stale duplicates in the heap.
+Arity 4 or 8 gives a shallower heap whose children sit next to each other in the array, which
+helps sift-down on large heaps at the cost of more comparisons per level.
+ */
+public class IndexedMinHeap<E extends Comparable<E>> implements IMinHeap<E> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final int DEFAULT_ARITY = 4;
+
+  private Handle<E>[] handles;
+  private int size;
+  private final int arity;
+
+  @SuppressWarnings("unchecked")
+  public IndexedMinHeap(int arity, int capacity) {
+    if (arity < 2) {
+      throw new IllegalArgumentException("Arity must be at least 2.");
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1.");
+    }
+    this.arity = arity;
+    handles = (Handle<E>[]) new Handle[capacity];
+    size = 0;
+  }
+
+  public IndexedMinHeap(int arity) {
+    this(arity, DEFAULT_CAPACITY);
+  }
+
+  public IndexedMinHeap() {
+    this(DEFAULT_ARITY);
+  }
+
+  private int parent(int index) {
+    return (index - 1) / arity;
+  }
+
+  private int firstChild(int index) {
+    return arity * index + 1;
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity > handles.length) {
+      int newCapacity = Math.max(minCapacity, handles.length + (handles.length >> 1) + 1);
+      handles = Arrays.copyOf(handles, newCapacity);
+    }
+  }
+
+  @Override
+  public void add(E element) throws HeapException {
+    insert(element);
+  }
+
+  public Handle<E> insert(E element) throws HeapException {
+    checkNotNull(element);
+    ensureCapacity(size + 1);
+    Handle<E> handle = new Handle<>(element);
+    size++;
+    siftUp(size - 1, handle);
+    return handle;
+  }
+
+  @Override
+  public E removeMin() {
+    if (isEmpty()) {
+      throw new HeapException("Heap is empty.");
+    }
+    Handle<E> min = handles[0];
+    removeAt(0);
+    return min.element;
+  }
+
+  public E getMin() {
+    if (isEmpty()) {
+      return null;
+    }
+    return handles[0].element;
+  }
+
+  public Handle<E> getMinHandle() {
+    if (isEmpty()) {
+      return null;
+    }
+    return handles[0];
+  }
+
+  public void decreaseKey(Handle<E> handle, E element) throws HeapException {
+    checkOwned(handle);
+    checkNotNull(element);
+    if (element.compareTo(handle.element) > 0) {
+      throw new HeapException("New key is greater than the current key.");
+    }
+    handle.element = element;
+    siftUp(handle.index, handle);
+  }
+
+  public void increaseKey(Handle<E> handle, E element) throws HeapException {
+    checkOwned(handle);
+    checkNotNull(element);
+    if (element.compareTo(handle.element) < 0) {
+      throw new HeapException("New key is smaller than the current key.");
+    }
+    handle.element = element;
+    siftDown(handle.index, handle);
+  }
+
+  //for callers that do not know which way the priority moved
+  public void updatePriority(Handle<E> handle, E element) throws HeapException {
+    checkOwned(handle);
+    checkNotNull(element);
+    int comparison = element.compareTo(handle.element);
+    handle.element = element;
+    if (comparison < 0) {
+      siftUp(handle.index, handle);
+    } else if (comparison > 0) {
+      siftDown(handle.index, handle);
+    }
+  }
+
+  public boolean remove(Handle<E> handle) {
+    if (!contains(handle)) {
+      return false;
+    }
+    removeAt(handle.index);
+    return true;
+  }
+
+  public boolean contains(Handle<E> handle) {
+    return handle != null && handle.index >= 0 && handle.index < size
+        && handles[handle.index] == handle;
+  }
+
+  private void removeAt(int i) {
+    Handle<E> removed = handles[i];
+    size--;
+    Handle<E> last = handles[size];
+    handles[size] = null;
+    removed.index = -1;
+    if (i == size) {
+      return;
+    }
+    //the last entry fills the hole and may need to move either way
+    if (i > 0 && last.element.compareTo(handles[parent(i)].element) < 0) {
+      siftUp(i, last);
+    } else {
+      siftDown(i, last);
+    }
+  }
+
+  private void siftUp(int i, Handle<E> handle) {
+    E element = handle.element;
+    while (i > 0) {
+      int parent = parent(i);
+      Handle<E> parentHandle = handles[parent];
+      if (element.compareTo(parentHandle.element) >= 0) {
+        break;
+      }
+      place(i, parentHandle);
+      i = parent;
+    }
+    place(i, handle);
+  }
+
+  private void siftDown(int i, Handle<E> handle) {
+    E element = handle.element;
+    while (true) {
+      int first = firstChild(i);
+      if (first >= size) {
+        break;
+      }
+      //find the smallest of up to arity children, which sit next to each other in the array
+      int last = Math.min(first + arity, size);
+      int child = first;
+      E childElement = handles[first].element;
+      for (int c = first + 1; c < last; c++) {
+        E candidate = handles[c].element;
+        if (candidate.compareTo(childElement) < 0) {
+          child = c;
+          childElement = candidate;
+        }
+      }
+      if (element.compareTo(childElement) <= 0) {
+        break;
+      }
+      place(i, handles[child]);
+      i = child;
+    }
+    place(i, handle);
+  }
+
+  private void place(int i, Handle<E> handle) {
+    handles[i] = handle;
+    handle.index = i;
+  }
+
+  private void checkOwned(Handle<E> handle) throws HeapException {
+    if (!contains(handle)) {
+      throw new HeapException("Handle does not belong to an element in this heap.");
+    }
+  }
+
+  private void checkNotNull(E element) throws HeapException {
+    if (element == null) {
+      throw new HeapException("Cannot add null to the heap.");
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  public int getArity() {
+    return arity;
+  }
+
+  public static final class Handle<T> {
+
+    private T element;
+    private int index;
+
+    private Handle(T element) {
+      this.element = element;
+      this.index = -1;
+    }
+
+    public T getElement() {
+      return element;
+    }
+  }
+
+}
@@ -1,22 +1,46 @@
 package Heaps;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 public class MinHeap<E extends Comparable<E>> implements IMinHeap<E> {
 
-  private static final int DEFAULT_CAPACITY = 512;
+  private static final int DEFAULT_CAPACITY = 16;
 
+  /*
+  The backing array grows geometrically (x1.5) when full, so add is amortized O(1) plus the sift.
+  With shrinkOnDrain set, the array is halved whenever it falls to a quarter full, but never below
+  the capacity the heap was created with.
+   */
   private E[] elements;
   private int size;
+  private final int initialCapacity;
+  private final boolean shrinkOnDrain;
 
   @SuppressWarnings("unchecked")
-  public MinHeap(int capacity) {
-    elements = (E[]) new Object[capacity];
+  public MinHeap(int capacity, boolean shrinkOnDrain) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1.");
+    }
+    elements = (E[]) new Comparable[capacity];
     size = 0;
+    initialCapacity = capacity;
+    this.shrinkOnDrain = shrinkOnDrain;
+  }
+
+  public MinHeap(int capacity) {
+    this(capacity, false);
   }
 
   public MinHeap() {
     this(DEFAULT_CAPACITY);
   }
 
+  public MinHeap(Collection<? extends E> elements) {
+    this(Math.max(elements.size(), DEFAULT_CAPACITY));
+    addAll(elements);
+  }
+
   public void incrementSize() {
     size++;
   }
@@ -33,30 +57,74 @@ public class MinHeap<E extends Comparable<E>> implements IMinHeap<E> {
     return 2 * index + 1;
   }
 
-  private int rightChild(int index) {
-    return 2 * index + 2;
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity > elements.length) {
+      int newCapacity = Math.max(minCapacity, elements.length + (elements.length >> 1) + 1);
+      elements = Arrays.copyOf(elements, newCapacity);
+    }
   }
 
-  private void swap(int i, int j) {
-    E temp = elements[i];
-    elements[i] = elements[j];
-    elements[j] = temp;
+  private void shrinkIfDrained() {
+    int halved = elements.length >> 1;
+    if (shrinkOnDrain && size <= elements.length >> 2 && halved >= initialCapacity) {
+      elements = Arrays.copyOf(elements, halved);
+    }
   }
 
   @Override
   public void add(E element) throws HeapException {
-    if (size == elements.length) {
-      throw new HeapException("Heap is full.");
-    }
-    elements[size] = element;
-    int i = size;
-    while (i > 0 && elements[i].compareTo(elements[parent(i)]) < 0) {
-      swap(i, parent(i));
-      i = parent(i);
+    if (element == null) {
+      throw new HeapException("Cannot add null to the heap.");
     }
+    ensureCapacity(size + 1);
+    siftUp(size, element);
     incrementSize();
   }
 
+  //all or nothing: the batch is checked for nulls before any of it goes into the heap
+  public void addAll(Collection<? extends E> newElements) throws HeapException {
+    for (E element : newElements) {
+      if (element == null) {
+        throw new HeapException("Cannot add null to the heap.");
+      }
+    }
+    int count = newElements.size();
+    ensureCapacity(size + count);
+    if (count < size) {
+      //few new elements relative to the heap: sifting each one up is cheaper than a full rebuild
+      for (E element : newElements) {
+        add(element);
+      }
+      return;
+    }
+    for (E element : newElements) {
+      elements[size] = element;
+      incrementSize();
+    }
+    heapify();
+  }
+
+  private void heapify() {
+    //Floyd's bottom-up construction: sift down every internal node, last one first, in O(n)
+    for (int i = parent(size - 1); i >= 0; i--) {
+      siftDown(i, elements[i]);
+    }
+  }
+
+  private void siftUp(int i, E element) {
+    //move the hole up instead of swapping, then drop the element in once
+    while (i > 0) {
+      int parent = parent(i);
+      E parentElement = elements[parent];
+      if (element.compareTo(parentElement) >= 0) {
+        break;
+      }
+      elements[i] = parentElement;
+      i = parent;
+    }
+    elements[i] = element;
+  }
+
   @Override
   public E removeMin() {
     if (isEmpty()) {
@@ -64,24 +132,34 @@ public class MinHeap<E extends Comparable<E>> implements IMinHeap<E> {
     }
     E min = elements[0];
     decrementSize();
-    elements[0] = elements[size];
-    rebuildHeap(0);
+    E last = elements[size];
+    //null out the vacated slot so the heap does not keep popped elements reachable
+    elements[size] = null;
+    if (size > 0) {
+      siftDown(0, last);
+    }
+    shrinkIfDrained();
     return min;
   }
 
-  private void rebuildHeap(int i) {
-    int left = leftChild(i);
-    int right = rightChild(i);
-    int compareTo;
-    if (right < size) {
-      compareTo = elements[left].compareTo(elements[right]) <= left ? left : right;
-    } else {
-      compareTo = left;
-    }
-    if (left < size && elements[i].compareTo(elements[compareTo]) > 0) {
-      swap(i, compareTo);
-      rebuildHeap(compareTo);
+  private void siftDown(int i, E element) {
+    int half = size >>> 1;
+    while (i < half) {
+      //i has at least a left child, pick the smaller of its children
+      int child = leftChild(i);
+      E childElement = elements[child];
+      int right = child + 1;
+      if (right < size && elements[right].compareTo(childElement) < 0) {
+        child = right;
+        childElement = elements[right];
+      }
+      if (element.compareTo(childElement) <= 0) {
+        break;
+      }
+      elements[i] = childElement;
+      i = child;
     }
+    elements[i] = element;
   }
 
   @Override
@@ -0,0 +1,333 @@
+package RedBlackTree;
+
+import BST.PersistentSortedSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+Persistent (immutable) red-black tree. Updates copy the path from the root to the change and
+share every other subtree with the previous version, so with and without cost O(log n) time and
+new nodes and old versions never change.
+This is the left-leaning variant (a red node is always a left child, mirroring a 2-3 tree): its
+insertion and deletion are written as recursive descents that fix the tree up on the way back,
+which is what path copying needs, since the nodes have no parent pointers to walk back up. The
+colour flips and rotations copy the nodes they recolour, so an update may copy a few siblings of
+the path as well. The recursion depth is bounded by the height of the tree.
+ */
+public final class PersistentRedBlackTree<E extends Comparable<E>>
+    implements PersistentSortedSet<E> {
+
+  private static final PersistentRedBlackTree<?> EMPTY = new PersistentRedBlackTree<>(null);
+
+  private final Node<E> root;
+
+  private PersistentRedBlackTree(Node<E> root) {
+    this.root = root;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E extends Comparable<E>> PersistentRedBlackTree<E> empty() {
+    return (PersistentRedBlackTree<E>) EMPTY;
+  }
+
+  @Override
+  public PersistentRedBlackTree<E> with(E element) {
+    Node<E> newRoot = insert(root, element);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentRedBlackTree<>(blacken(newRoot));
+  }
+
+  @Override
+  public PersistentRedBlackTree<E> without(E element) {
+    if (!contains(element)) {
+      return this;
+    }
+    Node<E> top = root;
+    if (!isRed(top.left) && !isRed(top.right)) {
+      //a red root gives the descent a red node to push down
+      top = new Node<>(Colour.RED, top.element, top.left, top.right);
+    }
+    Node<E> newRoot = delete(top, element);
+    return newRoot == null ? empty() : new PersistentRedBlackTree<>(blacken(newRoot));
+  }
+
+  //returns node itself when element is already in its subtree
+  private Node<E> insert(Node<E> node, E element) {
+    if (node == null) {
+      return new Node<>(Colour.RED, element, null, null);
+    }
+    int comparison = element.compareTo(node.element);
+    if (comparison < 0) {
+      Node<E> left = insert(node.left, element);
+      if (left == node.left) {
+        return node;
+      }
+      return balance(new Node<>(node.colour, node.element, left, node.right));
+    } else if (comparison > 0) {
+      Node<E> right = insert(node.right, element);
+      if (right == node.right) {
+        return node;
+      }
+      return balance(new Node<>(node.colour, node.element, node.left, right));
+    }
+    return node;
+  }
+
+  /*
+  element must be in the subtree of node. On the way down the current node is kept red or given
+  a red left child (moveRedLeft / moveRedRight borrow one from the sibling or merge with it), so
+  the node finally removed is never black; balance then fixes the right-leaning and doubled red
+  links this leaves behind on the way back up.
+   */
+  private Node<E> delete(Node<E> node, E element) {
+    if (element.compareTo(node.element) < 0) {
+      if (!isRed(node.left) && !isRed(node.left.left)) {
+        node = moveRedLeft(node);
+      }
+      node = new Node<>(node.colour, node.element, delete(node.left, element), node.right);
+    } else {
+      if (isRed(node.left)) {
+        node = rotateRight(node);
+      }
+      if (element.compareTo(node.element) == 0 && node.right == null) {
+        return null;
+      }
+      if (!isRed(node.right) && !isRed(node.right.left)) {
+        node = moveRedRight(node);
+      }
+      if (element.compareTo(node.element) == 0) {
+        //the successor takes the removed element's place
+        Node<E> successor = node.right;
+        while (successor.left != null) {
+          successor = successor.left;
+        }
+        node = new Node<>(node.colour, successor.element, node.left, deleteMin(node.right));
+      } else {
+        node = new Node<>(node.colour, node.element, node.left, delete(node.right, element));
+      }
+    }
+    return balance(node);
+  }
+
+  private Node<E> deleteMin(Node<E> node) {
+    if (node.left == null) {
+      return null;
+    }
+    if (!isRed(node.left) && !isRed(node.left.left)) {
+      node = moveRedLeft(node);
+    }
+    return balance(new Node<>(node.colour, node.element, deleteMin(node.left), node.right));
+  }
+
+  //node is red with two black children: make its left child or one of its children red
+  private Node<E> moveRedLeft(Node<E> node) {
+    node = flipColours(node);
+    if (isRed(node.right.left)) {
+      node = new Node<>(node.colour, node.element, node.left, rotateRight(node.right));
+      node = flipColours(rotateLeft(node));
+    }
+    return node;
+  }
+
+  private Node<E> moveRedRight(Node<E> node) {
+    node = flipColours(node);
+    if (isRed(node.left.left)) {
+      node = flipColours(rotateRight(node));
+    }
+    return node;
+  }
+
+  private Node<E> balance(Node<E> node) {
+    if (isRed(node.right) && !isRed(node.left)) {
+      node = rotateLeft(node);
+    }
+    if (isRed(node.left) && isRed(node.left.left)) {
+      node = rotateRight(node);
+    }
+    if (isRed(node.left) && isRed(node.right)) {
+      node = flipColours(node);
+    }
+    return node;
+  }
+
+  //the rotated subtree keeps node's colour and node itself becomes red
+  private Node<E> rotateLeft(Node<E> node) {
+    Node<E> pivot = node.right;
+    Node<E> lowered = new Node<>(Colour.RED, node.element, node.left, pivot.left);
+    return new Node<>(node.colour, pivot.element, lowered, pivot.right);
+  }
+
+  private Node<E> rotateRight(Node<E> node) {
+    Node<E> pivot = node.left;
+    Node<E> lowered = new Node<>(Colour.RED, node.element, pivot.right, node.right);
+    return new Node<>(node.colour, pivot.element, pivot.left, lowered);
+  }
+
+  private Node<E> flipColours(Node<E> node) {
+    return new Node<>(opposite(node.colour), node.element, flipColour(node.left),
+        flipColour(node.right));
+  }
+
+  private Node<E> flipColour(Node<E> node) {
+    return new Node<>(opposite(node.colour), node.element, node.left, node.right);
+  }
+
+  private Node<E> blacken(Node<E> node) {
+    if (node.colour == Colour.BLACK) {
+      return node;
+    }
+    return new Node<>(Colour.BLACK, node.element, node.left, node.right);
+  }
+
+  private static Colour opposite(Colour colour) {
+    return colour == Colour.RED ? Colour.BLACK : Colour.RED;
+  }
+
+  private static boolean isRed(Node<?> node) {
+    return node != null && node.colour == Colour.RED;
+  }
+
+  @Override
+  public boolean contains(E element) {
+    Node<E> current = root;
+    while (current != null) {
+      int comparison = element.compareTo(current.element);
+      if (comparison < 0) {
+        current = current.left;
+      } else if (comparison > 0) {
+        current = current.right;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    return root == null ? 0 : root.size;
+  }
+
+  //the k-th smallest element, counting from 0
+  public E select(int k) {
+    if (k < 0 || k >= size()) {
+      throw new IndexOutOfBoundsException("Index " + k + " is out of range for a set of size "
+          + size() + ".");
+    }
+    Node<E> current = root;
+    while (true) {
+      int leftSize = current.left == null ? 0 : current.left.size;
+      if (k < leftSize) {
+        current = current.left;
+      } else if (k > leftSize) {
+        k -= leftSize + 1;
+        current = current.right;
+      } else {
+        return current.element;
+      }
+    }
+  }
+
+  //for tests: order, sizes, a black root, left-leaning red links with no two in a row, and equal
+  //black heights
+  void checkInvariants() {
+    if (isRed(root)) {
+      throw new IllegalStateException("The root is red.");
+    }
+    checkSubtree(root, null, null);
+  }
+
+  //returns the black height of the subtree, whose elements must all lie strictly between lo and
+  //hi; null leaves count as one black node
+  private int checkSubtree(Node<E> node, E lo, E hi) {
+    if (node == null) {
+      return 1;
+    }
+    E element = node.element;
+    if ((lo != null && element.compareTo(lo) <= 0) || (hi != null && element.compareTo(hi) >= 0)) {
+      throw new IllegalStateException("Element " + element + " is out of order.");
+    }
+    if (isRed(node.right)) {
+      throw new IllegalStateException("Node " + element + " has a red right child.");
+    }
+    if (isRed(node) && isRed(node.left)) {
+      throw new IllegalStateException("Red node " + element + " has a red child.");
+    }
+    int blackHeight = checkSubtree(node.left, lo, element);
+    if (checkSubtree(node.right, element, hi) != blackHeight) {
+      throw new IllegalStateException("The black heights differ below " + element + ".");
+    }
+    if (node.size != (node.left == null ? 0 : node.left.size)
+        + (node.right == null ? 0 : node.right.size) + 1) {
+      throw new IllegalStateException("The size stored at " + element + " is wrong.");
+    }
+    return blackHeight + (isRed(node) ? 0 : 1);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new InOrderIterator<>(root);
+  }
+
+  @Override
+  public List<E> inOrderTraversal() {
+    List<E> elements = new ArrayList<>(size());
+    iterator().forEachRemaining(elements::add);
+    return elements;
+  }
+
+  private static final class InOrderIterator<E> implements Iterator<E> {
+
+    private final Deque<Node<E>> stack = new ArrayDeque<>();
+
+    private InOrderIterator(Node<E> root) {
+      pushLeftSpine(root);
+    }
+
+    private void pushLeftSpine(Node<E> node) {
+      while (node != null) {
+        stack.push(node);
+        node = node.left;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public E next() {
+      if (stack.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      Node<E> node = stack.pop();
+      pushLeftSpine(node.right);
+      return node.element;
+    }
+  }
+
+  //static, so a node shared between versions does not keep the tree that created it alive
+  private static final class Node<E> {
+
+    private final Colour colour;
+    private final E element;
+    private final Node<E> left;
+    private final Node<E> right;
+    private final int size;
+
+    private Node(Colour colour, E element, Node<E> left, Node<E> right) {
+      this.colour = colour;
+      this.element = element;
+      this.left = left;
+      this.right = right;
+      this.size = (left == null ? 0 : left.size) + (right == null ? 0 : right.size) + 1;
+    }
+  }
+}
@@ -1,58 +1,470 @@
 package RedBlackTree;
 
+import BST.Cursor;
 import BST.LinkedNodesBST;
+import BST.SizedLinkedNodesBST;
+import BST.SortedMerge;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
-public class RedBlackTree<E extends Comparable<E>> extends LinkedNodesBST<E> {
+public class RedBlackTree<E extends Comparable<E>> extends SizedLinkedNodesBST<E> {
+
+  /*
+  Red-Black Invariants:
+    - every node is either red or black, and the root is black
+    - a red node never has a red child
+    - every path from a node down to a null leaf passes through the same number of black nodes
+  Null leaves count as black. Insertion and deletion fix-ups walk back up the parent pointers
+  iteratively and perform at most 2 (insert) or 3 (delete) rotations.
+   */
 
   public RedBlackTree(E element) {
-    root = new RedBlackNode<>(element);
+    setRoot(element);
   }
 
   public RedBlackTree() {
     root = null;
   }
 
+  @Override
+  public void setRoot(E element) {
+    RedBlackNode<E> node = new RedBlackNode<>(element);
+    node.setBlack();
+    root = node;
+  }
+
+  /*
+  Builds a perfectly balanced tree from strictly ascending elements in O(n). Every level is full
+  except possibly the deepest, so colouring the deepest level red (when it is not full) and
+  everything else black gives every path the same black height.
+   */
+  public static <E extends Comparable<E>> RedBlackTree<E> fromSorted(List<? extends E> sorted) {
+    SortedMerge.checkStrictlyAscending(sorted);
+    RedBlackTree<E> tree = new RedBlackTree<>();
+    int n = sorted.size();
+    int redDepth = Integer.bitCount(n + 1) == 1 ? -1 : 31 - Integer.numberOfLeadingZeros(n);
+    tree.root = tree.buildBalanced(sorted, 0, n, null, 0, redDepth);
+    return tree;
+  }
+
+  public static <E extends Comparable<E>> RedBlackTree<E> fromSorted(E[] sorted) {
+    return fromSorted(Arrays.asList(sorted));
+  }
+
+  private RedBlackNode<E> buildBalanced(List<? extends E> sorted, int from, int to,
+      RedBlackNode<E> parent, int depth, int redDepth) {
+    if (from >= to) {
+      return null;
+    }
+    int middle = (from + to) >>> 1;
+    RedBlackNode<E> node = new RedBlackNode<>(sorted.get(middle), parent);
+    if (depth != redDepth) {
+      node.setBlack();
+    }
+    node.setLeftSubtree(buildBalanced(sorted, from, middle, node, depth + 1, redDepth));
+    node.setRightSubtree(buildBalanced(sorted, middle + 1, to, node, depth + 1, redDepth));
+    updateSize(node);
+    return node;
+  }
+
+  //linear merges of the two in-order sequences, rebuilt with fromSorted
+  public RedBlackTree<E> union(LinkedNodesBST<E> other) {
+    return fromSorted(SortedMerge.union(iterator(), other.iterator()));
+  }
+
+  public RedBlackTree<E> intersection(LinkedNodesBST<E> other) {
+    return fromSorted(SortedMerge.intersection(iterator(), other.iterator()));
+  }
+
+  public RedBlackTree<E> difference(LinkedNodesBST<E> other) {
+    return fromSorted(SortedMerge.difference(iterator(), other.iterator()));
+  }
+
+  //see addAllInOrder
+  @Override
+  public boolean addAll(Collection<? extends E> elements) {
+    return addAllInOrder(elements, cursor());
+  }
+
+  @Override
+  public boolean removeAll(Collection<? extends E> elements) {
+    return removeAllInOrder(elements);
+  }
+
   @Override
   public boolean add(E element) {
-    //TO IMPLEMENT
-    return false;
+    if (root == null) {
+      setRoot(element);
+      return true;
+    }
+    return insertBelow((RedBlackNode<E>) root, element) != null;
+  }
+
+  //adds element somewhere below from, whose subtree must span element's position; returns the
+  //new node, or null when the element is already in the set
+  private RedBlackNode<E> insertBelow(RedBlackNode<E> from, E element) {
+    RedBlackNode<E> current = from;
+    RedBlackNode<E> parent;
+    int comparison;
+    do {
+      parent = current;
+      comparison = element.compareTo(current.getElement());
+      if (comparison < 0) {
+        current = leftOf(current);
+      } else if (comparison > 0) {
+        current = rightOf(current);
+      } else {
+        //the element is already in the set
+        return null;
+      }
+    } while (current != null);
+    RedBlackNode<E> node = new RedBlackNode<>(element, parent);
+    if (comparison < 0) {
+      parent.setLeftSubtree(node);
+    } else {
+      parent.setRightSubtree(node);
+    }
+    adjustSizesUpwards(parent, 1);
+    fixAfterInsertion(node);
+    return node;
+  }
+
+  private void fixAfterInsertion(RedBlackNode<E> node) {
+    //node is red, so the only possible violation is a red parent
+    while (node != root && isRed(node.getParent())) {
+      RedBlackNode<E> parent = node.getParent();
+      RedBlackNode<E> grandparent = parent.getParent();
+      if (parent == leftOf(grandparent)) {
+        RedBlackNode<E> uncle = rightOf(grandparent);
+        if (isRed(uncle)) {
+          //Case 1: red uncle - recolour and continue from the grandparent
+          parent.setBlack();
+          uncle.setBlack();
+          grandparent.setRed();
+          node = grandparent;
+        } else {
+          if (node == rightOf(parent)) {
+            //Case 2: node is an inner child - rotate it to the outside
+            node = parent;
+            rotateLeft(node);
+            parent = node.getParent();
+          }
+          //Case 3: node is an outer child - rotate the grandparent
+          parent.setBlack();
+          grandparent.setRed();
+          rotateRight(grandparent);
+        }
+      } else {
+        RedBlackNode<E> uncle = leftOf(grandparent);
+        if (isRed(uncle)) {
+          parent.setBlack();
+          uncle.setBlack();
+          grandparent.setRed();
+          node = grandparent;
+        } else {
+          if (node == leftOf(parent)) {
+            node = parent;
+            rotateRight(node);
+            parent = node.getParent();
+          }
+          parent.setBlack();
+          grandparent.setRed();
+          rotateLeft(grandparent);
+        }
+      }
+    }
+    ((RedBlackNode<E>) root).setBlack();
   }
 
   @Override
   public boolean remove(E element) {
-    //TO IMPLEMENT
-    return false;
+    RedBlackNode<E> node = findNode(element);
+    if (node == null) {
+      //the element is not in the set
+      return false;
+    }
+    deleteNode(node);
+    return true;
+  }
+
+  private void deleteNode(RedBlackNode<E> node) {
+    //child is the node that moves into the removed position, childParent is its new parent
+    //(tracked separately because child may be a null leaf)
+    RedBlackNode<E> child;
+    RedBlackNode<E> childParent;
+    Colour removedColour = node.getColour();
+    if (leftOf(node) == null) {
+      child = rightOf(node);
+      childParent = node.getParent();
+      transplant(node, child);
+    } else if (rightOf(node) == null) {
+      child = leftOf(node);
+      childParent = node.getParent();
+      transplant(node, child);
+    } else {
+      //2 children - splice the successor into the node's position, keeping the node's colour
+      RedBlackNode<E> successor = rightOf(node);
+      while (leftOf(successor) != null) {
+        successor = leftOf(successor);
+      }
+      removedColour = successor.getColour();
+      child = rightOf(successor);
+      if (successor.getParent() == node) {
+        childParent = successor;
+      } else {
+        childParent = successor.getParent();
+        transplant(successor, child);
+        successor.setRightSubtree(node.getRightSubtree());
+        rightOf(successor).setParent(successor);
+      }
+      transplant(node, successor);
+      successor.setLeftSubtree(node.getLeftSubtree());
+      leftOf(successor).setParent(successor);
+      successor.setColour(node.getColour());
+      successor.setSize(node.getSize());
+    }
+    node.setLeftSubtree(null);
+    node.setRightSubtree(null);
+    node.setParent(null);
+    adjustSizesUpwards(childParent, -1);
+    if (removedColour == Colour.BLACK) {
+      fixAfterDeletion(child, childParent);
+    }
+  }
+
+  private void fixAfterDeletion(RedBlackNode<E> node, RedBlackNode<E> parent) {
+    //node carries an extra black that has to be pushed up or absorbed by a rotation
+    while (node != root && isBlack(node)) {
+      if (node == leftOf(parent)) {
+        RedBlackNode<E> sibling = rightOf(parent);
+        if (isRed(sibling)) {
+          //Case 1: red sibling - rotate so the sibling is black
+          sibling.setBlack();
+          parent.setRed();
+          rotateLeft(parent);
+          sibling = rightOf(parent);
+        }
+        if (isBlack(leftOf(sibling)) && isBlack(rightOf(sibling))) {
+          //Case 2: both of the sibling's children are black - recolour and move up
+          sibling.setRed();
+          node = parent;
+          parent = node.getParent();
+        } else {
+          if (isBlack(rightOf(sibling))) {
+            //Case 3: only the inner nephew is red - rotate it to the outside
+            leftOf(sibling).setBlack();
+            sibling.setRed();
+            rotateRight(sibling);
+            sibling = rightOf(parent);
+          }
+          //Case 4: the outer nephew is red - rotate the parent and we are done
+          sibling.setColour(parent.getColour());
+          parent.setBlack();
+          rightOf(sibling).setBlack();
+          rotateLeft(parent);
+          node = (RedBlackNode<E>) root;
+          parent = null;
+        }
+      } else {
+        RedBlackNode<E> sibling = leftOf(parent);
+        if (isRed(sibling)) {
+          sibling.setBlack();
+          parent.setRed();
+          rotateRight(parent);
+          sibling = leftOf(parent);
+        }
+        if (isBlack(rightOf(sibling)) && isBlack(leftOf(sibling))) {
+          sibling.setRed();
+          node = parent;
+          parent = node.getParent();
+        } else {
+          if (isBlack(leftOf(sibling))) {
+            rightOf(sibling).setBlack();
+            sibling.setRed();
+            rotateLeft(sibling);
+            sibling = leftOf(parent);
+          }
+          sibling.setColour(parent.getColour());
+          parent.setBlack();
+          leftOf(sibling).setBlack();
+          rotateRight(parent);
+          node = (RedBlackNode<E>) root;
+          parent = null;
+        }
+      }
+    }
+    if (node != null) {
+      node.setBlack();
+    }
   }
 
   @Override
   public boolean contains(E element) {
-    //TO IMPLEMENT
-    return false;
+    return findNode(element) != null;
   }
 
   private RedBlackNode<E> findNode(E element) {
-    Node<E> current = root;
-    Node<E> parent = null;
+    RedBlackNode<E> current = (RedBlackNode<E>) root;
     while (current != null) {
-      parent = current;
       int comparison = element.compareTo(current.getElement());
       if (comparison < 0) {
-        current = current.getLeftSubtree();
-      } else if (comparison == 0) {
-        break;
+        current = leftOf(current);
+      } else if (comparison > 0) {
+        current = rightOf(current);
       } else {
-        assert comparison > 0;
-        current = current.getRightSubtree();
+        return current;
       }
     }
-    assert current != null;
-    return new RedBlackNode<>(current.getElement(), (RedBlackNode<E>) parent);
+    return null;
+  }
+
+  //a cursor that starts off the end; see ParentLinkedCursor
+  public Cursor<E> cursor() {
+    return new TreeCursor();
+  }
+
+  private class TreeCursor extends ParentLinkedCursor {
+
+    @Override
+    protected Node<E> parentOf(Node<E> node) {
+      return ((RedBlackNode<E>) node).getParent();
+    }
+
+    @Override
+    protected Node<E> insertBelow(Node<E> from, E element) {
+      return RedBlackTree.this.insertBelow((RedBlackNode<E>) from, element);
+    }
+  }
+
+  //replaces the subtree rooted at oldNode with the one rooted at newNode in oldNode's parent
+  private void transplant(RedBlackNode<E> oldNode, RedBlackNode<E> newNode) {
+    RedBlackNode<E> parent = oldNode.getParent();
+    if (parent == null) {
+      root = newNode;
+    } else if (oldNode == leftOf(parent)) {
+      parent.setLeftSubtree(newNode);
+    } else {
+      parent.setRightSubtree(newNode);
+    }
+    if (newNode != null) {
+      newNode.setParent(parent);
+    }
+  }
+
+  private void rotateLeft(RedBlackNode<E> node) {
+    RedBlackNode<E> pivot = rightOf(node);
+    node.setRightSubtree(pivot.getLeftSubtree());
+    if (leftOf(pivot) != null) {
+      leftOf(pivot).setParent(node);
+    }
+    transplant(node, pivot);
+    pivot.setLeftSubtree(node);
+    node.setParent(pivot);
+    updateSize(node);
+    updateSize(pivot);
+  }
+
+  private void rotateRight(RedBlackNode<E> node) {
+    RedBlackNode<E> pivot = leftOf(node);
+    node.setLeftSubtree(pivot.getRightSubtree());
+    if (rightOf(pivot) != null) {
+      rightOf(pivot).setParent(node);
+    }
+    transplant(node, pivot);
+    pivot.setRightSubtree(node);
+    node.setParent(pivot);
+    updateSize(node);
+    updateSize(pivot);
+  }
+
+  @Override
+  protected int sizeOf(Node<E> node) {
+    return size((RedBlackNode<E>) node);
+  }
+
+  private int size(RedBlackNode<E> node) {
+    return node == null ? 0 : node.getSize();
+  }
+
+  private void updateSize(RedBlackNode<E> node) {
+    node.setSize(size(leftOf(node)) + size(rightOf(node)) + 1);
+  }
+
+  //adds delta to the size of node and every ancestor above it
+  private void adjustSizesUpwards(RedBlackNode<E> node, int delta) {
+    while (node != null) {
+      node.setSize(node.getSize() + delta);
+      node = node.getParent();
+    }
+  }
+
+  /*
+  Walks the whole tree and throws IllegalStateException at the first broken invariant: element
+  order, parent pointers, the stored sizes, and the colour rules (black root, no red node with a
+  red child, the same black height on every path). For tests.
+   */
+  void checkInvariants() {
+    RedBlackNode<E> top = (RedBlackNode<E>) root;
+    if (top != null && top.getParent() != null) {
+      throw new IllegalStateException("The root has a parent.");
+    }
+    if (isRed(top)) {
+      throw new IllegalStateException("The root is red.");
+    }
+    checkSubtree(top, null, null);
+  }
+
+  //returns the black height of the subtree, whose elements must all lie strictly between lo and
+  //hi; null leaves count as one black node
+  private int checkSubtree(RedBlackNode<E> node, E lo, E hi) {
+    if (node == null) {
+      return 1;
+    }
+    E element = node.getElement();
+    if ((lo != null && element.compareTo(lo) <= 0) || (hi != null && element.compareTo(hi) >= 0)) {
+      throw new IllegalStateException("Element " + element + " is out of order.");
+    }
+    RedBlackNode<E> left = leftOf(node);
+    RedBlackNode<E> right = rightOf(node);
+    if ((left != null && left.getParent() != node)
+        || (right != null && right.getParent() != node)) {
+      throw new IllegalStateException("A child of " + element + " has the wrong parent.");
+    }
+    if (isRed(node) && (isRed(left) || isRed(right))) {
+      throw new IllegalStateException("Red node " + element + " has a red child.");
+    }
+    int blackHeight = checkSubtree(left, lo, element);
+    if (checkSubtree(right, element, hi) != blackHeight) {
+      throw new IllegalStateException("The black heights differ below " + element + ".");
+    }
+    if (node.getSize() != size(left) + size(right) + 1) {
+      throw new IllegalStateException("The size stored at " + element + " is wrong.");
+    }
+    return blackHeight + (isBlack(node) ? 1 : 0);
+  }
+
+  private RedBlackNode<E> leftOf(RedBlackNode<E> node) {
+    return node == null ? null : (RedBlackNode<E>) node.getLeftSubtree();
+  }
+
+  private RedBlackNode<E> rightOf(RedBlackNode<E> node) {
+    return node == null ? null : (RedBlackNode<E>) node.getRightSubtree();
+  }
+
+  private boolean isRed(RedBlackNode<E> node) {
+    return node != null && node.isRed();
+  }
+
+  private boolean isBlack(RedBlackNode<E> node) {
+    return node == null || node.isBlack();
   }
 
   private class RedBlackNode<T> extends Node<T> {
 
     private Colour colour;
     private RedBlackNode<T> parent;
+    private int size;
 
     public RedBlackNode(T element, RedBlackNode<T> parent) {
       this(element);
@@ -61,6 +473,7 @@ public class RedBlackTree<E extends Comparable<E>> extends LinkedNodesBST<E> {
 
     public RedBlackNode(T element) {
       super(element);
+      this.size = 1;
       this.colour = Colour.RED;
     }
 
@@ -80,6 +493,22 @@ public class RedBlackTree<E extends Comparable<E>> extends LinkedNodesBST<E> {
       colour = Colour.RED;
     }
 
+    public Colour getColour() {
+      return colour;
+    }
+
+    public void setColour(Colour colour) {
+      this.colour = colour;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public void setSize(int size) {
+      this.size = size;
+    }
+
     public RedBlackNode<T> getParent() {
       return parent;
     }
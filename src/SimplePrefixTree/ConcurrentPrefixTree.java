@@ -0,0 +1,207 @@
+package SimplePrefixTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+A SimplePrefixTree for many threads that never takes a lock:
+  - children are published with a CAS on an AtomicReferenceArray slot, so two inserts only race
+    when they create the same missing child, and the loser simply continues with the winner's node
+  - the end-of-word flag is flipped with a CAS, which decides which add or remove changed the set
+  - contains is a plain walk over volatile reads and never blocks
+  - size is a LongAdder, so concurrent updates do not contend on a single counter
+Nodes are never unlinked: remove only clears the end-of-word flag and leaves the path in place,
+even when no word is left below it. A reader can therefore never be stranded on a detached node,
+and an add racing a remove never writes below a node that is no longer reachable, which is what
+keeps the lock-free readers and writers safe; the price is that removed words keep their nodes.
+Iteration is weakly consistent: it sees every word present for the whole iteration and may or may
+not see words added or removed meanwhile.
+ */
+public class ConcurrentPrefixTree implements SimpleCompactWordSet, Iterable<String> {
+
+  private final ConcurrentPrefixTreeNode root;
+  private final LongAdder size;
+
+  public ConcurrentPrefixTree() {
+    root = new ConcurrentPrefixTreeNode();
+    size = new LongAdder();
+  }
+
+  @Override
+  public boolean add(String word) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    ConcurrentPrefixTreeNode node = root;
+    for (int i = 0; i < word.length(); i++) {
+      node = node.getOrCreateChild(word.charAt(i) - 'a');
+    }
+    if (node.setWord()) {
+      size.increment();
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean remove(String word) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    ConcurrentPrefixTreeNode node = searchPrefix(word);
+    if (node != null && node.setNotWord()) {
+      size.decrement();
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean contains(String word) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    ConcurrentPrefixTreeNode node = searchPrefix(word);
+    return node != null && node.isWord();
+  }
+
+  @Override
+  public int size() {
+    return (int) size.sum();
+  }
+
+  @Override
+  public List<String> uniqueWordsInAlphabeticOrder() {
+    List<String> words = new ArrayList<>();
+    iterator().forEachRemaining(words::add);
+    return words;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new WordIterator();
+  }
+
+  private ConcurrentPrefixTreeNode searchPrefix(String word) {
+    ConcurrentPrefixTreeNode node = root;
+    for (int i = 0; i < word.length() && node != null; i++) {
+      node = node.getChild(word.charAt(i) - 'a');
+    }
+    return node;
+  }
+
+  //same depth-first walk as SimplePrefixTree's iterator, over the concurrent nodes
+  private class WordIterator implements Iterator<String> {
+
+    private final StringBuilder word = new StringBuilder();
+    private ConcurrentPrefixTreeNode[] nodes = new ConcurrentPrefixTreeNode[16];
+    private int[] nextChild = new int[16];
+    private int depth;
+    private String next;
+
+    WordIterator() {
+      push(root);
+      next = advance();
+    }
+
+    private void push(ConcurrentPrefixTreeNode node) {
+      if (depth == nodes.length) {
+        nodes = Arrays.copyOf(nodes, depth * 2);
+        nextChild = Arrays.copyOf(nextChild, depth * 2);
+      }
+      nodes[depth] = node;
+      nextChild[depth] = -1;
+      depth++;
+    }
+
+    private String advance() {
+      while (depth > 0) {
+        ConcurrentPrefixTreeNode node = nodes[depth - 1];
+        int i = nextChild[depth - 1];
+        if (i == -1) {
+          nextChild[depth - 1] = 0;
+          if (node.isWord()) {
+            return word.toString();
+          }
+          continue;
+        }
+        ConcurrentPrefixTreeNode child = null;
+        while (i < ConcurrentPrefixTreeNode.SIZE_OF_ALPHABET
+            && (child = node.getChild(i)) == null) {
+          i++;
+        }
+        if (child != null) {
+          nextChild[depth - 1] = i + 1;
+          word.append((char) ('a' + i));
+          push(child);
+        } else {
+          nodes[--depth] = null;
+          if (depth > 0) {
+            word.setLength(depth - 1);
+          }
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public String next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      String result = next;
+      next = advance();
+      return result;
+    }
+  }
+
+  private static class ConcurrentPrefixTreeNode {
+
+    private static final int SIZE_OF_ALPHABET = 26;
+    private static final AtomicIntegerFieldUpdater<ConcurrentPrefixTreeNode> WORD =
+        AtomicIntegerFieldUpdater.newUpdater(ConcurrentPrefixTreeNode.class, "word");
+
+    private final AtomicReferenceArray<ConcurrentPrefixTreeNode> children;
+    private volatile int word;
+
+    ConcurrentPrefixTreeNode() {
+      children = new AtomicReferenceArray<>(SIZE_OF_ALPHABET);
+    }
+
+    public boolean isWord() {
+      return word != 0;
+    }
+
+    //true if this call made the node a word
+    public boolean setWord() {
+      return word == 0 && WORD.compareAndSet(this, 0, 1);
+    }
+
+    //true if this call made the node stop being a word
+    public boolean setNotWord() {
+      return word != 0 && WORD.compareAndSet(this, 1, 0);
+    }
+
+    public ConcurrentPrefixTreeNode getChild(int index) {
+      return children.get(index);
+    }
+
+    public ConcurrentPrefixTreeNode getOrCreateChild(int index) {
+      ConcurrentPrefixTreeNode child = children.get(index);
+      if (child != null) {
+        return child;
+      }
+      ConcurrentPrefixTreeNode created = new ConcurrentPrefixTreeNode();
+      if (children.compareAndSet(index, null, created)) {
+        return created;
+      }
+      //another thread published this child first
+      return children.get(index);
+    }
+  }
+}
@@ -0,0 +1,269 @@
+package SimplePrefixTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/*
+Immutable word set stored as a minimal acyclic automaton (DAWG): a trie in which every group of
+identical subtrees - same words below them - is stored once, so common suffixes are shared as
+well as common prefixes. The whole automaton lives in four flat arrays:
+  - the edges of state s are firstEdge[s] .. firstEdge[s + 1] - 1, sorted by letter
+  - edgeLetter[e] is the letter (0-25) on edge e and edgeTarget[e] the state it leads to
+  - bit s of finalStates is set when the path to s spells a word
+Instances come from SimplePrefixTree.freeze(). add and remove are not supported.
+ */
+public class FrozenWordSet implements SimpleCompactWordSet, Iterable<String> {
+
+  private final int[] firstEdge;
+  private final byte[] edgeLetter;
+  private final int[] edgeTarget;
+  private final long[] finalStates;
+  private final int rootState;
+  private final int size;
+
+  FrozenWordSet(int[] firstEdge, byte[] edgeLetter, int[] edgeTarget, long[] finalStates,
+      int rootState, int size) {
+    this.firstEdge = firstEdge;
+    this.edgeLetter = edgeLetter;
+    this.edgeTarget = edgeTarget;
+    this.finalStates = finalStates;
+    this.rootState = rootState;
+    this.size = size;
+  }
+
+  @Override
+  public boolean add(String word) {
+    throw new UnsupportedOperationException("A frozen word set cannot be modified.");
+  }
+
+  @Override
+  public boolean remove(String word) {
+    throw new UnsupportedOperationException("A frozen word set cannot be modified.");
+  }
+
+  @Override
+  public boolean contains(String word) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    int state = rootState;
+    for (int i = 0; i < word.length(); i++) {
+      state = transition(state, word.charAt(i) - 'a');
+      if (state < 0) {
+        return false;
+      }
+    }
+    return isFinal(state);
+  }
+
+  //the state reached from state over letter, or -1
+  private int transition(int state, int letter) {
+    for (int e = firstEdge[state], end = firstEdge[state + 1]; e < end; e++) {
+      int edge = edgeLetter[e];
+      if (edge == letter) {
+        return edgeTarget[e];
+      }
+      if (edge > letter) {
+        break;
+      }
+    }
+    return -1;
+  }
+
+  private boolean isFinal(int state) {
+    return (finalStates[state >>> 6] & (1L << state)) != 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  public int stateCount() {
+    return firstEdge.length - 1;
+  }
+
+  public int edgeCount() {
+    return edgeLetter.length;
+  }
+
+  int[] getFirstEdge() {
+    return firstEdge;
+  }
+
+  byte[] getEdgeLetter() {
+    return edgeLetter;
+  }
+
+  int[] getEdgeTarget() {
+    return edgeTarget;
+  }
+
+  long[] getFinalStates() {
+    return finalStates;
+  }
+
+  int getRootState() {
+    return rootState;
+  }
+
+  @Override
+  public List<String> uniqueWordsInAlphabeticOrder() {
+    List<String> words = new ArrayList<>(size);
+    iterator().forEachRemaining(words::add);
+    return words;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new WordIterator();
+  }
+
+  //depth-first over the automaton; every path from the root spells a distinct word
+  private class WordIterator implements Iterator<String> {
+
+    private final StringBuilder word = new StringBuilder();
+    private int[] states = new int[16];
+    private int[] nextEdge = new int[16];
+    private int depth;
+    private String next;
+
+    WordIterator() {
+      push(rootState);
+      next = advance();
+    }
+
+    private void push(int state) {
+      if (depth == states.length) {
+        states = Arrays.copyOf(states, depth * 2);
+        nextEdge = Arrays.copyOf(nextEdge, depth * 2);
+      }
+      states[depth] = state;
+      nextEdge[depth] = -1;
+      depth++;
+    }
+
+    private String advance() {
+      while (depth > 0) {
+        int state = states[depth - 1];
+        int e = nextEdge[depth - 1];
+        if (e == -1) {
+          nextEdge[depth - 1] = firstEdge[state];
+          if (isFinal(state)) {
+            return word.toString();
+          }
+          continue;
+        }
+        if (e < firstEdge[state + 1]) {
+          nextEdge[depth - 1] = e + 1;
+          word.append((char) ('a' + edgeLetter[e]));
+          push(edgeTarget[e]);
+        } else {
+          depth--;
+          if (depth > 0) {
+            word.setLength(depth - 1);
+          }
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public String next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      String result = next;
+      next = advance();
+      return result;
+    }
+  }
+
+  /*
+  Builds the automaton bottom-up: a state may only be added once all of its targets have been,
+  and a state equal to one already registered (same finality, same letters to the same targets)
+  is not stored again - its existing number is returned instead. Fed with a trie in post-order,
+  this yields the minimal automaton.
+   */
+  static class Builder {
+
+    private final Map<StateKey, Integer> register = new HashMap<>();
+    private int[] firstEdge = new int[64];
+    private byte[] edgeLetter = new byte[64];
+    private int[] edgeTarget = new int[64];
+    private long[] finalStates = new long[1];
+    private int states;
+    private int edges;
+
+    //letters must be ascending; returns the number of the (possibly shared) state
+    int addState(boolean isFinal, byte[] letters, int[] targets, int count) {
+      StateKey key = new StateKey(isFinal, letters, targets, count);
+      Integer existing = register.get(key);
+      if (existing != null) {
+        return existing;
+      }
+      int state = states++;
+      if (states + 1 > firstEdge.length) {
+        firstEdge = Arrays.copyOf(firstEdge, firstEdge.length * 2);
+      }
+      if (edges + count > edgeLetter.length) {
+        int capacity = Math.max(edgeLetter.length * 2, edges + count);
+        edgeLetter = Arrays.copyOf(edgeLetter, capacity);
+        edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+      }
+      if ((state >>> 6) >= finalStates.length) {
+        finalStates = Arrays.copyOf(finalStates, finalStates.length * 2);
+      }
+      firstEdge[state] = edges;
+      System.arraycopy(letters, 0, edgeLetter, edges, count);
+      System.arraycopy(targets, 0, edgeTarget, edges, count);
+      edges += count;
+      firstEdge[state + 1] = edges;
+      if (isFinal) {
+        finalStates[state >>> 6] |= 1L << state;
+      }
+      register.put(key, state);
+      return state;
+    }
+
+    FrozenWordSet build(int rootState, int size) {
+      return new FrozenWordSet(Arrays.copyOf(firstEdge, states + 1),
+          Arrays.copyOf(edgeLetter, edges), Arrays.copyOf(edgeTarget, edges),
+          Arrays.copyOf(finalStates, (states + 63) >>> 6), rootState, size);
+    }
+  }
+
+  private static final class StateKey {
+
+    private final int[] encoded;
+    private final int hash;
+
+    StateKey(boolean isFinal, byte[] letters, int[] targets, int count) {
+      encoded = new int[2 * count + 1];
+      encoded[0] = isFinal ? 1 : 0;
+      for (int i = 0; i < count; i++) {
+        encoded[2 * i + 1] = letters[i];
+        encoded[2 * i + 2] = targets[i];
+      }
+      hash = Arrays.hashCode(encoded);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof StateKey && Arrays.equals(encoded, ((StateKey) other).encoded);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,299 @@
+package SimplePrefixTree;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+A FrozenWordSet written to disk and queried in place through a read-only memory mapping. Nothing
+is copied onto the heap: lookups read the mapped pages directly, and every JVM that maps the same
+file shares a single copy in the page cache. Opening one makes a single pass over the edges to
+check that they stay inside the file, so a corrupt file is rejected up front instead of failing
+or looping partway through a lookup.
+File layout, all little-endian:
+  - header (32 bytes): magic "DAWG", format version, state count, edge count, root state,
+    number of words, 8 reserved bytes
+  - finalStates as longs, then firstEdge and edgeTarget as ints, then edgeLetter as bytes
+The arrays mean exactly what they do in FrozenWordSet. States are numbered bottom-up, so every
+edge leads to a lower-numbered state and a well-formed file cannot contain a cycle. A file is
+limited to 2 GB by the size of a single mapping. add and remove are not supported.
+ */
+public class MappedWordSet implements SimpleCompactWordSet, Iterable<String> {
+
+  private static final int MAGIC = 'D' | 'A' << 8 | 'W' << 16 | 'G' << 24;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 32;
+
+  private final MappedByteBuffer buffer;
+  private final int rootState;
+  private final int size;
+  //byte offsets of the arrays within the file
+  private final int finalStatesAt;
+  private final int firstEdgeAt;
+  private final int edgeTargetAt;
+  private final int edgeLetterAt;
+
+  private MappedWordSet(MappedByteBuffer buffer, int stateCount, int edgeCount, int rootState,
+      int size) {
+    this.buffer = buffer;
+    this.rootState = rootState;
+    this.size = size;
+    finalStatesAt = HEADER_BYTES;
+    firstEdgeAt = finalStatesAt + Long.BYTES * ((stateCount + 63) >>> 6);
+    edgeTargetAt = firstEdgeAt + Integer.BYTES * (stateCount + 1);
+    edgeLetterAt = edgeTargetAt + Integer.BYTES * edgeCount;
+  }
+
+  private static long fileLength(int stateCount, int edgeCount) {
+    return HEADER_BYTES + Long.BYTES * (long) ((stateCount + 63) >>> 6)
+        + Integer.BYTES * (stateCount + 1L) + (long) (Integer.BYTES + 1) * edgeCount;
+  }
+
+  /*
+  Writes to a temporary file next to path and then moves it into place, so a process that has
+  the old file mapped keeps reading a complete copy instead of one being rewritten underneath it.
+   */
+  public static void write(FrozenWordSet words, Path path) throws IOException {
+    int[] firstEdge = words.getFirstEdge();
+    byte[] edgeLetter = words.getEdgeLetter();
+    int[] edgeTarget = words.getEdgeTarget();
+    long[] finalStates = words.getFinalStates();
+    int stateCount = firstEdge.length - 1;
+    long length = fileLength(stateCount, edgeLetter.length);
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Word set is too large for a single mapped file.");
+    }
+    Path parent = path.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        out.order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(stateCount).putInt(edgeLetter.length)
+            .putInt(words.getRootState()).putInt(words.size()).putLong(0);
+        out.asLongBuffer().put(finalStates);
+        out.position(out.position() + Long.BYTES * finalStates.length);
+        out.asIntBuffer().put(firstEdge).put(edgeTarget);
+        out.position(out.position() + Integer.BYTES * (firstEdge.length + edgeTarget.length));
+        out.put(edgeLetter);
+        out.force();
+      }
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  public static MappedWordSet open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+        throw new IOException(path + " is not a mapped word set.");
+      }
+      //the mapping stays valid after the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      if (buffer.getInt(0) != MAGIC) {
+        throw new IOException(path + " is not a mapped word set.");
+      }
+      int version = buffer.getInt(4);
+      if (version != VERSION) {
+        throw new IOException(path + " has format version " + version + ", expected " + VERSION
+            + ".");
+      }
+      int stateCount = buffer.getInt(8);
+      int edgeCount = buffer.getInt(12);
+      int rootState = buffer.getInt(16);
+      int size = buffer.getInt(20);
+      if (stateCount < 1 || edgeCount < 0 || size < 0 || rootState < 0
+          || rootState >= stateCount || length != fileLength(stateCount, edgeCount)) {
+        throw new IOException(path + " is truncated or corrupt.");
+      }
+      MappedWordSet words = new MappedWordSet(buffer, stateCount, edgeCount, rootState, size);
+      if (!words.isWellFormed(stateCount, edgeCount)) {
+        throw new IOException(path + " is truncated or corrupt.");
+      }
+      return words;
+    }
+  }
+
+  /*
+  Every lookup and iteration stays in bounds and terminates when: the edge ranges run in order
+  from 0 to edgeCount, each state's letters are ascending and in range, and each edge leads to a
+  lower-numbered state.
+   */
+  private boolean isWellFormed(int stateCount, int edgeCount) {
+    if (firstEdge(0) != 0 || firstEdge(stateCount) != edgeCount) {
+      return false;
+    }
+    for (int state = 0; state < stateCount; state++) {
+      int end = firstEdge(state + 1);
+      if (end < firstEdge(state) || end > edgeCount) {
+        return false;
+      }
+      int previous = -1;
+      for (int e = firstEdge(state); e < end; e++) {
+        int letter = edgeLetter(e);
+        int target = edgeTarget(e);
+        if (letter <= previous || letter >= 26 || target < 0 || target >= state) {
+          return false;
+        }
+        previous = letter;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean add(String word) {
+    throw new UnsupportedOperationException("A mapped word set cannot be modified.");
+  }
+
+  @Override
+  public boolean remove(String word) {
+    throw new UnsupportedOperationException("A mapped word set cannot be modified.");
+  }
+
+  @Override
+  public boolean contains(String word) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    int state = rootState;
+    for (int i = 0; i < word.length(); i++) {
+      state = transition(state, word.charAt(i) - 'a');
+      if (state < 0) {
+        return false;
+      }
+    }
+    return isFinal(state);
+  }
+
+  private int firstEdge(int state) {
+    return buffer.getInt(firstEdgeAt + Integer.BYTES * state);
+  }
+
+  private int edgeLetter(int edge) {
+    return buffer.get(edgeLetterAt + edge);
+  }
+
+  private int edgeTarget(int edge) {
+    return buffer.getInt(edgeTargetAt + Integer.BYTES * edge);
+  }
+
+  //the state reached from state over letter, or -1
+  private int transition(int state, int letter) {
+    for (int e = firstEdge(state), end = firstEdge(state + 1); e < end; e++) {
+      int edge = edgeLetter(e);
+      if (edge == letter) {
+        return edgeTarget(e);
+      }
+      if (edge > letter) {
+        break;
+      }
+    }
+    return -1;
+  }
+
+  private boolean isFinal(int state) {
+    return (buffer.getLong(finalStatesAt + Long.BYTES * (state >>> 6)) & (1L << state)) != 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  //asks the OS to page the whole file in now rather than on first touch
+  public MappedWordSet load() {
+    buffer.load();
+    return this;
+  }
+
+  @Override
+  public List<String> uniqueWordsInAlphabeticOrder() {
+    List<String> words = new ArrayList<>(size);
+    iterator().forEachRemaining(words::add);
+    return words;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new WordIterator();
+  }
+
+  //the same walk as FrozenWordSet's iterator, reading the arrays from the mapping
+  private class WordIterator implements Iterator<String> {
+
+    private final StringBuilder word = new StringBuilder();
+    private int[] states = new int[16];
+    private int[] nextEdge = new int[16];
+    private int depth;
+    private String next;
+
+    WordIterator() {
+      push(rootState);
+      next = advance();
+    }
+
+    private void push(int state) {
+      if (depth == states.length) {
+        states = Arrays.copyOf(states, depth * 2);
+        nextEdge = Arrays.copyOf(nextEdge, depth * 2);
+      }
+      states[depth] = state;
+      nextEdge[depth] = -1;
+      depth++;
+    }
+
+    private String advance() {
+      while (depth > 0) {
+        int state = states[depth - 1];
+        int e = nextEdge[depth - 1];
+        if (e == -1) {
+          nextEdge[depth - 1] = firstEdge(state);
+          if (isFinal(state)) {
+            return word.toString();
+          }
+          continue;
+        }
+        if (e < firstEdge(state + 1)) {
+          nextEdge[depth - 1] = e + 1;
+          word.append((char) ('a' + edgeLetter(e)));
+          push(edgeTarget(e));
+        } else {
+          depth--;
+          if (depth > 0) {
+            word.setLength(depth - 1);
+          }
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public String next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      String result = next;
+      next = advance();
+      return result;
+    }
+  }
+}
@@ -0,0 +1,403 @@
+package SimplePrefixTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+Path-compressed (radix / Patricia) trie. Chains of single-child nodes are collapsed into one
+node whose edge label holds the whole run of letters, so a word costs a node per branching point
+rather than per character. Letters are stored as bytes 0-25.
+Children use whichever representation fits their number:
+  - one child is held inline in a field, with no array at all
+  - up to SPARSE_LIMIT children are kept in small arrays sorted by first letter
+  - beyond that the node switches to a full 26-slot array indexed by letter
+remove merges a node back into its only child when it stops being a word, so the tree stays
+compressed. Not thread-safe.
+ */
+public class RadixPrefixTree implements SimpleCompactWordSet, Iterable<String> {
+
+  private static final byte[] EMPTY_LABEL = new byte[0];
+
+  private final RadixNode root;
+  private int size;
+
+  public RadixPrefixTree() {
+    root = new RadixNode(EMPTY_LABEL);
+    size = 0;
+  }
+
+  private static byte[] toLetters(String word, int from) {
+    byte[] letters = new byte[word.length() - from];
+    for (int i = from; i < word.length(); i++) {
+      letters[i - from] = (byte) (word.charAt(i) - 'a');
+    }
+    return letters;
+  }
+
+  @Override
+  public boolean add(String word) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    RadixNode node = root;
+    int i = 0;
+    int length = word.length();
+    while (i < length) {
+      int letter = word.charAt(i) - 'a';
+      RadixNode child = node.getChild(letter);
+      if (child == null) {
+        //no edge starts with this letter: the rest of the word becomes one new leaf
+        RadixNode leaf = new RadixNode(toLetters(word, i));
+        leaf.setWord(true);
+        node.addChild(leaf);
+        size++;
+        return true;
+      }
+      int matched = child.matchLabel(word, i);
+      if (matched < child.label.length) {
+        //the word leaves the edge part way along: split the edge at that point
+        RadixNode middle = new RadixNode(Arrays.copyOfRange(child.label, 0, matched));
+        child.label = Arrays.copyOfRange(child.label, matched, child.label.length);
+        node.replaceChild(letter, middle);
+        middle.addChild(child);
+        if (i + matched == length) {
+          middle.setWord(true);
+        } else {
+          RadixNode leaf = new RadixNode(toLetters(word, i + matched));
+          leaf.setWord(true);
+          middle.addChild(leaf);
+        }
+        size++;
+        return true;
+      }
+      node = child;
+      i += matched;
+    }
+    if (node.isWord()) {
+      return false;
+    }
+    node.setWord(true);
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(String word) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    RadixNode parent = null;
+    RadixNode node = root;
+    int i = 0;
+    while (i < word.length()) {
+      RadixNode child = node.getChild(word.charAt(i) - 'a');
+      if (child == null || child.matchLabel(word, i) < child.label.length) {
+        return false;
+      }
+      parent = node;
+      node = child;
+      i += child.label.length;
+    }
+    if (!node.isWord()) {
+      return false;
+    }
+    node.setWord(false);
+    size--;
+    if (node.childCount() == 0) {
+      parent.removeChild(node.label[0]);
+      //the parent may now be a non-word with a single child, which can be merged away
+      if (parent != root && !parent.isWord() && parent.childCount() == 1) {
+        parent.mergeWithOnlyChild();
+      }
+    } else if (node.childCount() == 1) {
+      node.mergeWithOnlyChild();
+    }
+    return true;
+  }
+
+  @Override
+  public boolean contains(String word) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    RadixNode node = root;
+    int i = 0;
+    while (i < word.length()) {
+      RadixNode child = node.getChild(word.charAt(i) - 'a');
+      if (child == null || child.matchLabel(word, i) < child.label.length) {
+        return false;
+      }
+      node = child;
+      i += child.label.length;
+    }
+    return node.isWord();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public List<String> uniqueWordsInAlphabeticOrder() {
+    List<String> words = new ArrayList<>(size);
+    iterator().forEachRemaining(words::add);
+    return words;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new WordIterator();
+  }
+
+  /*
+  Depth-first walk as in SimplePrefixTree, except that entering a node appends its whole edge
+  label and leaving it removes the label again.
+   */
+  private class WordIterator implements Iterator<String> {
+
+    private final StringBuilder word = new StringBuilder();
+    private RadixNode[] nodes = new RadixNode[16];
+    private int[] nextLetter = new int[16];
+    private int depth;
+    private String next;
+
+    WordIterator() {
+      push(root);
+      next = advance();
+    }
+
+    private void push(RadixNode node) {
+      if (depth == nodes.length) {
+        nodes = Arrays.copyOf(nodes, depth * 2);
+        nextLetter = Arrays.copyOf(nextLetter, depth * 2);
+      }
+      nodes[depth] = node;
+      nextLetter[depth] = -1;
+      depth++;
+      for (byte letter : node.label) {
+        word.append((char) ('a' + letter));
+      }
+    }
+
+    private String advance() {
+      while (depth > 0) {
+        RadixNode node = nodes[depth - 1];
+        int letter = nextLetter[depth - 1];
+        if (letter == -1) {
+          nextLetter[depth - 1] = 0;
+          if (node.isWord()) {
+            return word.toString();
+          }
+          continue;
+        }
+        RadixNode child = node.ceilingChild(letter);
+        if (child != null) {
+          nextLetter[depth - 1] = child.label[0] + 1;
+          push(child);
+        } else {
+          nodes[--depth] = null;
+          word.setLength(word.length() - node.label.length);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public String next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      String result = next;
+      next = advance();
+      return result;
+    }
+  }
+
+  private static class RadixNode {
+
+    private static final int SIZE_OF_ALPHABET = 26;
+    private static final int SPARSE_LIMIT = 8;
+
+    private byte[] label;
+    private boolean isWord;
+    //exactly one child
+    private RadixNode onlyChild;
+    //2 to SPARSE_LIMIT children: first letters in keys, sorted, children parallel to them;
+    //more than that: keys is null and children is indexed by letter
+    private byte[] keys;
+    private RadixNode[] children;
+    private int count;
+
+    RadixNode(byte[] label) {
+      this.label = label;
+    }
+
+    public boolean isWord() {
+      return isWord;
+    }
+
+    public void setWord(boolean isWord) {
+      this.isWord = isWord;
+    }
+
+    public int childCount() {
+      return count;
+    }
+
+    private boolean isDense() {
+      return children != null && keys == null;
+    }
+
+    //how many letters of the label match word from position from onwards
+    public int matchLabel(String word, int from) {
+      int limit = Math.min(label.length, word.length() - from);
+      int matched = 0;
+      while (matched < limit && label[matched] == word.charAt(from + matched) - 'a') {
+        matched++;
+      }
+      return matched;
+    }
+
+    public RadixNode getChild(int letter) {
+      if (onlyChild != null) {
+        return onlyChild.label[0] == letter ? onlyChild : null;
+      }
+      if (children == null) {
+        return null;
+      }
+      if (keys == null) {
+        return children[letter];
+      }
+      for (int i = 0; i < count; i++) {
+        if (keys[i] == letter) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    //the child with the smallest first letter >= letter, or null
+    public RadixNode ceilingChild(int letter) {
+      if (onlyChild != null) {
+        return onlyChild.label[0] >= letter ? onlyChild : null;
+      }
+      if (children == null) {
+        return null;
+      }
+      if (keys == null) {
+        for (int i = letter; i < SIZE_OF_ALPHABET; i++) {
+          if (children[i] != null) {
+            return children[i];
+          }
+        }
+        return null;
+      }
+      for (int i = 0; i < count; i++) {
+        if (keys[i] >= letter) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    //the child's first letter must not be taken yet
+    public void addChild(RadixNode child) {
+      byte letter = child.label[0];
+      if (count == 0) {
+        onlyChild = child;
+      } else if (count == 1) {
+        RadixNode other = onlyChild;
+        onlyChild = null;
+        keys = new byte[4];
+        children = new RadixNode[4];
+        boolean first = letter < other.label[0];
+        keys[0] = first ? letter : other.label[0];
+        children[0] = first ? child : other;
+        keys[1] = first ? other.label[0] : letter;
+        children[1] = first ? other : child;
+      } else if (isDense()) {
+        children[letter] = child;
+      } else if (count == SPARSE_LIMIT) {
+        RadixNode[] dense = new RadixNode[SIZE_OF_ALPHABET];
+        for (int i = 0; i < count; i++) {
+          dense[keys[i]] = children[i];
+        }
+        dense[letter] = child;
+        keys = null;
+        children = dense;
+      } else {
+        if (count == keys.length) {
+          keys = Arrays.copyOf(keys, SPARSE_LIMIT);
+          children = Arrays.copyOf(children, SPARSE_LIMIT);
+        }
+        int i = count;
+        while (i > 0 && keys[i - 1] > letter) {
+          keys[i] = keys[i - 1];
+          children[i] = children[i - 1];
+          i--;
+        }
+        keys[i] = letter;
+        children[i] = child;
+      }
+      count++;
+    }
+
+    //replaces the child that starts with letter by one starting with the same letter
+    public void replaceChild(int letter, RadixNode child) {
+      if (onlyChild != null) {
+        onlyChild = child;
+      } else if (keys == null) {
+        children[letter] = child;
+      } else {
+        for (int i = 0; i < count; i++) {
+          if (keys[i] == letter) {
+            children[i] = child;
+            return;
+          }
+        }
+      }
+    }
+
+    public void removeChild(int letter) {
+      if (onlyChild != null) {
+        onlyChild = null;
+        count = 0;
+        return;
+      }
+      if (keys == null) {
+        children[letter] = null;
+      } else {
+        int i = 0;
+        while (keys[i] != letter) {
+          i++;
+        }
+        System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+        System.arraycopy(children, i + 1, children, i, count - i - 1);
+        children[count - 1] = null;
+      }
+      count--;
+      if (count == 1) {
+        //back to a single inline child
+        onlyChild = ceilingChild(0);
+        keys = null;
+        children = null;
+      }
+    }
+
+    //absorbs the only child: its label is appended and its children and word flag taken over
+    public void mergeWithOnlyChild() {
+      RadixNode child = onlyChild;
+      byte[] merged = Arrays.copyOf(label, label.length + child.label.length);
+      System.arraycopy(child.label, 0, merged, label.length, child.label.length);
+      label = merged;
+      isWord = child.isWord;
+      onlyChild = child.onlyChild;
+      keys = child.keys;
+      children = child.children;
+      count = child.count;
+    }
+  }
+}
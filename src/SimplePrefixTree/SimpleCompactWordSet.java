@@ -1,5 +1,6 @@
 package SimplePrefixTree;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface SimpleCompactWordSet {
@@ -24,4 +25,33 @@ public interface SimpleCompactWordSet {
   int size();
 
   List<String> uniqueWordsInAlphabeticOrder();
+
+  /*
+  Batch operations, as on BST. containsAll sets out[i] to whether words[i] is present; addAll and
+  removeAll return true if the set changed. The defaults handle one word at a time.
+   */
+  default void containsAll(String[] words, boolean[] out) throws InvalidWordException {
+    if (out.length < words.length) {
+      throw new IllegalArgumentException("out is shorter than words.");
+    }
+    for (int i = 0; i < words.length; i++) {
+      out[i] = contains(words[i]);
+    }
+  }
+
+  default boolean addAll(Collection<String> words) throws InvalidWordException {
+    boolean changed = false;
+    for (String word : words) {
+      changed |= add(word);
+    }
+    return changed;
+  }
+
+  default boolean removeAll(Collection<String> words) throws InvalidWordException {
+    boolean changed = false;
+    for (String word : words) {
+      changed |= remove(word);
+    }
+    return changed;
+  }
 }
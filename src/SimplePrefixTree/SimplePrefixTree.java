@@ -1,12 +1,29 @@
 package SimplePrefixTree;
 
+import Heaps.MinHeap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class SimplePrefixTree implements SimpleCompactWordSet {
+public class SimplePrefixTree implements SimpleCompactWordSet, Iterable<String> {
+
+  //weight given to words added without one; weights are never negative
+  public static final long DEFAULT_WEIGHT = 0;
+  private static final long NO_WEIGHT = -1;
+  private static final int LANES = 8;
 
   private SimplePrefixTreeNode root;
   private int size;
+  //counts the words added and removed, so the iterators can tell the tree changed under them
+  private int modCount;
 
   public SimplePrefixTree() {
     root = new SimplePrefixTreeNode('"');
@@ -15,43 +32,124 @@ public class SimplePrefixTree implements SimpleCompactWordSet {
 
   private void incrementSize() {
     size++;
+    modCount++;
   }
 
   private void decrementSize() {
     size--;
+    modCount++;
   }
 
   @Override
   public synchronized boolean add(String word) throws InvalidWordException {
     SimpleCompactWordSet.checkIfWordIsValid(word);
-    if (contains(word)) {
-      return false;
-    }
     SimplePrefixTreeNode node = getRoot();
+    //weights are never negative, so the default weight cannot lower any maxWeight on the path
+    node.raiseMaxWeight(DEFAULT_WEIGHT);
     for (int i = 0; i < word.length(); i++) {
       char currentChar = word.charAt(i);
       if (!node.containsKey(currentChar)) {
         node.put(currentChar, new SimplePrefixTreeNode(currentChar));
       }
       node = node.getChild(currentChar);
+      node.raiseMaxWeight(DEFAULT_WEIGHT);
+    }
+    if (node.isWord()) {
+      return false;
     }
     node.setWord();
+    node.setWeight(DEFAULT_WEIGHT);
     incrementSize();
     return true;
   }
 
+  /*
+  Adds word with the given completion weight, or changes the weight if word is already present.
+  Returns true if word was not present before.
+   */
+  public synchronized boolean add(String word, long weight) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    if (weight < 0) {
+      throw new IllegalArgumentException("Weight cannot be negative.");
+    }
+    SimplePrefixTreeNode[] path = new SimplePrefixTreeNode[word.length() + 1];
+    SimplePrefixTreeNode node = getRoot();
+    path[0] = node;
+    for (int i = 0; i < word.length(); i++) {
+      char currentChar = word.charAt(i);
+      if (!node.containsKey(currentChar)) {
+        node.put(currentChar, new SimplePrefixTreeNode(currentChar));
+      }
+      node = node.getChild(currentChar);
+      path[i + 1] = node;
+    }
+    boolean added = !node.isWord();
+    long oldWeight = node.getWeight();
+    node.setWord();
+    node.setWeight(weight);
+    if (added) {
+      incrementSize();
+    }
+    if (added || weight >= oldWeight) {
+      for (SimplePrefixTreeNode onPath : path) {
+        onPath.raiseMaxWeight(weight);
+      }
+    } else {
+      recomputeMaxWeights(path, word.length());
+    }
+    return added;
+  }
+
+  //the weight of word, or -1 if it is not in the tree
+  public synchronized long weightOf(String word) throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    SimplePrefixTreeNode node = searchPrefix(word);
+    return node != null && node.isWord() ? node.getWeight() : NO_WEIGHT;
+  }
+
+  /*
+  Nodes left with no word below them are unlinked on the way back up, so every node other than
+  the root leads to at least one word.
+   */
   @Override
   public synchronized boolean remove(String word) throws InvalidWordException {
     SimpleCompactWordSet.checkIfWordIsValid(word);
-    if (contains(word)) {
-      SimplePrefixTreeNode node = searchPrefix(word);
-      assert node != null;
-      node.setNotWord();
-      decrementSize();
-      return true;
-    } else {
+    SimplePrefixTreeNode[] path = new SimplePrefixTreeNode[word.length() + 1];
+    SimplePrefixTreeNode node = getRoot();
+    path[0] = node;
+    for (int i = 0; i < word.length(); i++) {
+      node = node.getChild(word.charAt(i));
+      if (node == null) {
+        return false;
+      }
+      path[i + 1] = node;
+    }
+    if (!node.isWord()) {
       return false;
     }
+    node.setNotWord();
+    decrementSize();
+    int depth = word.length();
+    while (depth > 0 && !path[depth].isWord() && path[depth].childCount() == 0) {
+      path[depth - 1].removeChild(word.charAt(depth - 1));
+      depth--;
+    }
+    recomputeMaxWeights(path, depth);
+    return true;
+  }
+
+  //rebuilds maxWeight bottom-up for path[depth] .. path[0] after a weight below them went down
+  private void recomputeMaxWeights(SimplePrefixTreeNode[] path, int depth) {
+    for (int d = depth; d >= 0; d--) {
+      SimplePrefixTreeNode node = path[d];
+      long max = node.isWord() ? node.getWeight() : NO_WEIGHT;
+      for (int i = 0; i < SimplePrefixTreeNode.SIZE_OF_ALPHABET; i++) {
+        if (node.containsKey(i)) {
+          max = Math.max(max, node.getChild(i).getMaxWeight());
+        }
+      }
+      node.setMaxWeight(max);
+    }
   }
 
   @Override
@@ -61,14 +159,305 @@ public class SimplePrefixTree implements SimpleCompactWordSet {
     return node != null && node.isWord();
   }
 
+  //whether any word starts with prefix; the empty prefix matches any word
+  public synchronized boolean startsWith(String prefix) throws InvalidWordException {
+    checkIfPrefixIsValid(prefix);
+    if (prefix.isEmpty()) {
+      return size > 0;
+    }
+    return searchPrefix(prefix) != null;
+  }
+
+  private static void checkIfPrefixIsValid(String prefix) throws InvalidWordException {
+    if (prefix == null) {
+      throw new InvalidWordException("Prefix cannot be null.");
+    }
+    if (!prefix.isEmpty()) {
+      SimpleCompactWordSet.checkIfWordIsValid(prefix);
+    }
+  }
+
+  /*
+  Looks the words up LANES at a time in lockstep under a single lock, one letter per round. The
+  lookups are independent, so the processor can overlap the round's child loads instead of
+  waiting for each word's cache misses in turn.
+   */
+  @Override
+  public synchronized void containsAll(String[] words, boolean[] out)
+      throws InvalidWordException {
+    if (out.length < words.length) {
+      throw new IllegalArgumentException("out is shorter than words.");
+    }
+    for (String word : words) {
+      SimpleCompactWordSet.checkIfWordIsValid(word);
+    }
+    SimplePrefixTreeNode[] lane = new SimplePrefixTreeNode[LANES];
+    for (int start = 0; start < words.length; start += LANES) {
+      int lanes = Math.min(LANES, words.length - start);
+      for (int j = 0; j < lanes; j++) {
+        lane[j] = getRoot();
+      }
+      boolean advanced = true;
+      for (int depth = 0; advanced; depth++) {
+        advanced = false;
+        for (int j = 0; j < lanes; j++) {
+          String word = words[start + j];
+          if (lane[j] != null && depth < word.length()) {
+            lane[j] = lane[j].getChild(word.charAt(depth));
+            advanced = true;
+          }
+        }
+      }
+      for (int j = 0; j < lanes; j++) {
+        out[start + j] = lane[j] != null && lane[j].isWord();
+      }
+    }
+  }
+
+  //validates the whole batch first, then adds it in sorted order under a single lock
+  @Override
+  public synchronized boolean addAll(Collection<String> words) throws InvalidWordException {
+    for (String word : words) {
+      SimpleCompactWordSet.checkIfWordIsValid(word);
+    }
+    List<String> sorted = new ArrayList<>(words);
+    sorted.sort(null);
+    boolean changed = false;
+    for (String word : sorted) {
+      changed |= add(word);
+    }
+    return changed;
+  }
+
+  //as addAll: validated first, then removed in sorted order under a single lock
+  @Override
+  public synchronized boolean removeAll(Collection<String> words) throws InvalidWordException {
+    for (String word : words) {
+      SimpleCompactWordSet.checkIfWordIsValid(word);
+    }
+    List<String> sorted = new ArrayList<>(words);
+    sorted.sort(null);
+    boolean changed = false;
+    for (String word : sorted) {
+      changed |= remove(word);
+    }
+    return changed;
+  }
+
   @Override
   public synchronized int size() {
     return size;
   }
 
   @Override
-  public List<String> uniqueWordsInAlphabeticOrder() {
-    return new ArrayList<>(getRoot().findWords());
+  public synchronized List<String> uniqueWordsInAlphabeticOrder() {
+    List<String> words = new ArrayList<>(size);
+    new WordIterator(getRoot(), "", size).forEachRemaining(words::add);
+    return words;
+  }
+
+  /*
+  Compiles the current words into an immutable, minimised FrozenWordSet. Nodes left behind by
+  removed words are dropped, and identical subtrees are shared.
+   */
+  public synchronized FrozenWordSet freeze() {
+    FrozenWordSet.Builder builder = new FrozenWordSet.Builder();
+    int rootState = freeze(getRoot(), builder);
+    if (rootState < 0) {
+      rootState = builder.addState(false, new byte[0], new int[0], 0);
+    }
+    return builder.build(rootState, size);
+  }
+
+  //post-order, so every child's state exists before its parent's; -1 if no word lies below node
+  private int freeze(SimplePrefixTreeNode node, FrozenWordSet.Builder builder) {
+    byte[] letters = new byte[SimplePrefixTreeNode.SIZE_OF_ALPHABET];
+    int[] targets = new int[SimplePrefixTreeNode.SIZE_OF_ALPHABET];
+    int count = 0;
+    for (int i = 0; i < SimplePrefixTreeNode.SIZE_OF_ALPHABET; i++) {
+      if (node.containsKey(i)) {
+        int target = freeze(node.getChild(i), builder);
+        if (target >= 0) {
+          letters[count] = (byte) i;
+          targets[count] = target;
+          count++;
+        }
+      }
+    }
+    if (count == 0 && !node.isWord()) {
+      return -1;
+    }
+    return builder.addState(node.isWord(), letters, targets, count);
+  }
+
+  /*
+  The iterators below walk the trie lazily and take the lock for one step at a time, so reading
+  the first k words costs k steps and O(height) memory however large the tree is. They are
+  fail-fast: once a word has been added or removed since the iterator was created, its next call
+  throws ConcurrentModificationException instead of reading nodes that may have been relinked.
+  Changing a weight leaves the words in place and does not count. remove is unsupported.
+   */
+  @Override
+  public synchronized Iterator<String> iterator() {
+    return new WordIterator(getRoot(), "", Integer.MAX_VALUE);
+  }
+
+  //the words starting with prefix in alphabetical order, stopping after the first limit
+  public synchronized Iterator<String> wordsWithPrefix(String prefix, int limit)
+      throws InvalidWordException {
+    checkIfPrefixIsValid(prefix);
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative.");
+    }
+    return new WordIterator(searchPrefix(prefix), prefix, limit);
+  }
+
+  public Iterator<String> wordsWithPrefix(String prefix) throws InvalidWordException {
+    return wordsWithPrefix(prefix, Integer.MAX_VALUE);
+  }
+
+  /*
+  The k heaviest words starting with prefix, heaviest first and alphabetically among equal
+  weights. Every node knows the largest weight below it, so this is a best-first search: a heap
+  holds subtrees ranked by that bound and words ranked by their own weight, and a word is only
+  reported once nothing left in the heap can beat it. Only subtrees that can still reach the top
+  k are opened, rather than the whole subtree under the prefix.
+   */
+  public synchronized List<String> topCompletions(String prefix, int k)
+      throws InvalidWordException {
+    checkIfPrefixIsValid(prefix);
+    if (k < 0) {
+      throw new IllegalArgumentException("k cannot be negative.");
+    }
+    List<String> completions = new ArrayList<>(Math.min(k, size));
+    SimplePrefixTreeNode start = searchPrefix(prefix);
+    if (k == 0 || start == null || start.getMaxWeight() == NO_WEIGHT) {
+      return completions;
+    }
+    MinHeap<Completion> heap = new MinHeap<>();
+    heap.add(new Completion(start, prefix, start.getMaxWeight(), false));
+    while (!heap.isEmpty() && completions.size() < k) {
+      Completion best = heap.removeMin();
+      if (best.isWord) {
+        completions.add(best.text);
+        continue;
+      }
+      SimplePrefixTreeNode node = best.node;
+      if (node.isWord()) {
+        heap.add(new Completion(node, best.text, node.getWeight(), true));
+      }
+      for (int i = 0; i < SimplePrefixTreeNode.SIZE_OF_ALPHABET; i++) {
+        if (node.containsKey(i)) {
+          SimplePrefixTreeNode child = node.getChild(i);
+          heap.add(new Completion(child, best.text + (char) ('a' + i), child.getMaxWeight(),
+              false));
+        }
+      }
+    }
+    return completions;
+  }
+
+  /*
+  Every word within maxEdits insertions, deletions or substitutions of word, closest first and
+  alphabetically within each distance. The trie is walked once, carrying one row of the
+  Levenshtein table per depth: the row for a node is computed from its parent's row and the
+  node's letter, and a subtree is skipped as soon as every entry in its row exceeds maxEdits,
+  since no extension of that path can come back within range.
+   */
+  public synchronized List<String> fuzzyMatches(String word, int maxEdits)
+      throws InvalidWordException {
+    SimpleCompactWordSet.checkIfWordIsValid(word);
+    if (maxEdits < 0) {
+      throw new IllegalArgumentException("maxEdits cannot be negative.");
+    }
+    //paths longer than this are more than maxEdits insertions away from word
+    int maxDepth = word.length() + maxEdits;
+    int[][] rows = new int[maxDepth + 1][word.length() + 1];
+    for (int i = 0; i <= word.length(); i++) {
+      rows[0][i] = i;
+    }
+    List<List<String>> byDistance = new ArrayList<>(maxEdits + 1);
+    for (int d = 0; d <= maxEdits; d++) {
+      byDistance.add(new ArrayList<>());
+    }
+    fuzzyMatches(getRoot(), word, maxEdits, rows, 0, new StringBuilder(), byDistance);
+    List<String> matches = new ArrayList<>();
+    for (List<String> atDistance : byDistance) {
+      matches.addAll(atDistance);
+    }
+    return matches;
+  }
+
+  //rows[depth] is node's row; children go in letter order, which keeps each list sorted
+  private void fuzzyMatches(SimplePrefixTreeNode node, String word, int maxEdits, int[][] rows,
+      int depth, StringBuilder path, List<List<String>> byDistance) {
+    int[] row = rows[depth];
+    int distance = row[word.length()];
+    if (node.isWord() && distance <= maxEdits) {
+      byDistance.get(distance).add(path.toString());
+    }
+    if (depth + 1 == rows.length) {
+      return;
+    }
+    int[] next = rows[depth + 1];
+    for (int c = 0; c < SimplePrefixTreeNode.SIZE_OF_ALPHABET; c++) {
+      if (!node.containsKey(c)) {
+        continue;
+      }
+      char letter = (char) ('a' + c);
+      next[0] = row[0] + 1;
+      int rowMin = next[0];
+      for (int i = 1; i <= word.length(); i++) {
+        int substitute = row[i - 1] + (word.charAt(i - 1) == letter ? 0 : 1);
+        next[i] = Math.min(substitute, Math.min(row[i] + 1, next[i - 1] + 1));
+        rowMin = Math.min(rowMin, next[i]);
+      }
+      if (rowMin <= maxEdits) {
+        path.append(letter);
+        fuzzyMatches(node.getChild(c), word, maxEdits, rows, depth + 1, path, byDistance);
+        path.setLength(depth);
+      }
+    }
+  }
+
+  /*
+  A heap entry for topCompletions: either a finished word or a subtree still to be opened, whose
+  weight is then the best any word inside it can have. The heap is a min-heap, so heavier
+  entries compare as smaller. At equal weight a word comes before the subtree it heads, and
+  otherwise text order decides, which gives alphabetical order among ties.
+   */
+  private static final class Completion implements Comparable<Completion> {
+
+    private final SimplePrefixTreeNode node;
+    private final String text;
+    private final long weight;
+    private final boolean isWord;
+
+    Completion(SimplePrefixTreeNode node, String text, long weight, boolean isWord) {
+      this.node = node;
+      this.text = text;
+      this.weight = weight;
+      this.isWord = isWord;
+    }
+
+    @Override
+    public int compareTo(Completion other) {
+      if (weight != other.weight) {
+        return Long.compare(other.weight, weight);
+      }
+      int byText = text.compareTo(other.text);
+      if (byText != 0) {
+        return byText;
+      }
+      return Boolean.compare(other.isWord, isWord);
+    }
+  }
+
+  //lazy and fail-fast, like iterator()
+  public Stream<String> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+        Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL),
+        false);
   }
 
   private SimplePrefixTreeNode searchPrefix(String word) {
@@ -88,18 +477,143 @@ public class SimplePrefixTree implements SimpleCompactWordSet {
     return root;
   }
 
+  /*
+  Depth-first walk with an explicit stack: nodes[d] is the node at depth d and nextChild[d] the
+  next child index still to visit there (-1 until the node itself has been reported). The current
+  word is kept in a single StringBuilder, so each word costs one toString.
+   */
+  private class WordIterator implements Iterator<String> {
+
+    private final int prefixLength;
+    private final StringBuilder word;
+    private final int expectedModCount;
+    //how many more words may be returned after next
+    private int remaining;
+    private SimplePrefixTreeNode[] nodes = new SimplePrefixTreeNode[16];
+    private int[] nextChild = new int[16];
+    private int depth;
+    private String next;
+
+    //the caller holds the lock
+    WordIterator(SimplePrefixTreeNode start, String prefix, int limit) {
+      prefixLength = prefix.length();
+      word = new StringBuilder(prefix);
+      expectedModCount = modCount;
+      if (start != null && limit > 0) {
+        push(start);
+        remaining = limit - 1;
+      }
+      next = advance();
+    }
+
+    private void push(SimplePrefixTreeNode node) {
+      if (depth == nodes.length) {
+        nodes = Arrays.copyOf(nodes, depth * 2);
+        nextChild = Arrays.copyOf(nextChild, depth * 2);
+      }
+      nodes[depth] = node;
+      nextChild[depth] = -1;
+      depth++;
+    }
+
+    private String advance() {
+      while (depth > 0) {
+        SimplePrefixTreeNode node = nodes[depth - 1];
+        int i = nextChild[depth - 1];
+        if (i == -1) {
+          //a node is reported before its children, which gives alphabetical order
+          nextChild[depth - 1] = 0;
+          if (node.isWord()) {
+            return word.toString();
+          }
+          continue;
+        }
+        while (i < SimplePrefixTreeNode.SIZE_OF_ALPHABET && !node.containsKey(i)) {
+          i++;
+        }
+        if (i < SimplePrefixTreeNode.SIZE_OF_ALPHABET) {
+          nextChild[depth - 1] = i + 1;
+          word.append((char) ('a' + i));
+          push(node.getChild(i));
+        } else {
+          //all children visited, drop this node and its letter
+          nodes[--depth] = null;
+          if (depth > 0) {
+            word.setLength(prefixLength + depth - 1);
+          }
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public String next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      synchronized (SimplePrefixTree.this) {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        String result = next;
+        if (remaining == 0) {
+          next = null;
+          depth = 0;
+        } else {
+          remaining--;
+          next = advance();
+        }
+        return result;
+      }
+    }
+  }
+
   private class SimplePrefixTreeNode {
 
     private static final int SIZE_OF_ALPHABET = 26;
 
     private char label;
     private SimplePrefixTreeNode[] children;
+    private int childCount;
     private boolean isWord;
+    private long weight;
+    //the largest weight of any word in this subtree, NO_WEIGHT if there is none
+    private long maxWeight;
 
     SimplePrefixTreeNode(char label) {
       this.label = label;
       children = new SimplePrefixTreeNode[SIZE_OF_ALPHABET];
       isWord = false;
+      maxWeight = NO_WEIGHT;
+    }
+
+    public long getWeight() {
+      return weight;
+    }
+
+    public void setWeight(long weight) {
+      this.weight = weight;
+    }
+
+    public long getMaxWeight() {
+      return maxWeight;
+    }
+
+    public void setMaxWeight(long maxWeight) {
+      this.maxWeight = maxWeight;
+    }
+
+    public void raiseMaxWeight(long weight) {
+      maxWeight = Math.max(maxWeight, weight);
+    }
+
+    public int childCount() {
+      return childCount;
     }
 
     public boolean isWord() {
@@ -123,9 +637,19 @@ public class SimplePrefixTree implements SimpleCompactWordSet {
     }
 
     public void put(char c, SimplePrefixTreeNode node) {
+      if (children[c - 'a'] == null) {
+        childCount++;
+      }
       children[c - 'a'] = node;
     }
 
+    public void removeChild(char c) {
+      if (children[c - 'a'] != null) {
+        childCount--;
+      }
+      children[c - 'a'] = null;
+    }
+
     public boolean containsKey(char c) {
       return children[c - 'a'] != null;
     }
@@ -134,23 +658,6 @@ public class SimplePrefixTree implements SimpleCompactWordSet {
       return children[index] != null;
     }
 
-    public List<String> findWords() {
-      List<String> result = new ArrayList<>();
-      if (isWord()) {
-        result.add("");
-      }
-      for (int i = 0; i < children.length; i++) {
-        if (containsKey(i)) {
-          List<String> childResult = getChild(i).findWords();
-          char letter = (char) ('a' + i);
-          for (String suffix : childResult) {
-            result.add("" + letter + suffix);
-          }
-        }
-      }
-      return result;
-    }
-
     public char getLabel() {
       return label;
     }
@@ -0,0 +1,92 @@
+package SimplePrefixTree;
+
+import AdaptiveRadixTree.AdaptiveRadixTree;
+import BST.KeyEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/*
+Word set for arbitrary Unicode text. Words are stored as their UTF-8 bytes in an
+AdaptiveRadixTree, so any string without unpaired surrogates is accepted, and words come back in
+code point order (which is alphabetical order for plain 'a'-'z' words).
+With 256 possible bytes a fixed child array per node would be far too large; the tree's nodes
+instead adapt their child map to the number of children (Node4/16/48/256) and path-compress
+single-child chains. Not thread-safe.
+ */
+public class UnicodePrefixTree implements SimpleCompactWordSet, Iterable<String> {
+
+  /*
+  Plain UTF-8. Its byte order is code point order, which differs from String.compareTo only
+  between characters above U+FFFF and those from U+E000 to U+FFFF; words are validated before
+  they are encoded, so the round trip is exact.
+   */
+  private static final KeyEncoder<String> UTF_8 = new KeyEncoder<String>() {
+    @Override
+    public byte[] encode(String word) {
+      return word.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decode(byte[] bytes, int offset, int length) {
+      return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+  };
+
+  private final AdaptiveRadixTree<String> words;
+
+  public UnicodePrefixTree() {
+    words = new AdaptiveRadixTree<>(UTF_8);
+  }
+
+  private static void checkIfWordIsValid(String word) throws InvalidWordException {
+    if (word == null || word.length() == 0) {
+      throw new InvalidWordException("Word cannot be null or empty.");
+    }
+    for (int i = 0; i < word.length(); i++) {
+      char c = word.charAt(i);
+      if (Character.isHighSurrogate(c) && i + 1 < word.length()
+          && Character.isLowSurrogate(word.charAt(i + 1))) {
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        throw new InvalidWordException("Word cannot contain unpaired surrogates.");
+      }
+    }
+  }
+
+  @Override
+  public boolean add(String word) throws InvalidWordException {
+    checkIfWordIsValid(word);
+    return words.add(word);
+  }
+
+  @Override
+  public boolean remove(String word) throws InvalidWordException {
+    checkIfWordIsValid(word);
+    return words.remove(word);
+  }
+
+  @Override
+  public boolean contains(String word) throws InvalidWordException {
+    checkIfWordIsValid(word);
+    return words.contains(word);
+  }
+
+  @Override
+  public int size() {
+    return words.size();
+  }
+
+  @Override
+  public List<String> uniqueWordsInAlphabeticOrder() {
+    List<String> list = new ArrayList<>(words.size());
+    iterator().forEachRemaining(list::add);
+    return list;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return words.iterator();
+  }
+}
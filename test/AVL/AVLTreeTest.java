@@ -0,0 +1,137 @@
+package AVL;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import BST.BalancedTreeTest;
+import BST.LinkedNodesBST;
+import BST.TestKeys;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+//the shared model checks, with checkInvariants covering order, parent pointers, heights, sizes
+//and balance, plus join and split, which only AVLTree has
+class AVLTreeTest extends BalancedTreeTest<AVLTree<Integer>> {
+
+  /*
+  Splits the tree at a random key and checks both halves, then joins them back, over and over;
+  now and then the halves are swapped for independently built trees of very different sizes, so
+  join grafts at every height difference.
+   */
+  @Test
+  void splitAndJoinMatchTreeSet() {
+    Random random = new Random(11L);
+    AVLTree<Integer> tree = new AVLTree<>();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int i = 0; i < 20_000; i++) {
+      int key = random.nextInt(100_000);
+      tree.add(key);
+      model.add(key);
+    }
+    for (int round = 0; round < 500; round++) {
+      int key = random.nextInt(110_000) - 5000;
+      AVLTree<Integer> greater = tree.split(key);
+      tree.checkInvariants();
+      greater.checkInvariants();
+      assertEquals(new ArrayList<>(model.headSet(key)), tree.inOrderTraversal());
+      assertEquals(new ArrayList<>(model.tailSet(key)), greater.inOrderTraversal());
+      if (round % 10 == 0) {
+        //rebuild the lower part as a tiny or a huge tree around the same split point
+        int lowSize = random.nextBoolean() ? random.nextInt(3) : 50_000;
+        tree = new AVLTree<>();
+        model.tailSet(key).clear();
+        List<Integer> lows = new ArrayList<>(model.descendingSet()).subList(0,
+            Math.min(lowSize, model.size()));
+        model.clear();
+        for (Integer low : lows) {
+          tree.add(low);
+          model.add(low);
+        }
+        for (Integer high : greater.inOrderTraversal()) {
+          model.add(high);
+        }
+      }
+      int lowHeight = height(tree);
+      int highHeight = height(greater);
+      tree.join(greater);
+      tree.checkInvariants();
+      greater.checkInvariants();
+      assertEquals(0, greater.size());
+      assertEquals(model.size(), tree.size());
+      assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+      //join only ever adds one level on top of the taller tree
+      assertTrue(height(tree) <= Math.max(lowHeight, highHeight) + 1);
+    }
+  }
+
+  @Test
+  void joinRejectsOverlapsAndItself() {
+    AVLTree<Integer> tree = AVLTree.fromSorted(Arrays.asList(1, 2, 3));
+    AVLTree<Integer> overlapping = AVLTree.fromSorted(Arrays.asList(3, 4));
+    assertThrows(IllegalArgumentException.class, () -> tree.join(overlapping));
+    assertThrows(IllegalArgumentException.class, () -> tree.join(tree));
+    assertEquals(Arrays.asList(1, 2, 3), tree.inOrderTraversal());
+    assertEquals(Arrays.asList(3, 4), overlapping.inOrderTraversal());
+    //joining onto or with an empty tree
+    AVLTree<Integer> empty = new AVLTree<>();
+    tree.join(empty);
+    empty.join(tree);
+    empty.checkInvariants();
+    assertEquals(Arrays.asList(1, 2, 3), empty.inOrderTraversal());
+    assertEquals(0, tree.size());
+  }
+
+  /*
+  join and split only walk one root-to-leaf path, so thousands of them on a 10^6-key tree take
+  moments; a linear implementation would need on the order of 10^10 steps here.
+   */
+  @Test
+  void splitAndJoinAreLogarithmic() {
+    AVLTree<Integer> tree = AVLTree.fromSorted(Arrays.asList(TestKeys.sorted(KEYS)));
+    Random random = new Random(12L);
+    assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+      for (int i = 0; i < 20_000; i++) {
+        tree.join(tree.split(random.nextInt(KEYS)));
+      }
+    });
+    tree.checkInvariants();
+    assertEquals(KEYS, tree.size());
+  }
+
+  @Override
+  protected AVLTree<Integer> newTree() {
+    return new AVLTree<>();
+  }
+
+  @Override
+  protected void checkInvariants(AVLTree<Integer> tree) {
+    tree.checkInvariants();
+  }
+
+  @Override
+  protected AVLTree<Integer> fromSorted(List<Integer> sorted) {
+    return AVLTree.fromSorted(sorted);
+  }
+
+  @Override
+  protected AVLTree<Integer> union(AVLTree<Integer> tree, LinkedNodesBST<Integer> other) {
+    return tree.union(other);
+  }
+
+  @Override
+  protected AVLTree<Integer> intersection(AVLTree<Integer> tree, LinkedNodesBST<Integer> other) {
+    return tree.intersection(other);
+  }
+
+  @Override
+  protected AVLTree<Integer> difference(AVLTree<Integer> tree, LinkedNodesBST<Integer> other) {
+    return tree.difference(other);
+  }
+}
@@ -0,0 +1,155 @@
+package AVL;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentAVLTreeTest {
+
+  @Test
+  void matchesTreeSetAcrossSplits() {
+    Random random = new Random(12L);
+    //a tiny split size, so the partitions split hundreds of times
+    ConcurrentAVLTree<Integer> tree = new ConcurrentAVLTree<>(8);
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int i = 0; i < 200_000; i++) {
+      int key = random.nextInt(5000);
+      int choice = random.nextInt(10);
+      if (choice < 5) {
+        assertEquals(model.add(key), tree.add(key));
+      } else if (choice < 8) {
+        assertEquals(model.remove(key), tree.remove(key));
+      } else {
+        assertEquals(model.contains(key), tree.contains(key));
+      }
+      if (i % 10_000 == 0) {
+        tree.checkInvariants();
+        assertEquals(model.size(), tree.size());
+        assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+      }
+    }
+    assertTrue(tree.getPartitionCount() > 100);
+  }
+
+  @Test
+  void sortedKeysSplitTheLastPartition() {
+    ConcurrentAVLTree<Integer> tree = new ConcurrentAVLTree<>(64);
+    for (int i = 0; i < 100_000; i++) {
+      tree.add(i);
+    }
+    tree.checkInvariants();
+    assertEquals(100_000, tree.size());
+    for (int i = 99_999; i >= 0; i--) {
+      assertTrue(tree.remove(i));
+    }
+    tree.checkInvariants();
+    assertEquals(0, tree.size());
+  }
+
+  //compareTo decides equality: two equal keys with different hash codes are the same element
+  @Test
+  void onlyCompareToIsUsed() {
+    ConcurrentAVLTree<Key> tree = new ConcurrentAVLTree<>(4);
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(tree.add(new Key(i)));
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(tree.contains(new Key(i)));
+      assertEquals(false, tree.add(new Key(i)));
+    }
+    List<Key> keys = tree.inOrderTraversal();
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(i, keys.get(i).value);
+    }
+  }
+
+  /*
+  Each writer owns the keys congruent to its index mod WRITERS and toggles them, recording which
+  are left in; readers meanwhile check that every traversal is strictly ascending. Afterwards the
+  tree must hold exactly the recorded keys.
+   */
+  @Test
+  void concurrentWritersAndReaders() throws InterruptedException {
+    final int writers = 4;
+    final int keys = 40_000;
+    ConcurrentAVLTree<Integer> tree = new ConcurrentAVLTree<>(32);
+    List<TreeSet<Integer>> expected = new ArrayList<>();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int w = 0; w < writers; w++) {
+      TreeSet<Integer> mine = new TreeSet<>();
+      expected.add(mine);
+      int owner = w;
+      threads.add(new Thread(() -> {
+        Random random = new Random(owner);
+        try {
+          for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(keys / writers) * writers + owner;
+            boolean inTree = tree.contains(key);
+            if (inTree != mine.contains(key)) {
+              throw new AssertionError("contains(" + key + ") was " + inTree);
+            }
+            if (inTree) {
+              mine.remove(key);
+              assertTrue(tree.remove(key));
+            } else {
+              mine.add(key);
+              assertTrue(tree.add(key));
+            }
+          }
+        } catch (Throwable t) {
+          failure.compareAndSet(null, t);
+        }
+      }));
+    }
+    for (int r = 0; r < 2; r++) {
+      threads.add(new Thread(() -> {
+        try {
+          for (int i = 0; i < 50; i++) {
+            List<Integer> snapshot = tree.inOrderTraversal();
+            for (int j = 1; j < snapshot.size(); j++) {
+              if (snapshot.get(j - 1) >= snapshot.get(j)) {
+                throw new AssertionError("Traversal out of order at " + j);
+              }
+            }
+          }
+        } catch (Throwable t) {
+          failure.compareAndSet(null, t);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    TreeSet<Integer> all = new TreeSet<>();
+    expected.forEach(all::addAll);
+    tree.checkInvariants();
+    assertEquals(new ArrayList<>(all), tree.inOrderTraversal());
+  }
+
+  private static final class Key implements Comparable<Key> {
+
+    private final int value;
+
+    private Key(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public int compareTo(Key other) {
+      return Integer.compare(value, other.value);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package AVL;
+
+import BST.PersistentSortedSet;
+import BST.PersistentSortedSetTest;
+
+//the shared version-history checks, with checkInvariants covering order, sizes, stored heights
+//and balance
+class PersistentAVLTreeTest extends PersistentSortedSetTest {
+
+  @Override
+  protected PersistentSortedSet<Integer> empty() {
+    return PersistentAVLTree.empty();
+  }
+
+  @Override
+  protected void checkInvariants(PersistentSortedSet<Integer> tree) {
+    ((PersistentAVLTree<Integer>) tree).checkInvariants();
+  }
+
+  @Override
+  protected Integer select(PersistentSortedSet<Integer> tree, int k) {
+    return ((PersistentAVLTree<Integer>) tree).select(k);
+  }
+}
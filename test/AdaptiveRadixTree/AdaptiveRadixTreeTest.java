@@ -0,0 +1,73 @@
+package AdaptiveRadixTree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import BST.KeyEncoder;
+import BST.KeyEncoders;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveRadixTreeTest {
+
+  //dense keys fill nodes up to Node256, and removing them shrinks every node back down
+  @Test
+  void denseIntegers() {
+    Random random = new Random(20L);
+    runAgainstModel(KeyEncoders.INTEGER, () -> random.nextInt(70_000) - 35_000, 300_000);
+  }
+
+  @Test
+  void sparseLongs() {
+    Random random = new Random(21L);
+    runAgainstModel(KeyEncoders.LONG, () -> random.nextLong() >> random.nextInt(64), 300_000);
+  }
+
+  //short strings are prefixes of longer ones, so keys end on inner nodes too
+  @Test
+  void stringsWithSharedPrefixes() {
+    Random random = new Random(22L);
+    runAgainstModel(KeyEncoders.STRING, () -> {
+      char[] chars = new char[random.nextInt(6)];
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = (char) (i == 0 ? random.nextInt(300) : 'a' + random.nextInt(3));
+      }
+      return new String(chars);
+    }, 200_000);
+  }
+
+  private static <E extends Comparable<E>> void runAgainstModel(KeyEncoder<E> encoder,
+      Supplier<E> keys, int operations) {
+    AdaptiveRadixTree<E> tree = new AdaptiveRadixTree<>(encoder);
+    TreeSet<E> model = new TreeSet<>();
+    Random random = new Random(operations);
+    for (int i = 0; i < operations; i++) {
+      E key = keys.get();
+      //grow for the first half, then shrink
+      int choice = random.nextInt(10);
+      if (choice < (i < operations / 2 ? 7 : 2)) {
+        assertEquals(model.add(key), tree.add(key));
+      } else if (choice < 9) {
+        assertEquals(model.remove(key), tree.remove(key));
+      } else {
+        assertEquals(model.contains(key), tree.contains(key));
+      }
+      assertEquals(model.size(), tree.size());
+      if (i % 20_000 == 0) {
+        List<E> inOrder = new ArrayList<>();
+        tree.iterator().forEachRemaining(inOrder::add);
+        assertEquals(new ArrayList<>(model), inOrder);
+        assertEquals(inOrder, tree.stream().collect(Collectors.toList()));
+      }
+    }
+    for (E key : new ArrayList<>(model)) {
+      assertEquals(true, tree.remove(key));
+    }
+    assertEquals(0, tree.size());
+    assertEquals(false, tree.iterator().hasNext());
+  }
+}
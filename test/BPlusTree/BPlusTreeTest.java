@@ -0,0 +1,112 @@
+package BPlusTree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import BST.TestKeys;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/*
+Inserts and deletes 10^6 keys, checking the tree against a TreeSet and checkInvariants (order,
+occupancy, leaf depth, the leaf chain and the size) after each phase. The smallest fanout makes
+the tree deep, so splits, borrows and merges reach every level.
+ */
+class BPlusTreeTest {
+
+  private static final int KEYS = 1_000_000;
+
+  @Test
+  void randomKeys() {
+    insertThenDelete(new BPlusTree<>(), TestKeys.random(KEYS, 1L));
+    insertThenDelete(new BPlusTree<>(4), TestKeys.random(KEYS, 2L));
+  }
+
+  @Test
+  void sortedKeys() {
+    insertThenDelete(new BPlusTree<>(), TestKeys.sorted(KEYS));
+    insertThenDelete(new BPlusTree<>(5), TestKeys.sorted(KEYS));
+  }
+
+  @Test
+  void reverseSortedKeys() {
+    insertThenDelete(new BPlusTree<>(), TestKeys.reverseSorted(KEYS));
+    insertThenDelete(new BPlusTree<>(4), TestKeys.reverseSorted(KEYS));
+  }
+
+  private void insertThenDelete(BPlusTree<Integer> tree, Integer[] keys) {
+    TreeSet<Integer> model = new TreeSet<>();
+    for (Integer key : keys) {
+      assertEquals(model.add(key), tree.add(key));
+    }
+    check(tree, model);
+    //remove every other distinct key, then the rest
+    List<Integer> present = new ArrayList<>(model);
+    for (int i = 0; i < present.size(); i += 2) {
+      assertEquals(true, tree.remove(present.get(i)));
+      model.remove(present.get(i));
+    }
+    check(tree, model);
+    for (Integer key : keys) {
+      assertEquals(model.remove(key), tree.remove(key));
+    }
+    check(tree, model);
+    assertFalse(tree.iterator().hasNext());
+  }
+
+  private void check(BPlusTree<Integer> tree, TreeSet<Integer> model) {
+    tree.checkInvariants();
+    assertEquals(model.size(), tree.size());
+    List<Integer> inOrder = new ArrayList<>(model.size());
+    tree.iterator().forEachRemaining(inOrder::add);
+    assertEquals(new ArrayList<>(model), inOrder);
+  }
+
+  //mixes adds, removes and lookups over a small key range at a small fanout
+  @Test
+  void interleavedUpdatesAndRanges() {
+    Random random = new Random(21L);
+    BPlusTree<Integer> tree = new BPlusTree<>(4);
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int i = 0; i < 300_000; i++) {
+      int key = random.nextInt(3000);
+      int choice = random.nextInt(10);
+      if (choice < 5) {
+        assertEquals(model.add(key), tree.add(key));
+      } else if (choice < 9) {
+        assertEquals(model.remove(key), tree.remove(key));
+      } else {
+        assertEquals(model.contains(key), tree.contains(key));
+      }
+      if (i % 5000 == 0) {
+        check(tree, model);
+        int lo = random.nextInt(3000);
+        int hi = lo + random.nextInt(500);
+        boolean loInclusive = random.nextBoolean();
+        boolean hiInclusive = random.nextBoolean();
+        assertEquals(new ArrayList<>(model.subSet(lo, loInclusive, hi, hiInclusive)),
+            toList(tree.subSet(lo, loInclusive, hi, hiInclusive)));
+        assertEquals(new ArrayList<>(model.headSet(hi)), toList(tree.headSet(hi)));
+        assertEquals(new ArrayList<>(model.tailSet(lo)), toList(tree.tailSet(lo)));
+        Integer[] batch = new Integer[random.nextInt(40)];
+        boolean[] found = new boolean[batch.length];
+        for (int j = 0; j < batch.length; j++) {
+          batch[j] = random.nextInt(3000);
+        }
+        tree.containsAll(batch, found);
+        for (int j = 0; j < batch.length; j++) {
+          assertEquals(model.contains(batch[j]), found[j]);
+        }
+      }
+    }
+  }
+
+  private static List<Integer> toList(Iterable<Integer> elements) {
+    List<Integer> list = new ArrayList<>();
+    elements.forEach(list::add);
+    return list;
+  }
+}
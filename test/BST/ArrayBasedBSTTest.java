@@ -0,0 +1,138 @@
+package BST;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class ArrayBasedBSTTest {
+
+  @Test
+  void randomKeys() {
+    insertThenDelete(TestKeys.random(200_000, 1L));
+  }
+
+  @Test
+  void sortedKeys() {
+    insertThenDelete(TestKeys.sorted(200_000));
+  }
+
+  @Test
+  void reverseSortedKeys() {
+    insertThenDelete(TestKeys.reverseSorted(200_000));
+  }
+
+  //one at a time, so the pending set and the removed bitset each trigger rebuilds
+  private void insertThenDelete(Integer[] keys) {
+    ArrayBasedBST<Integer> set = new ArrayBasedBST<>();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (Integer key : keys) {
+      assertEquals(model.add(key), set.add(key));
+    }
+    check(set, model);
+    for (int i = 0; i < keys.length; i += 2) {
+      assertEquals(model.remove(keys[i]), set.remove(keys[i]));
+    }
+    check(set, model);
+    set.rebuild();
+    check(set, model);
+    for (Integer key : keys) {
+      assertEquals(model.remove(key), set.remove(key));
+    }
+    check(set, model);
+  }
+
+  private void check(ArrayBasedBST<Integer> set, TreeSet<Integer> model) {
+    assertEquals(model.size(), set.size());
+    assertEquals(new ArrayList<>(model), set.inOrderTraversal());
+  }
+
+  /*
+  Small key range and a mix of single and batch updates, so keys are often removed and added
+  back between rebuilds, or sit in the pending set when they are removed.
+   */
+  @Test
+  void interleavedUpdatesAndBatches() {
+    Random random = new Random(22L);
+    ArrayBasedBST<Integer> set = ArrayBasedBST.fromSorted(Arrays.asList(0, 2, 4, 6, 8));
+    TreeSet<Integer> model = new TreeSet<>(Arrays.asList(0, 2, 4, 6, 8));
+    for (int i = 0; i < 200_000; i++) {
+      int choice = random.nextInt(20);
+      if (choice < 8) {
+        int key = random.nextInt(4000);
+        assertEquals(model.add(key), set.add(key));
+      } else if (choice < 16) {
+        int key = random.nextInt(4000);
+        assertEquals(model.remove(key), set.remove(key));
+      } else if (choice < 17) {
+        List<Integer> batch = batch(random);
+        assertEquals(model.addAll(batch), set.addAll(batch));
+      } else if (choice < 18) {
+        List<Integer> batch = batch(random);
+        assertEquals(model.removeAll(batch), set.removeAll(batch));
+      } else if (choice < 19) {
+        Integer[] keys = batch(random).toArray(new Integer[0]);
+        boolean[] found = new boolean[keys.length];
+        set.containsAll(keys, found);
+        for (int j = 0; j < keys.length; j++) {
+          assertEquals(model.contains(keys[j]), found[j]);
+        }
+      } else {
+        int key = random.nextInt(4000);
+        assertEquals(model.contains(key), set.contains(key));
+      }
+      assertEquals(model.size(), set.size());
+      if (i % 5000 == 0) {
+        check(set, model);
+      }
+    }
+  }
+
+  private static List<Integer> batch(Random random) {
+    List<Integer> batch = new ArrayList<>();
+    int count = random.nextInt(100);
+    for (int j = 0; j < count; j++) {
+      batch.add(random.nextInt(4000));
+    }
+    return batch;
+  }
+
+  //a small batch waits in the pending set as single adds do; only a large one rebuilds
+  @Test
+  void batchesRebuildOnlyPastThePendingThreshold() {
+    List<Integer> evens = new ArrayList<>();
+    for (int i = 0; i < 100_000; i += 2) {
+      evens.add(i);
+    }
+    ArrayBasedBST<Integer> set = ArrayBasedBST.fromSorted(evens);
+    assertTrue(set.addAll(Arrays.asList(1, 3)));
+    assertEquals(2, set.pendingCount());
+    assertFalse(set.addAll(Arrays.asList(1, 4)));
+    assertEquals(2, set.pendingCount());
+    List<Integer> odds = new ArrayList<>();
+    for (int i = 5; i < 20_000; i += 2) {
+      odds.add(i);
+    }
+    assertTrue(set.addAll(odds));
+    assertEquals(0, set.pendingCount());
+    assertEquals(50_000 + 2 + odds.size(), set.size());
+    assertTrue(set.contains(3) && set.contains(19_999) && !set.contains(20_001));
+  }
+
+  @Test
+  void fromSortedNeedsStrictlyAscendingInput() {
+    ArrayBasedBST<Integer> set = ArrayBasedBST.fromSorted(new Integer[] {1, 5, 9});
+    assertEquals(Arrays.asList(1, 5, 9), set.inOrderTraversal());
+    assertThrows(IllegalArgumentException.class,
+        () -> ArrayBasedBST.fromSorted(Arrays.asList(1, 1)));
+    assertThrows(IllegalArgumentException.class,
+        () -> ArrayBasedBST.fromSorted(Arrays.asList(2, 1)));
+  }
+}
@@ -0,0 +1,256 @@
+package BST;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/*
+The model checks shared by the balanced linked trees: 10^6 keys inserted and deleted, checking
+the tree against a TreeSet after each phase, plus the order statistics, the fromSorted builds and
+the set operations. Each tree's test supplies the tree, its own checkInvariants (package-private
+in the tree's package) and the factories.
+ */
+public abstract class BalancedTreeTest<
+    T extends LinkedNodesBST<Integer> & OrderStatisticBST<Integer>> {
+
+  protected static final int KEYS = 1_000_000;
+
+  @Test
+  void randomKeys() {
+    insertThenDelete(TestKeys.random(KEYS, 1L));
+  }
+
+  @Test
+  void sortedKeys() {
+    insertThenDelete(TestKeys.sorted(KEYS));
+  }
+
+  @Test
+  void reverseSortedKeys() {
+    insertThenDelete(TestKeys.reverseSorted(KEYS));
+  }
+
+  //mixes adds and removes over a small key range, so deletes hit every rebalancing case
+  @Test
+  void interleavedUpdates() {
+    Random random = new Random(2L);
+    T tree = newTree();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int i = 1; i <= KEYS; i++) {
+      Integer key = random.nextInt(10_000);
+      if (random.nextBoolean()) {
+        assertEquals(model.add(key), tree.add(key));
+      } else {
+        assertEquals(model.remove(key), tree.remove(key));
+      }
+      if (i % 50_000 == 0) {
+        checkInvariants(tree);
+        assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+      }
+    }
+  }
+
+  //batches from tiny to larger than the tree, applied in place key by key
+  @Test
+  void batchUpdates() {
+    Random random = new Random(23L);
+    T tree = newTree();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int round = 0; round < 2000; round++) {
+      List<Integer> batch = new ArrayList<>();
+      int count = random.nextInt(1 << random.nextInt(12));
+      for (int j = 0; j < count; j++) {
+        batch.add(random.nextInt(20_000));
+      }
+      if (random.nextInt(3) < 2) {
+        assertEquals(model.addAll(batch), tree.addAll(batch));
+      } else {
+        assertEquals(model.removeAll(batch), tree.removeAll(batch));
+      }
+      Integer[] keys = batch.toArray(new Integer[0]);
+      boolean[] found = new boolean[keys.length];
+      tree.containsAll(keys, found);
+      for (int j = 0; j < keys.length; j++) {
+        assertEquals(model.contains(keys[j]), found[j]);
+      }
+      if (round % 100 == 0) {
+        checkInvariants(tree);
+        assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+      }
+    }
+    checkInvariants(tree);
+    assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+  }
+
+  private void insertThenDelete(Integer[] keys) {
+    T tree = newTree();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (Integer key : keys) {
+      assertEquals(model.add(key), tree.add(key));
+    }
+    checkInvariants(tree);
+    assertEquals(model.size(), tree.size());
+    assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+
+    for (int i = 0; i < keys.length; i += 2) {
+      assertEquals(model.remove(keys[i]), tree.remove(keys[i]));
+    }
+    checkInvariants(tree);
+    assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+    for (int i = 0; i < keys.length; i += 1000) {
+      assertEquals(model.contains(keys[i]), tree.contains(keys[i]));
+    }
+
+    for (Integer key : keys) {
+      assertEquals(model.remove(key), tree.remove(key));
+    }
+    checkInvariants(tree);
+    assertEquals(0, tree.size());
+    assertFalse(tree.iterator().hasNext());
+  }
+
+  /*
+  select, rank and countInRange against the TreeSet, as the tree grows and shrinks: every k,
+  including the out-of-range ones either side, and keys present and absent, with ranges that
+  are empty, reversed or reach past either end.
+   */
+  @Test
+  void orderStatisticsMatchTreeSet() {
+    Random random = new Random(8L);
+    T tree = newTree();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int round = 0; round < 300; round++) {
+      for (int j = 0; j < 50; j++) {
+        Integer key = random.nextInt(4000);
+        if (random.nextInt(3) < 2) {
+          tree.add(key);
+          model.add(key);
+        } else {
+          tree.remove(key);
+          model.remove(key);
+        }
+      }
+      List<Integer> sorted = new ArrayList<>(model);
+      assertEquals(sorted.size(), tree.size());
+      for (int k = 0; k < sorted.size(); k += 1 + random.nextInt(20)) {
+        assertEquals(sorted.get(k), tree.select(k));
+      }
+      assertThrows(IndexOutOfBoundsException.class, () -> tree.select(-1));
+      assertThrows(IndexOutOfBoundsException.class, () -> tree.select(sorted.size()));
+      for (int j = 0; j < 50; j++) {
+        Integer key = random.nextInt(4200) - 100;
+        assertEquals(model.headSet(key).size(), tree.rank(key));
+        Integer lo = random.nextInt(4200) - 100;
+        Integer hi = lo + random.nextInt(600) - 100;
+        int expected = lo > hi ? 0 : model.subSet(lo, true, hi, true).size();
+        assertEquals(expected, tree.countInRange(lo, hi));
+      }
+    }
+    T empty = newTree();
+    assertEquals(0, empty.rank(5));
+    assertEquals(0, empty.countInRange(1, 9));
+    assertThrows(IndexOutOfBoundsException.class, () -> empty.select(0));
+  }
+
+  //fromSorted lays the elements out perfectly balanced, so the height is floor(log2 n)
+  @Test
+  void fromSortedBuildsPerfectlyBalancedTrees() {
+    for (int n : new int[] {0, 1, 2, 3, 7, 8, 100, 1023, 1024, KEYS}) {
+      List<Integer> sorted = Arrays.asList(TestKeys.sorted(n));
+      T tree = fromSorted(sorted);
+      checkInvariants(tree);
+      assertEquals(sorted, tree.inOrderTraversal());
+      assertEquals(31 - Integer.numberOfLeadingZeros(n), height(tree));
+      LinkedNodesBST<Integer> plain = LinkedNodesBST.fromSorted(sorted);
+      assertEquals(sorted, plain.inOrderTraversal());
+      assertEquals(31 - Integer.numberOfLeadingZeros(n), height(plain));
+    }
+    //the tree is fully usable afterwards
+    T tree = fromSorted(Arrays.asList(TestKeys.sorted(1000)));
+    assertTrue(tree.remove(500));
+    assertTrue(tree.add(1000));
+    checkInvariants(tree);
+  }
+
+  @Test
+  void fromSortedRejectsUnsortedOrDuplicateInput() {
+    for (List<Integer> bad : Arrays.asList(Arrays.asList(1, 1), Arrays.asList(2, 1),
+        Arrays.asList(1, 3, 2), Arrays.asList(1, null))) {
+      assertThrows(IllegalArgumentException.class, () -> fromSorted(bad));
+      assertThrows(IllegalArgumentException.class, () -> LinkedNodesBST.fromSorted(bad));
+    }
+  }
+
+  //operands of very different sizes and overlaps, against both tree and plain operands
+  @Test
+  void setAlgebraMatchesTreeSet() {
+    Random random = new Random(11L);
+    for (int round = 0; round < 200; round++) {
+      int range = 1 + random.nextInt(5000);
+      TreeSet<Integer> a = randomSet(random, random.nextInt(1 << random.nextInt(12)), range);
+      TreeSet<Integer> b = randomSet(random, random.nextInt(1 << random.nextInt(12)), range);
+      T tree = fromSorted(new ArrayList<>(a));
+      LinkedNodesBST<Integer> other = random.nextBoolean()
+          ? fromSorted(new ArrayList<>(b))
+          : LinkedNodesBST.fromSorted(new ArrayList<>(b));
+      TreeSet<Integer> expected = new TreeSet<>(a);
+      expected.addAll(b);
+      checkResult(expected, union(tree, other));
+      expected = new TreeSet<>(a);
+      expected.retainAll(b);
+      checkResult(expected, intersection(tree, other));
+      expected = new TreeSet<>(a);
+      expected.removeAll(b);
+      checkResult(expected, difference(tree, other));
+      //the operands are left untouched
+      assertEquals(new ArrayList<>(a), tree.inOrderTraversal());
+      assertEquals(new ArrayList<>(b), other.inOrderTraversal());
+    }
+  }
+
+  private void checkResult(TreeSet<Integer> expected, T result) {
+    checkInvariants(result);
+    assertEquals(expected.size(), result.size());
+    assertEquals(new ArrayList<>(expected), result.inOrderTraversal());
+  }
+
+  private static TreeSet<Integer> randomSet(Random random, int count, int range) {
+    TreeSet<Integer> set = new TreeSet<>();
+    for (int i = 0; i < count; i++) {
+      set.add(random.nextInt(range));
+    }
+    return set;
+  }
+
+  //-1 for an empty tree
+  protected static int height(LinkedNodesBST<Integer> tree) {
+    return height(tree.getRoot());
+  }
+
+  private static int height(LinkedNodesBST<Integer>.Node<Integer> node) {
+    if (node == null) {
+      return -1;
+    }
+    return 1 + Math.max(height(node.getLeftSubtree()), height(node.getRightSubtree()));
+  }
+
+  protected abstract T newTree();
+
+  protected abstract void checkInvariants(T tree);
+
+  protected abstract T fromSorted(List<Integer> sorted);
+
+  protected abstract T union(T tree, LinkedNodesBST<Integer> other);
+
+  protected abstract T intersection(T tree, LinkedNodesBST<Integer> other);
+
+  protected abstract T difference(T tree, LinkedNodesBST<Integer> other);
+}
@@ -0,0 +1,309 @@
+package BST;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import AVL.AVLTree;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class LinkedNodesBSTTest {
+
+  //the in-order traversal only comes out sorted if every node is ordered against its subtrees
+  @Test
+  void randomUpdatesMatchTreeSet() {
+    Random random = new Random(6L);
+    LinkedNodesBST<Integer> tree = new LinkedNodesBST<>();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int i = 1; i <= 300_000; i++) {
+      Integer key = random.nextInt(5000);
+      int choice = random.nextInt(10);
+      if (choice < 4) {
+        assertEquals(model.add(key), tree.add(key));
+      } else if (choice < 8) {
+        assertEquals(model.remove(key), tree.remove(key));
+      } else {
+        assertEquals(model.contains(key), tree.contains(key));
+      }
+      if (i % 10_000 == 0) {
+        assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+      }
+    }
+    for (Integer key : new ArrayList<>(model)) {
+      assertEquals(true, tree.remove(key));
+    }
+    assertFalse(tree.iterator().hasNext());
+  }
+
+  /*
+  Sorted and reverse-sorted keys make the tree a single path 20,000 nodes deep. The updates run
+  on a thread with a 128 KB stack, which a recursive add, remove or contains would overflow long
+  before reaching the bottom.
+   */
+  @Test
+  void degenerateTreesOnASmallStack() throws InterruptedException {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread worker = new Thread(null, () -> {
+      try {
+        for (Integer[] keys : new Integer[][] {TestKeys.sorted(20_000),
+            TestKeys.reverseSorted(20_000)}) {
+          degenerateTree(keys);
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    }, "small-stack", 128 * 1024);
+    worker.start();
+    worker.join();
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+  }
+
+  private static void degenerateTree(Integer[] keys) {
+    LinkedNodesBST<Integer> tree = new LinkedNodesBST<>();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (Integer key : keys) {
+      assertEquals(model.add(key), tree.add(key));
+    }
+    assertFalse(tree.add(keys[keys.length - 1]));
+    assertEquals(true, tree.contains(keys[keys.length - 1]));
+    //deleting from the deep end first, then every other key, then the rest
+    for (int i = keys.length - 1; i >= keys.length - 100; i--) {
+      assertEquals(model.remove(keys[i]), tree.remove(keys[i]));
+    }
+    for (int i = 0; i < keys.length; i += 2) {
+      assertEquals(model.remove(keys[i]), tree.remove(keys[i]));
+    }
+    assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+    for (Integer key : keys) {
+      assertEquals(model.remove(key), tree.remove(key));
+    }
+    assertFalse(tree.iterator().hasNext());
+  }
+
+  /*
+  The pre- and post-order iterators against a recursive walk on a random tree, and on the
+  degenerate trees, whose orders are known outright: a right spine (sorted input) is visited
+  ascending in pre-order and descending in post-order, and a left spine the other way round.
+   */
+  @Test
+  void preAndPostOrderIterators() {
+    Random random = new Random(9L);
+    LinkedNodesBST<Integer> tree = new LinkedNodesBST<>();
+    for (int i = 0; i < 10_000; i++) {
+      tree.add(random.nextInt(50_000));
+    }
+    List<Integer> pre = new ArrayList<>();
+    List<Integer> post = new ArrayList<>();
+    walk(tree.getRoot(), pre, post);
+    assertEquals(pre, toList(tree.preOrderIterator()));
+    assertEquals(post, toList(tree.postOrderIterator()));
+    assertEquals(pre, tree.preOrderTraversal());
+    assertEquals(post, tree.postOrderTraversal());
+
+    List<Integer> ascending = Arrays.asList(TestKeys.sorted(20_000));
+    List<Integer> descending = Arrays.asList(TestKeys.reverseSorted(20_000));
+    LinkedNodesBST<Integer> rightSpine = new LinkedNodesBST<>();
+    LinkedNodesBST<Integer> leftSpine = new LinkedNodesBST<>();
+    ascending.forEach(rightSpine::add);
+    descending.forEach(leftSpine::add);
+    assertEquals(ascending, toList(rightSpine.preOrderIterator()));
+    assertEquals(descending, toList(rightSpine.postOrderIterator()));
+    assertEquals(descending, toList(leftSpine.preOrderIterator()));
+    assertEquals(ascending, toList(leftSpine.postOrderIterator()));
+    assertEquals(ascending, rightSpine.inOrderTraversal());
+    assertEquals(ascending, leftSpine.inOrderTraversal());
+    assertFalse(new LinkedNodesBST<Integer>().preOrderIterator().hasNext());
+    assertThrows(NoSuchElementException.class,
+        () -> new LinkedNodesBST<Integer>().postOrderIterator().next());
+  }
+
+  private static void walk(LinkedNodesBST<Integer>.Node<Integer> node, List<Integer> pre,
+      List<Integer> post) {
+    if (node == null) {
+      return;
+    }
+    pre.add(node.getElement());
+    walk(node.getLeftSubtree(), pre, post);
+    walk(node.getRightSubtree(), pre, post);
+    post.add(node.getElement());
+  }
+
+  private static List<Integer> toList(Iterator<Integer> iterator) {
+    List<Integer> list = new ArrayList<>();
+    iterator.forEachRemaining(list::add);
+    return list;
+  }
+
+  //bounds present and absent, at and past either end, with every combination of inclusive flags
+  @Test
+  void rangesMatchTreeSet() {
+    Random random = new Random(19L);
+    LinkedNodesBST<Integer> tree = new LinkedNodesBST<>();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int i = 0; i < 2000; i++) {
+      int key = 2 * random.nextInt(2000);
+      tree.add(key);
+      model.add(key);
+    }
+    for (int i = 0; i < 2000; i++) {
+      int lo = random.nextInt(4200) - 100;
+      int hi = lo + random.nextInt(300);
+      boolean loInclusive = random.nextBoolean();
+      boolean hiInclusive = random.nextBoolean();
+      checkRange(model.headSet(hi), tree.headSet(hi), random);
+      checkRange(model.tailSet(lo), tree.tailSet(lo), random);
+      checkRange(model.subSet(lo, hi), tree.subSet(lo, hi), random);
+      checkRange(model.subSet(lo, loInclusive, hi, hiInclusive),
+          tree.subSet(lo, loInclusive, hi, hiInclusive), random);
+    }
+    //an empty range and a reversed one
+    assertFalse(tree.subSet(4, false, 4, true).iterator().hasNext());
+    assertThrows(IllegalArgumentException.class, () -> tree.subSet(5, 4));
+    //a range is a live view
+    LinkedNodesBST<Integer>.Range range = tree.subSet(-10, -1);
+    assertFalse(range.contains(-5));
+    tree.add(-5);
+    assertEquals(true, range.contains(-5));
+    assertEquals(Arrays.asList(-5), toList(range.iterator()));
+  }
+
+  private static void checkRange(SortedSet<Integer> expected, LinkedNodesBST<Integer>.Range range,
+      Random random) {
+    assertEquals(new ArrayList<>(expected), toList(range.iterator()));
+    assertEquals(new ArrayList<>(expected), range.stream().collect(Collectors.toList()));
+    int key = random.nextInt(4200) - 100;
+    assertEquals(expected.contains(key), range.contains(key));
+  }
+
+  /*
+  Splits spliterators all the way down, now and then advancing one before splitting it again,
+  and checks that the parts read in split order give the set exactly once in ascending order.
+  AVLTree tracks subtree sizes, so its parts must be SIZED with exact estimates; the plain tree
+  does not, and a sorted-input one is a single spine that can only be split off node by node.
+   */
+  @Test
+  void spliteratorsSplitIntoOrderedDisjointParts() {
+    Random random = new Random(10L);
+    AVLTree<Integer> sized = new AVLTree<>();
+    LinkedNodesBST<Integer> unsized = new LinkedNodesBST<>();
+    LinkedNodesBST<Integer> spine = new LinkedNodesBST<>();
+    for (int i = 0; i < 20_000; i++) {
+      int key = random.nextInt(100_000);
+      sized.add(key);
+      unsized.add(key);
+    }
+    for (int i = 0; i < 5000; i++) {
+      spine.add(i);
+    }
+    checkSplits(sized.inOrderTraversal(), sized.spliterator(), true, random);
+    checkSplits(unsized.inOrderTraversal(), unsized.spliterator(), false, random);
+    checkSplits(spine.inOrderTraversal(), spine.spliterator(), false, random);
+    checkSplits(new ArrayList<>(), new AVLTree<Integer>().spliterator(), true, random);
+    //an empty tree's size is known even without subtree sizes
+    checkSplits(new ArrayList<>(), new LinkedNodesBST<Integer>().spliterator(), true, random);
+  }
+
+  private static void checkSplits(List<Integer> expected, Spliterator<Integer> whole,
+      boolean sized, Random random) {
+    assertEquals(sized, whole.hasCharacteristics(Spliterator.SIZED));
+    assertEquals(true, whole.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT));
+    List<Integer> seen = new ArrayList<>();
+    Deque<Spliterator<Integer>> parts = new ArrayDeque<>();
+    parts.push(whole);
+    while (!parts.isEmpty()) {
+      Spliterator<Integer> part = parts.pop();
+      if (sized) {
+        assertEquals(true, part.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+      }
+      if (random.nextInt(8) == 0) {
+        part.tryAdvance(seen::add);
+      }
+      Spliterator<Integer> prefix = part.trySplit();
+      if (prefix != null) {
+        parts.push(part);
+        parts.push(prefix);
+        continue;
+      }
+      long estimate = part.estimateSize();
+      int before = seen.size();
+      part.forEachRemaining(seen::add);
+      if (sized) {
+        assertEquals(estimate, seen.size() - before);
+        assertEquals(0, part.estimateSize());
+      }
+    }
+    assertEquals(expected, seen);
+  }
+
+  //the parallel bulk operations must agree with a sequential walk, with and without sizes
+  @Test
+  void parallelOperationsMatchSequentialModel() {
+    Random random = new Random(12L);
+    AVLTree<Integer> sized = new AVLTree<>();
+    LinkedNodesBST<Integer> unsized = new LinkedNodesBST<>();
+    LinkedNodesBST<Integer> spine = new LinkedNodesBST<>();
+    for (int i = 0; i < 100_000; i++) {
+      int key = random.nextInt(1_000_000);
+      sized.add(key);
+      unsized.add(key);
+    }
+    for (int i = 0; i < 10_000; i++) {
+      spine.add(i);
+    }
+    checkParallel(sized, sized.inOrderTraversal());
+    checkParallel(unsized, unsized.inOrderTraversal());
+    checkParallel(spine, spine.inOrderTraversal());
+    checkParallel(new LinkedNodesBST<>(), new ArrayList<>());
+  }
+
+  private static void checkParallel(LinkedNodesBST<Integer> tree, List<Integer> expected) {
+    long sum = expected.stream().mapToLong(Integer::longValue).sum();
+    long evens = expected.stream().filter(e -> e % 2 == 0).count();
+    assertEquals(expected, tree.parallelStream().collect(Collectors.toList()));
+    assertEquals(expected, tree.stream().parallel().collect(Collectors.toList()));
+    assertEquals(sum, tree.parallelStream().mapToLong(Integer::longValue).sum());
+    assertEquals(evens, tree.count(e -> e % 2 == 0));
+    assertEquals(sum, (long) tree.reduce(0L, (total, e) -> total + e, Long::sum));
+    //list concatenation is associative but not commutative, so this checks the order too
+    List<Integer> concatenated = tree.reduce(Collections.<Integer>emptyList(),
+        (list, e) -> append(list, Collections.singletonList(e)), LinkedNodesBSTTest::append);
+    assertEquals(expected, concatenated);
+    LongAdder total = new LongAdder();
+    Set<Integer> visited = ConcurrentHashMap.newKeySet();
+    tree.forEachParallel(e -> {
+      total.add(e);
+      assertEquals(true, visited.add(e));
+    });
+    assertEquals(sum, total.sum());
+    assertEquals(expected.size(), visited.size());
+  }
+
+  private static List<Integer> append(List<Integer> left, List<Integer> right) {
+    if (left.isEmpty()) {
+      return right;
+    }
+    List<Integer> joined = new ArrayList<>(left.size() + right.size());
+    joined.addAll(left);
+    joined.addAll(right);
+    return joined;
+  }
+}
@@ -0,0 +1,167 @@
+package BST;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedSortedSetTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void longsMatchTreeSet() throws IOException {
+    Random random = new Random(16L);
+    TreeSet<Long> model = new TreeSet<>();
+    for (int i = 0; i < 50_000; i++) {
+      //every sign and magnitude, so the encoding's sign flip is exercised
+      model.add(random.nextLong() >> random.nextInt(64));
+    }
+    model.addAll(Arrays.asList(Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE));
+    Path path = directory.resolve("longs.sset");
+    MappedSortedSet.write(model, KeyEncoders.LONG, path);
+    MappedSortedSet<Long> mapped = MappedSortedSet.open(path, KeyEncoders.LONG);
+    checkAgainst(model, mapped, () -> random.nextLong() >> random.nextInt(64));
+  }
+
+  @Test
+  void integersMatchTreeSet() throws IOException {
+    Random random = new Random(17L);
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int i = 0; i < 50_000; i++) {
+      model.add(random.nextInt() >> random.nextInt(32));
+    }
+    model.addAll(Arrays.asList(Integer.MIN_VALUE, 0, Integer.MAX_VALUE));
+    Path path = directory.resolve("integers.sset");
+    MappedSortedSet.write(model, KeyEncoders.INTEGER, path);
+    MappedSortedSet<Integer> mapped = MappedSortedSet.open(path, KeyEncoders.INTEGER).load();
+    checkAgainst(model, mapped, () -> random.nextInt() >> random.nextInt(32));
+  }
+
+  //strings span one, two and three byte chars, surrogates included, as String.compareTo orders
+  @Test
+  void stringsMatchTreeSet() throws IOException {
+    Random random = new Random(18L);
+    char[] alphabet = {'\0', 'a', 'b', '\u007f', '\u0080', '\u07ff', '\u0800', '\ud800',
+        '\udfff', '\uffff'};
+    Generator<String> strings = () -> {
+      char[] chars = new char[random.nextInt(5)];
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = alphabet[random.nextInt(alphabet.length)];
+      }
+      return new String(chars);
+    };
+    TreeSet<String> model = new TreeSet<>();
+    for (int i = 0; i < 20_000; i++) {
+      model.add(strings.next());
+    }
+    Path path = directory.resolve("strings.sset");
+    MappedSortedSet.write(model, KeyEncoders.STRING, path);
+    checkAgainst(model, MappedSortedSet.open(path, KeyEncoders.STRING), strings);
+  }
+
+  private interface Generator<E> {
+    E next();
+  }
+
+  private static <E extends Comparable<E>> void checkAgainst(TreeSet<E> model,
+      MappedSortedSet<E> mapped, Generator<E> probes) {
+    assertEquals(model.size(), mapped.size());
+    List<E> elements = new ArrayList<>(model);
+    List<E> read = new ArrayList<>();
+    mapped.iterator().forEachRemaining(read::add);
+    assertEquals(elements, read);
+    for (int k = 0; k < elements.size(); k += 97) {
+      assertEquals(elements.get(k), mapped.select(k));
+    }
+    for (int i = 0; i < 20_000; i++) {
+      E probe = i % 2 == 0 ? probes.next() : elements.get(i % elements.size());
+      assertEquals(model.contains(probe), mapped.contains(probe));
+      assertEquals(countBelow(elements, probe, false), mapped.rank(probe));
+      E other = probes.next();
+      E lo = probe.compareTo(other) <= 0 ? probe : other;
+      E hi = lo == probe ? other : probe;
+      assertEquals(countBelow(elements, hi, true) - countBelow(elements, lo, false),
+          mapped.countInRange(lo, hi));
+    }
+  }
+
+  //elements below key, or at most key when inclusive, by binary search on the sorted list
+  private static <E extends Comparable<E>> int countBelow(List<E> sorted, E key,
+      boolean inclusive) {
+    int index = Collections.binarySearch(sorted, key);
+    if (index < 0) {
+      return -index - 1;
+    }
+    return inclusive ? index + 1 : index;
+  }
+
+  @Test
+  void emptySet() throws IOException {
+    Path path = directory.resolve("empty.sset");
+    MappedSortedSet.write(new ArrayList<Integer>(), KeyEncoders.INTEGER, path);
+    MappedSortedSet<Integer> mapped = MappedSortedSet.open(path, KeyEncoders.INTEGER);
+    assertEquals(0, mapped.size());
+    assertEquals(false, mapped.contains(0));
+    assertEquals(false, mapped.iterator().hasNext());
+    assertThrows(IndexOutOfBoundsException.class, () -> mapped.select(0));
+  }
+
+  @Test
+  void rejectsUnsortedInputAndBadFiles() throws IOException {
+    Path path = directory.resolve("bad.sset");
+    assertThrows(IllegalArgumentException.class,
+        () -> MappedSortedSet.write(Arrays.asList(1, 3, 2), KeyEncoders.INTEGER, path));
+    assertThrows(IllegalArgumentException.class,
+        () -> MappedSortedSet.write(Arrays.asList(1, 1), KeyEncoders.INTEGER, path));
+    //nothing is left behind by a failed write
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+    Files.write(path, new byte[64]);
+    assertThrows(IOException.class, () -> MappedSortedSet.open(path, KeyEncoders.INTEGER));
+    MappedSortedSet.write(Arrays.asList(1, 2, 3), KeyEncoders.INTEGER, path);
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+    assertThrows(IOException.class, () -> MappedSortedSet.open(path, KeyEncoders.INTEGER));
+    //offsets that start late, run backwards or point outside the element data
+    for (int[] offsets : new int[][] {{4, 4, 8, 12}, {0, 8, 4, 12}, {0, -4, 8, 12},
+        {0, 100, 8, 12}, {0, 4, 8, 100}}) {
+      byte[] corrupt = bytes.clone();
+      ByteBuffer.wrap(corrupt, 16, 16).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(offsets);
+      Files.write(path, corrupt);
+      assertThrows(IOException.class, () -> MappedSortedSet.open(path, KeyEncoders.INTEGER));
+    }
+  }
+
+  //a new snapshot replaces the file, while a reader of the old one keeps its complete copy
+  @Test
+  void rewritingLeavesOpenMappingsIntact() throws IOException {
+    Path path = directory.resolve("replaced.sset");
+    MappedSortedSet.write(Arrays.asList(1, 2, 3), KeyEncoders.INTEGER, path);
+    MappedSortedSet<Integer> old = MappedSortedSet.open(path, KeyEncoders.INTEGER);
+    MappedSortedSet.write(Arrays.asList(10, 20), KeyEncoders.INTEGER, path);
+    MappedSortedSet<Integer> current = MappedSortedSet.open(path, KeyEncoders.INTEGER);
+    assertEquals(3, old.size());
+    assertTrue(old.contains(3));
+    assertEquals(Integer.valueOf(2), old.select(1));
+    assertEquals(2, current.size());
+    assertEquals(Integer.valueOf(20), current.select(1));
+    assertThrows(UnsupportedOperationException.class, () -> current.add(5));
+  }
+}
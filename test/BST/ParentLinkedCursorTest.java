@@ -0,0 +1,130 @@
+package BST;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import AVL.AVLTree;
+import RedBlackTree.RedBlackTree;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+//the shared cursor, driven through both trees that use it
+class ParentLinkedCursorTest {
+
+  @Test
+  void avlCursorMatchesTreeSet() {
+    AVLTree<Integer> tree = new AVLTree<>();
+    runAgainstModel(tree, tree.cursor(), new Random(24L));
+  }
+
+  @Test
+  void redBlackCursorMatchesTreeSet() {
+    RedBlackTree<Integer> tree = new RedBlackTree<>();
+    runAgainstModel(tree, tree.cursor(), new Random(25L));
+  }
+
+  /*
+  The model is a TreeSet plus the element the cursor should be on (null when off the end). Keys
+  are mostly drawn close to the current one, so seekNear and insert climb only a little way, with
+  the odd far jump to climb up to the root. A removal can move elements between nodes, so the
+  cursor is re-seeked after each one.
+   */
+  private void runAgainstModel(LinkedNodesBST<Integer> tree, Cursor<Integer> cursor,
+      Random random) {
+    TreeSet<Integer> model = new TreeSet<>();
+    Integer current = null;
+    for (int i = 0; i < 200_000; i++) {
+      int key = current != null && random.nextInt(4) != 0
+          ? current + random.nextInt(21) - 10
+          : random.nextInt(5000);
+      int choice = random.nextInt(20);
+      if (choice < 6) {
+        assertEquals(model.add(key), cursor.insert(key));
+        current = key;
+      } else if (choice < 9) {
+        assertEquals(model.contains(key), cursor.seekNear(key));
+        current = model.ceiling(key);
+      } else if (choice < 10) {
+        assertEquals(model.contains(key), cursor.seek(key));
+        current = model.ceiling(key);
+      } else if (choice < 13) {
+        assertEquals(current != null && model.higher(current) != null, cursor.next());
+        current = current == null ? null : model.higher(current);
+      } else if (choice < 16) {
+        assertEquals(current != null && model.lower(current) != null, cursor.prev());
+        current = current == null ? null : model.lower(current);
+      } else if (choice < 19) {
+        assertEquals(model.remove(key), tree.remove(key));
+        if (current != null) {
+          cursor.seek(current);
+          current = model.ceiling(current);
+        }
+      } else if (random.nextBoolean()) {
+        assertEquals(!model.isEmpty(), cursor.seekFirst());
+        current = model.isEmpty() ? null : model.first();
+      } else {
+        assertEquals(!model.isEmpty(), cursor.seekLast());
+        current = model.isEmpty() ? null : model.last();
+      }
+      assertEquals(current != null, cursor.isValid());
+      if (current != null) {
+        assertEquals(current, cursor.get());
+      }
+      if (i % 10_000 == 0) {
+        assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+      }
+    }
+    assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+  }
+
+  //batches are applied in place, so a cursor opened before one can still insert afterwards
+  @Test
+  void cursorsSurviveBatches() {
+    AVLTree<Integer> avl = new AVLTree<>();
+    RedBlackTree<Integer> redBlack = new RedBlackTree<>();
+    checkCursorSurvivesBatches(avl, avl.cursor());
+    checkCursorSurvivesBatches(redBlack, redBlack.cursor());
+  }
+
+  private void checkCursorSurvivesBatches(LinkedNodesBST<Integer> tree, Cursor<Integer> cursor) {
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int i = 0; i < 20; i += 2) {
+      tree.add(i);
+      model.add(i);
+    }
+    assertTrue(cursor.seek(10));
+    assertTrue(tree.addAll(Arrays.asList(3, 5)));
+    assertTrue(cursor.insert(11));
+    assertTrue(tree.removeAll(Arrays.asList(0, 2)));
+    assertTrue(cursor.insert(13));
+    assertFalse(tree.addAll(Collections.emptyList()));
+    assertTrue(cursor.next());
+    assertEquals(14, cursor.get());
+    model.addAll(Arrays.asList(3, 5, 11, 13));
+    model.removeAll(Arrays.asList(0, 2));
+    assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+  }
+
+  @Test
+  void emptyTree() {
+    AVLTree<Integer> tree = new AVLTree<>();
+    Cursor<Integer> cursor = tree.cursor();
+    assertFalse(cursor.isValid());
+    assertThrows(NoSuchElementException.class, cursor::get);
+    assertFalse(cursor.seekFirst());
+    assertFalse(cursor.seekNear(3));
+    assertFalse(cursor.next());
+    assertEquals(true, cursor.insert(3));
+    assertEquals(3, cursor.get());
+    assertFalse(cursor.insert(3));
+    assertFalse(cursor.next());
+    assertFalse(cursor.isValid());
+  }
+}
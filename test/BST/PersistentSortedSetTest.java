@@ -0,0 +1,108 @@
+package BST;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/*
+The model checks shared by the persistent trees: every update is checked against a TreeSet, and
+old versions must read back exactly as they did when they were current. Each tree's test
+supplies the empty tree and its own checkInvariants.
+ */
+public abstract class PersistentSortedSetTest {
+
+  protected static final int KEYS = 1_000_000;
+
+  @Test
+  void sortedKeys() {
+    insertThenDelete(TestKeys.sorted(KEYS));
+  }
+
+  @Test
+  void randomKeys() {
+    insertThenDelete(TestKeys.random(KEYS, 1L));
+  }
+
+  private void insertThenDelete(Integer[] keys) {
+    PersistentSortedSet<Integer> tree = empty();
+    TreeSet<Integer> model = new TreeSet<>();
+    for (Integer key : keys) {
+      tree = tree.with(key);
+      model.add(key);
+    }
+    checkInvariants(tree);
+    assertEquals(new ArrayList<>(model), tree.inOrderTraversal());
+    PersistentSortedSet<Integer> full = tree;
+    for (Integer key : keys) {
+      tree = tree.without(key);
+    }
+    checkInvariants(tree);
+    assertEquals(0, tree.size());
+    //the full version was not touched by the deletes
+    checkInvariants(full);
+    assertEquals(new ArrayList<>(model), full.inOrderTraversal());
+  }
+
+  /*
+  Keeps every 1000th version alongside a copy of the model at that point; after the run each one
+  must still hold exactly what it held then.
+   */
+  @Test
+  void oldVersionsNeverChange() {
+    Random random = new Random(25L);
+    PersistentSortedSet<Integer> tree = empty();
+    TreeSet<Integer> model = new TreeSet<>();
+    List<PersistentSortedSet<Integer>> versions = new ArrayList<>();
+    List<List<Integer>> expected = new ArrayList<>();
+    for (int i = 0; i < 200_000; i++) {
+      Integer key = random.nextInt(5000);
+      PersistentSortedSet<Integer> next;
+      boolean changed;
+      if (random.nextBoolean()) {
+        next = tree.with(key);
+        changed = model.add(key);
+      } else {
+        next = tree.without(key);
+        changed = model.remove(key);
+      }
+      //an update that changes nothing gives back the same version
+      assertEquals(changed, next != tree);
+      tree = next;
+      assertEquals(model.size(), tree.size());
+      assertEquals(model.contains(key), tree.contains(key));
+      if (i % 1000 == 0) {
+        checkInvariants(tree);
+        versions.add(tree);
+        expected.add(new ArrayList<>(model));
+        if (!model.isEmpty()) {
+          int k = random.nextInt(model.size());
+          assertEquals(expected.get(expected.size() - 1).get(k), select(tree, k));
+        }
+      }
+    }
+    for (int v = 0; v < versions.size(); v++) {
+      checkInvariants(versions.get(v));
+      assertEquals(expected.get(v), versions.get(v).inOrderTraversal());
+    }
+  }
+
+  @Test
+  void emptyVersions() {
+    PersistentSortedSet<Integer> empty = empty();
+    assertSame(empty, empty.without(1));
+    assertSame(empty, empty.with(1).without(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> select(empty, 0));
+  }
+
+  protected abstract PersistentSortedSet<Integer> empty();
+
+  protected abstract void checkInvariants(PersistentSortedSet<Integer> tree);
+
+  protected abstract Integer select(PersistentSortedSet<Integer> tree, int k);
+}
@@ -0,0 +1,108 @@
+package BST;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+//the int and long tables are copies of one another, so they get the same checks
+class PrimitiveArrayBasedBSTTest {
+
+  @Test
+  void intTableMatchesTreeSet() {
+    Random random = new Random(23L);
+    int[] keys = new int[100_000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextInt() >> random.nextInt(32);
+    }
+    keys[0] = Integer.MIN_VALUE;
+    keys[1] = Integer.MAX_VALUE;
+    TreeSet<Integer> model = new TreeSet<>();
+    for (int key : keys) {
+      model.add(key);
+    }
+    IntArrayBasedBST table = IntArrayBasedBST.of(keys);
+    for (int round = 0; round < 20; round++) {
+      assertEquals(model.size(), table.size());
+      assertArrayEquals(model.stream().mapToInt(Integer::intValue).toArray(),
+          table.toSortedArray());
+      for (int i = 0; i < 10_000; i++) {
+        int probe = i % 2 == 0 ? random.nextInt() >> random.nextInt(32)
+            : keys[random.nextInt(keys.length)];
+        assertEquals(model.contains(probe), table.contains(probe));
+      }
+      //a key in both lists ends up removed
+      int[] additions = new int[random.nextInt(2000)];
+      int[] removals = new int[random.nextInt(2000)];
+      for (int i = 0; i < additions.length; i++) {
+        additions[i] = random.nextInt() >> random.nextInt(32);
+      }
+      for (int i = 0; i < removals.length; i++) {
+        removals[i] = i % 3 == 0 && additions.length > 0
+            ? additions[random.nextInt(additions.length)] : keys[random.nextInt(keys.length)];
+      }
+      IntArrayBasedBST next = table.withChanges(additions, removals);
+      int before = table.size();
+      for (int key : additions) {
+        model.add(key);
+      }
+      for (int key : removals) {
+        model.remove(key);
+      }
+      //the old table is unchanged
+      assertEquals(before, table.size());
+      table = next;
+    }
+    assertEquals(0, IntArrayBasedBST.of().size());
+    assertEquals(false, IntArrayBasedBST.of().contains(0));
+  }
+
+  @Test
+  void longTableMatchesTreeSet() {
+    Random random = new Random(24L);
+    long[] keys = new long[100_000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextLong() >> random.nextInt(64);
+    }
+    keys[0] = Long.MIN_VALUE;
+    keys[1] = Long.MAX_VALUE;
+    TreeSet<Long> model = new TreeSet<>();
+    for (long key : keys) {
+      model.add(key);
+    }
+    LongArrayBasedBST table = LongArrayBasedBST.of(keys);
+    for (int round = 0; round < 20; round++) {
+      assertEquals(model.size(), table.size());
+      assertArrayEquals(model.stream().mapToLong(Long::longValue).toArray(),
+          table.toSortedArray());
+      for (int i = 0; i < 10_000; i++) {
+        long probe = i % 2 == 0 ? random.nextLong() >> random.nextInt(64)
+            : keys[random.nextInt(keys.length)];
+        assertEquals(model.contains(probe), table.contains(probe));
+      }
+      long[] additions = new long[random.nextInt(2000)];
+      long[] removals = new long[random.nextInt(2000)];
+      for (int i = 0; i < additions.length; i++) {
+        additions[i] = random.nextLong() >> random.nextInt(64);
+      }
+      for (int i = 0; i < removals.length; i++) {
+        removals[i] = i % 3 == 0 && additions.length > 0
+            ? additions[random.nextInt(additions.length)] : keys[random.nextInt(keys.length)];
+      }
+      LongArrayBasedBST next = table.withChanges(additions, removals);
+      int before = table.size();
+      for (long key : additions) {
+        model.add(key);
+      }
+      for (long key : removals) {
+        model.remove(key);
+      }
+      assertEquals(before, table.size());
+      table = next;
+    }
+    assertEquals(0, LongArrayBasedBST.of().size());
+    assertEquals(false, LongArrayBasedBST.of().contains(0L));
+  }
+}
@@ -0,0 +1,110 @@
+package BST;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import AVL.PersistentAVLTree;
+import RedBlackTree.PersistentRedBlackTree;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class SnapshotBSTTest {
+
+  @Test
+  void matchesTreeSetOverAVL() {
+    runAgainstModel(new SnapshotBST<>(PersistentAVLTree.<Integer>empty()), new Random(25L));
+  }
+
+  @Test
+  void matchesTreeSetOverRedBlack() {
+    runAgainstModel(new SnapshotBST<>(PersistentRedBlackTree.<Integer>empty()), new Random(26L));
+  }
+
+  //each snapshot taken along the way is checked again at the end, after every later update
+  private void runAgainstModel(SnapshotBST<Integer> set, Random random) {
+    TreeSet<Integer> model = new TreeSet<>();
+    List<PersistentSortedSet<Integer>> snapshots = new ArrayList<>();
+    List<List<Integer>> expected = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      Integer key = random.nextInt(5000);
+      int choice = random.nextInt(20);
+      if (choice < 8) {
+        assertEquals(model.add(key), set.add(key));
+      } else if (choice < 14) {
+        assertEquals(model.remove(key), set.remove(key));
+      } else if (choice < 18) {
+        assertEquals(model.contains(key), set.contains(key));
+      } else {
+        List<Integer> batch = new ArrayList<>();
+        for (int j = random.nextInt(20); j > 0; j--) {
+          batch.add(random.nextInt(5000));
+        }
+        if (choice < 19) {
+          assertEquals(model.addAll(batch), set.addAll(batch));
+        } else {
+          assertEquals(model.removeAll(batch), set.removeAll(batch));
+        }
+      }
+      assertEquals(model.size(), set.size());
+      if (i % 1000 == 0) {
+        snapshots.add(set.snapshot());
+        expected.add(new ArrayList<>(model));
+        assertEquals(new ArrayList<>(model), set.inOrderTraversal());
+      }
+    }
+    for (int s = 0; s < snapshots.size(); s++) {
+      assertEquals(expected.get(s), snapshots.get(s).inOrderTraversal());
+    }
+  }
+
+  /*
+  A writer keeps adding and removing the same pair of keys as one batch, so every version has
+  both or neither. Readers must only ever see such versions, and a snapshot must read back the
+  same keys after the writer has moved on.
+   */
+  @Test
+  void readersSeeWholeBatchesUnderConcurrentWrites() throws InterruptedException {
+    SnapshotBST<Integer> set = new SnapshotBST<>(PersistentAVLTree.<Integer>empty());
+    set.addAll(Arrays.asList(1, 2, 3));
+    List<Integer> pair = Arrays.asList(10, 11);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread writer = new Thread(() -> {
+      try {
+        for (int i = 0; i < 20_000; i++) {
+          set.addAll(pair);
+          set.removeAll(pair);
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    writer.start();
+    Integer[] keys = {1, 10, 11};
+    boolean[] found = new boolean[keys.length];
+    while (writer.isAlive()) {
+      PersistentSortedSet<Integer> snapshot = set.snapshot();
+      List<Integer> seen = new ArrayList<>();
+      set.iterator().forEachRemaining(seen::add);
+      assertTrue(seen.size() == 3 || seen.size() == 5, seen.toString());
+      assertEquals(seen.size() == 5, seen.containsAll(pair));
+      set.containsAll(keys, found);
+      assertTrue(found[0]);
+      assertEquals(found[1], found[2]);
+      List<Integer> before = snapshot.inOrderTraversal();
+      Thread.yield();
+      assertEquals(before, snapshot.inOrderTraversal());
+    }
+    writer.join();
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    assertFalse(set.contains(10));
+    assertEquals(Arrays.asList(1, 2, 3), set.inOrderTraversal());
+  }
+}
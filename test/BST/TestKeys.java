@@ -0,0 +1,36 @@
+package BST;
+
+import java.util.Random;
+
+//key sequences shared by the tree tests
+public final class TestKeys {
+
+  private TestKeys() {
+  }
+
+  //n keys drawn from [0, 4n), so roughly one in eight is a repeat
+  public static Integer[] random(int n, long seed) {
+    Random random = new Random(seed);
+    Integer[] keys = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = random.nextInt(4 * n);
+    }
+    return keys;
+  }
+
+  public static Integer[] sorted(int n) {
+    Integer[] keys = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = i;
+    }
+    return keys;
+  }
+
+  public static Integer[] reverseSorted(int n) {
+    Integer[] keys = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = n - 1 - i;
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,156 @@
+package Heaps;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import Heaps.IndexedMinHeap.Handle;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class IndexedMinHeapTest {
+
+  @Test
+  void matchesModelForEachArity() {
+    for (int arity : new int[] {2, 3, 4, 8}) {
+      runAgainstModel(arity, 100_000, new Random(arity));
+    }
+  }
+
+  /*
+  The model is the multiset of keys (key -> count) plus the handles still in the heap; each
+  operation is applied to both, and the heap's minimum and size are compared after every step.
+   */
+  private void runAgainstModel(int arity, int operations, Random random) {
+    IndexedMinHeap<Integer> heap = new IndexedMinHeap<>(arity, 1);
+    TreeMap<Integer, Integer> keys = new TreeMap<>();
+    Handles live = new Handles();
+    for (int i = 0; i < operations; i++) {
+      int choice = random.nextInt(12);
+      if (choice < 5 || live.isEmpty()) {
+        int key = random.nextInt(1000);
+        live.add(heap.insert(key));
+        addKey(keys, key);
+      } else if (choice < 7) {
+        Handle<Integer> min = heap.getMinHandle();
+        assertEquals(min.getElement(), heap.removeMin());
+        assertFalse(heap.contains(min));
+        live.remove(min);
+        removeKey(keys, min.getElement());
+      } else if (choice < 8) {
+        Handle<Integer> handle = live.pick(random);
+        assertTrue(heap.remove(handle));
+        assertFalse(heap.remove(handle));
+        live.remove(handle);
+        removeKey(keys, handle.getElement());
+      } else {
+        Handle<Integer> handle = live.pick(random);
+        int old = handle.getElement();
+        int key = random.nextInt(1000);
+        if (choice < 9) {
+          key = Math.min(key, old);
+          heap.decreaseKey(handle, key);
+        } else if (choice < 10) {
+          key = Math.max(key, old);
+          heap.increaseKey(handle, key);
+        } else {
+          heap.updatePriority(handle, key);
+        }
+        removeKey(keys, old);
+        addKey(keys, key);
+        assertEquals(key, handle.getElement());
+      }
+      assertEquals(live.size(), heap.size());
+      assertEquals(keys.isEmpty() ? null : keys.firstKey(), heap.getMin());
+    }
+    //every handle still in the model must still be findable, and draining gives sorted keys
+    for (Handle<Integer> handle : live.handles) {
+      assertTrue(heap.contains(handle));
+    }
+    int previous = Integer.MIN_VALUE;
+    while (!heap.isEmpty()) {
+      int next = heap.removeMin();
+      assertTrue(previous <= next);
+      previous = next;
+    }
+  }
+
+  private static void addKey(TreeMap<Integer, Integer> keys, int key) {
+    keys.merge(key, 1, Integer::sum);
+  }
+
+  private static void removeKey(TreeMap<Integer, Integer> keys, int key) {
+    if (keys.merge(key, -1, Integer::sum) == 0) {
+      keys.remove(key);
+    }
+  }
+
+  @Test
+  void rejectsKeysMovingTheWrongWay() {
+    IndexedMinHeap<Integer> heap = new IndexedMinHeap<>();
+    Handle<Integer> handle = heap.insert(5);
+    assertThrows(HeapException.class, () -> heap.decreaseKey(handle, 6));
+    assertThrows(HeapException.class, () -> heap.increaseKey(handle, 4));
+    assertThrows(HeapException.class, () -> heap.updatePriority(handle, null));
+    assertEquals(5, heap.getMin());
+  }
+
+  @Test
+  void rejectsHandlesFromElsewhere() {
+    IndexedMinHeap<Integer> heap = new IndexedMinHeap<>();
+    IndexedMinHeap<Integer> other = new IndexedMinHeap<>();
+    heap.insert(1);
+    Handle<Integer> foreign = other.insert(1);
+    assertFalse(heap.contains(foreign));
+    assertFalse(heap.remove(foreign));
+    assertThrows(HeapException.class, () -> heap.decreaseKey(foreign, 0));
+    Handle<Integer> removed = heap.getMinHandle();
+    heap.removeMin();
+    assertThrows(HeapException.class, () -> heap.updatePriority(removed, 0));
+    assertNull(heap.getMinHandle());
+    assertThrows(HeapException.class, heap::removeMin);
+  }
+
+  //handles in an array with O(1) random pick and swap-with-last removal
+  private static final class Handles {
+
+    private final List<Handle<Integer>> handles = new ArrayList<>();
+    private final Map<Handle<Integer>, Integer> positions = new IdentityHashMap<>();
+
+    void add(Handle<Integer> handle) {
+      positions.put(handle, handles.size());
+      handles.add(handle);
+    }
+
+    void remove(Handle<Integer> handle) {
+      int position = positions.remove(handle);
+      Handle<Integer> last = handles.remove(handles.size() - 1);
+      if (last != handle) {
+        handles.set(position, last);
+        positions.put(last, position);
+      }
+    }
+
+    Handle<Integer> pick(Random random) {
+      Handle<Integer> handle = handles.get(random.nextInt(handles.size()));
+      assertSame(handle, handles.get(positions.get(handle)));
+      return handle;
+    }
+
+    int size() {
+      return handles.size();
+    }
+
+    boolean isEmpty() {
+      return handles.isEmpty();
+    }
+  }
+}
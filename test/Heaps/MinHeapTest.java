@@ -0,0 +1,64 @@
+package Heaps;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MinHeapTest {
+
+  @Test
+  void matchesPriorityQueue() {
+    Random random = new Random(3L);
+    MinHeap<Integer> heap = new MinHeap<>(4, true);
+    PriorityQueue<Integer> model = new PriorityQueue<>();
+    for (int i = 0; i < 200_000; i++) {
+      int choice = random.nextInt(10);
+      if (choice < 5) {
+        Integer element = random.nextInt(1000);
+        heap.add(element);
+        model.add(element);
+      } else if (choice < 6) {
+        //alternates between the sift-up and the heapify paths of addAll
+        List<Integer> batch = new ArrayList<>();
+        int count = random.nextInt(Math.min(2 * heap.size() + 2, 64));
+        for (int j = 0; j < count; j++) {
+          batch.add(random.nextInt(1000));
+        }
+        heap.addAll(batch);
+        model.addAll(batch);
+      } else if (!model.isEmpty()) {
+        assertEquals(model.poll(), heap.removeMin());
+      }
+      assertEquals(model.size(), heap.size());
+      assertEquals(model.peek(), heap.getMin());
+      if (heap.size() > 2000) {
+        //drain it, so the batches keep alternating between the two paths and shrinking is hit
+        while (!model.isEmpty()) {
+          assertEquals(model.poll(), heap.removeMin());
+        }
+        assertTrue(heap.isEmpty());
+      }
+    }
+  }
+
+  @Test
+  void addAllWithNullLeavesTheHeapUnchanged() {
+    MinHeap<Integer> heap = new MinHeap<>(Arrays.asList(10, 11, 12, 13));
+    assertThrows(HeapException.class, () -> heap.addAll(Arrays.asList(0, 1, 2, 3, null)));
+    assertEquals(4, heap.size());
+    assertEquals(10, heap.getMin());
+    assertThrows(HeapException.class, () -> heap.addAll(Arrays.asList(0, null)));
+    assertEquals(4, heap.size());
+    for (int expected = 10; expected <= 13; expected++) {
+      assertEquals(expected, heap.removeMin());
+    }
+    assertTrue(heap.isEmpty());
+  }
+}
@@ -0,0 +1,126 @@
+package Heaps;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+//the three heaps are copies of one another, so they are run through the same sequence of operations
+class PrimitiveMinHeapTest {
+
+  private static final int OPERATIONS = 200_000;
+
+  @Test
+  void intHeapMatchesPriorityQueue() {
+    Random random = new Random(5L);
+    IntMinHeap<String> heap = new IntMinHeap<>(1);
+    PriorityQueue<Integer> model = new PriorityQueue<>();
+    for (int i = 0; i < OPERATIONS; i++) {
+      int choice = random.nextInt(10);
+      if (choice < 6) {
+        int key = random.nextInt(2000) - 1000;
+        heap.add(key, String.valueOf(key));
+        model.add(key);
+      } else if (choice < 7 && !model.isEmpty()) {
+        //the payload travels with its key, and equal keys carry equal payloads
+        assertEquals(String.valueOf(model.poll()), heap.removeMinValue());
+      } else if (!model.isEmpty()) {
+        assertEquals((int) model.poll(), heap.removeMin());
+      }
+      assertEquals(model.size(), heap.size());
+      if (!model.isEmpty()) {
+        assertEquals((int) model.peek(), heap.getMin());
+        assertEquals(String.valueOf(model.peek()), heap.getMinValue());
+      }
+    }
+    heap.clear();
+    assertTrue(heap.isEmpty());
+    assertThrows(HeapException.class, heap::removeMin);
+  }
+
+  @Test
+  void longHeapMatchesPriorityQueue() {
+    Random random = new Random(6L);
+    LongMinHeap<String> heap = new LongMinHeap<>(1);
+    PriorityQueue<Long> model = new PriorityQueue<>();
+    for (int i = 0; i < OPERATIONS; i++) {
+      int choice = random.nextInt(10);
+      if (choice < 6) {
+        //spread over the whole range, so keys that differ only in the high bits are ordered too
+        long key = random.nextLong() >> random.nextInt(64);
+        heap.add(key, String.valueOf(key));
+        model.add(key);
+      } else if (choice < 7 && !model.isEmpty()) {
+        assertEquals(String.valueOf(model.poll()), heap.removeMinValue());
+      } else if (!model.isEmpty()) {
+        assertEquals((long) model.poll(), heap.removeMin());
+      }
+      assertEquals(model.size(), heap.size());
+      if (!model.isEmpty()) {
+        assertEquals((long) model.peek(), heap.getMin());
+        assertEquals(String.valueOf(model.peek()), heap.getMinValue());
+      }
+    }
+    heap.clear();
+    assertTrue(heap.isEmpty());
+    assertThrows(HeapException.class, heap::removeMin);
+  }
+
+  @Test
+  void doubleHeapMatchesPriorityQueue() {
+    Random random = new Random(7L);
+    DoubleMinHeap<String> heap = new DoubleMinHeap<>(1);
+    PriorityQueue<Double> model = new PriorityQueue<>();
+    double[] special = {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0.0, Double.MIN_VALUE};
+    for (int i = 0; i < OPERATIONS; i++) {
+      int choice = random.nextInt(10);
+      if (choice < 6) {
+        double key = random.nextInt(50) == 0
+            ? special[random.nextInt(special.length)]
+            : Math.floor(random.nextGaussian() * 1000) / 8;
+        heap.add(key, String.valueOf(key));
+        model.add(key);
+      } else if (choice < 7 && !model.isEmpty()) {
+        assertEquals(String.valueOf(model.poll()), heap.removeMinValue());
+      } else if (!model.isEmpty()) {
+        assertEquals((double) model.poll(), heap.removeMin());
+      }
+      assertEquals(model.size(), heap.size());
+      if (!model.isEmpty()) {
+        assertEquals((double) model.peek(), heap.getMin());
+        assertEquals(String.valueOf(model.peek()), heap.getMinValue());
+      }
+    }
+    heap.clear();
+    assertTrue(heap.isEmpty());
+    assertThrows(HeapException.class, heap::removeMin);
+  }
+
+  @Test
+  void doubleHeapRejectsNaN() {
+    DoubleMinHeap<String> heap = new DoubleMinHeap<>();
+    heap.add(1.0);
+    assertThrows(HeapException.class, () -> heap.add(Double.NaN));
+    assertThrows(HeapException.class, () -> heap.add(Double.NaN, "nan"));
+    assertEquals(1, heap.size());
+    assertEquals(1.0, heap.getMin());
+  }
+
+  @Test
+  void payloadsAreOptional() {
+    IntMinHeap<String> heap = new IntMinHeap<>();
+    heap.add(3);
+    heap.add(1);
+    assertNull(heap.getMinValue());
+    //the payload array is allocated on the first payload, and earlier keys read back as null
+    heap.add(2, "two");
+    assertNull(heap.removeMinValue());
+    assertEquals("two", heap.removeMinValue());
+    assertNull(heap.removeMinValue());
+    assertTrue(heap.isEmpty());
+  }
+}
@@ -0,0 +1,24 @@
+package RedBlackTree;
+
+import BST.PersistentSortedSet;
+import BST.PersistentSortedSetTest;
+
+//the shared version-history checks, with checkInvariants covering order, sizes and the
+//left-leaning colour and black-height rules
+class PersistentRedBlackTreeTest extends PersistentSortedSetTest {
+
+  @Override
+  protected PersistentSortedSet<Integer> empty() {
+    return PersistentRedBlackTree.empty();
+  }
+
+  @Override
+  protected void checkInvariants(PersistentSortedSet<Integer> tree) {
+    ((PersistentRedBlackTree<Integer>) tree).checkInvariants();
+  }
+
+  @Override
+  protected Integer select(PersistentSortedSet<Integer> tree, int k) {
+    return ((PersistentRedBlackTree<Integer>) tree).select(k);
+  }
+}
@@ -0,0 +1,42 @@
+package RedBlackTree;
+
+import BST.BalancedTreeTest;
+import BST.LinkedNodesBST;
+import java.util.List;
+
+//the shared model checks, with checkInvariants covering order, parent pointers, sizes and the
+//colour and black-height rules
+class RedBlackTreeTest extends BalancedTreeTest<RedBlackTree<Integer>> {
+
+  @Override
+  protected RedBlackTree<Integer> newTree() {
+    return new RedBlackTree<>();
+  }
+
+  @Override
+  protected void checkInvariants(RedBlackTree<Integer> tree) {
+    tree.checkInvariants();
+  }
+
+  @Override
+  protected RedBlackTree<Integer> fromSorted(List<Integer> sorted) {
+    return RedBlackTree.fromSorted(sorted);
+  }
+
+  @Override
+  protected RedBlackTree<Integer> union(RedBlackTree<Integer> tree, LinkedNodesBST<Integer> other) {
+    return tree.union(other);
+  }
+
+  @Override
+  protected RedBlackTree<Integer> intersection(RedBlackTree<Integer> tree,
+      LinkedNodesBST<Integer> other) {
+    return tree.intersection(other);
+  }
+
+  @Override
+  protected RedBlackTree<Integer> difference(RedBlackTree<Integer> tree,
+      LinkedNodesBST<Integer> other) {
+    return tree.difference(other);
+  }
+}
@@ -0,0 +1,126 @@
+package SimplePrefixTree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentPrefixTreeTest {
+
+  @Test
+  void matchesTreeSet() throws InvalidWordException {
+    Random random = new Random(13L);
+    ConcurrentPrefixTree tree = new ConcurrentPrefixTree();
+    TreeSet<String> model = new TreeSet<>();
+    for (int i = 0; i < 100_000; i++) {
+      String word = SimplePrefixTreeTest.randomWord(random);
+      int choice = random.nextInt(10);
+      if (choice < 5) {
+        assertEquals(model.add(word), tree.add(word));
+      } else if (choice < 8) {
+        assertEquals(model.remove(word), tree.remove(word));
+      } else {
+        assertEquals(model.contains(word), tree.contains(word));
+      }
+      assertEquals(model.size(), tree.size());
+      if (i % 1000 == 0) {
+        assertEquals(new ArrayList<>(model), tree.uniqueWordsInAlphabeticOrder());
+      }
+    }
+  }
+
+  /*
+  Writers all toggle words from one small shared pool, so they race on the same nodes and flags.
+  Each successful add counts +1 and each successful remove -1 for its word: exactly one thread
+  may win each flip, so every count must end at 0 or 1 and agree with contains. Readers iterate
+  meanwhile and must always see the words that are never touched.
+   */
+  @Test
+  void racingWritersFlipEachFlagOnce() throws InterruptedException, InvalidWordException {
+    ConcurrentPrefixTree tree = new ConcurrentPrefixTree();
+    Set<String> stable = new HashSet<>();
+    for (String word : new String[] {"a", "ab", "abcabc", "ddd", "zz"}) {
+      tree.add(word);
+      stable.add(word);
+    }
+    List<String> pool = new ArrayList<>();
+    Random poolRandom = new Random(14L);
+    while (pool.size() < 300) {
+      String word = SimplePrefixTreeTest.randomWord(poolRandom);
+      if (!stable.contains(word) && !pool.contains(word)) {
+        pool.add(word);
+      }
+    }
+    AtomicIntegerArray counts = new AtomicIntegerArray(pool.size());
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int w = 0; w < 4; w++) {
+      int seed = w;
+      threads.add(new Thread(() -> {
+        Random random = new Random(seed);
+        try {
+          for (int i = 0; i < 200_000; i++) {
+            int index = random.nextInt(pool.size());
+            if (random.nextBoolean()) {
+              if (tree.add(pool.get(index))) {
+                counts.incrementAndGet(index);
+              }
+            } else if (tree.remove(pool.get(index))) {
+              counts.decrementAndGet(index);
+            }
+          }
+        } catch (Throwable t) {
+          failure.compareAndSet(null, t);
+        }
+      }));
+    }
+    threads.add(new Thread(() -> {
+      try {
+        for (int i = 0; i < 200; i++) {
+          Set<String> seen = new HashSet<>();
+          String previous = "";
+          for (String word : tree) {
+            if (word.compareTo(previous) <= 0) {
+              throw new AssertionError("Iteration out of order at " + word);
+            }
+            seen.add(word);
+            previous = word;
+          }
+          if (!seen.containsAll(stable)) {
+            throw new AssertionError("Iteration missed a word present throughout.");
+          }
+        }
+      } catch (Throwable t) {
+        failure.compareAndSet(null, t);
+      }
+    }));
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    TreeSet<String> expected = new TreeSet<>(stable);
+    for (int i = 0; i < pool.size(); i++) {
+      int count = counts.get(i);
+      assertTrue(count == 0 || count == 1, pool.get(i) + " counted " + count);
+      assertEquals(count == 1, tree.contains(pool.get(i)));
+      if (count == 1) {
+        expected.add(pool.get(i));
+      }
+    }
+    assertEquals(expected.size(), tree.size());
+    assertEquals(new ArrayList<>(expected), tree.uniqueWordsInAlphabeticOrder());
+  }
+}
@@ -0,0 +1,87 @@
+package SimplePrefixTree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class FrozenWordSetTest {
+
+  @Test
+  void matchesTheTreeItWasFrozenFrom() throws InvalidWordException {
+    Random random = new Random(15L);
+    for (int round = 0; round < 20; round++) {
+      SimplePrefixTree tree = new SimplePrefixTree();
+      TreeSet<String> model = new TreeSet<>();
+      int words = random.nextInt(3000);
+      for (int i = 0; i < words; i++) {
+        String word = SimplePrefixTreeTest.randomWord(random);
+        tree.add(word);
+        model.add(word);
+      }
+      //removed words leave dead nodes in some trees, which freeze must drop
+      for (int i = 0; i < words / 3; i++) {
+        String word = SimplePrefixTreeTest.randomWord(random);
+        tree.remove(word);
+        model.remove(word);
+      }
+      FrozenWordSet frozen = tree.freeze();
+      assertEquals(model.size(), frozen.size());
+      assertEquals(new ArrayList<>(model), frozen.uniqueWordsInAlphabeticOrder());
+      for (int i = 0; i < 2000; i++) {
+        String word = SimplePrefixTreeTest.randomWord(random);
+        assertEquals(model.contains(word), frozen.contains(word));
+      }
+      assertEquals(minimalStateCount(model), frozen.stateCount());
+      //later updates to the tree do not reach the frozen copy
+      tree.add("dddddddd");
+      assertEquals(false, frozen.contains("dddddddd"));
+    }
+  }
+
+  /*
+  A minimal DAWG has one state per distinct right language, i.e. per distinct set of suffixes
+  that complete some prefix of a word into a word. The root always counts, even with no words.
+   */
+  private static int minimalStateCount(Set<String> words) {
+    Map<String, TreeSet<String>> suffixesByPrefix = new HashMap<>();
+    suffixesByPrefix.put("", new TreeSet<>());
+    for (String word : words) {
+      for (int i = 0; i <= word.length(); i++) {
+        suffixesByPrefix.computeIfAbsent(word.substring(0, i), p -> new TreeSet<>())
+            .add(word.substring(i));
+      }
+    }
+    return new HashSet<>(suffixesByPrefix.values()).size();
+  }
+
+  @Test
+  void sharesSuffixes() throws InvalidWordException {
+    SimplePrefixTree tree = new SimplePrefixTree();
+    for (String word : new String[] {"tap", "taps", "top", "tops"}) {
+      tree.add(word);
+    }
+    FrozenWordSet frozen = tree.freeze();
+    //t, then a and o into one shared state, then p and s
+    assertEquals(5, frozen.stateCount());
+    assertEquals(5, frozen.edgeCount());
+  }
+
+  @Test
+  void cannotBeModified() throws InvalidWordException {
+    SimplePrefixTree tree = new SimplePrefixTree();
+    tree.add("word");
+    FrozenWordSet frozen = tree.freeze();
+    assertThrows(UnsupportedOperationException.class, () -> frozen.add("other"));
+    assertThrows(UnsupportedOperationException.class, () -> frozen.remove("word"));
+    assertThrows(InvalidWordException.class, () -> frozen.contains("Word"));
+    assertEquals(1, frozen.size());
+  }
+}
@@ -0,0 +1,133 @@
+package SimplePrefixTree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedWordSetTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void matchesTheFrozenSetItWasWrittenFrom() throws IOException, InvalidWordException {
+    Random random = new Random(16L);
+    for (int round = 0; round < 10; round++) {
+      SimplePrefixTree tree = new SimplePrefixTree();
+      TreeSet<String> model = new TreeSet<>();
+      int words = random.nextInt(5000);
+      for (int i = 0; i < words; i++) {
+        String word = SimplePrefixTreeTest.randomWord(random);
+        tree.add(word);
+        model.add(word);
+      }
+      Path path = directory.resolve("words" + round + ".dawg");
+      MappedWordSet.write(tree.freeze(), path);
+      MappedWordSet mapped = MappedWordSet.open(path);
+      assertEquals(model.size(), mapped.size());
+      assertEquals(new ArrayList<>(model), mapped.uniqueWordsInAlphabeticOrder());
+      for (int i = 0; i < 5000; i++) {
+        String word = SimplePrefixTreeTest.randomWord(random);
+        assertEquals(model.contains(word), mapped.contains(word));
+      }
+    }
+  }
+
+  @Test
+  void emptySet() throws IOException, InvalidWordException {
+    Path path = directory.resolve("empty.dawg");
+    MappedWordSet.write(new SimplePrefixTree().freeze(), path);
+    MappedWordSet mapped = MappedWordSet.open(path).load();
+    assertEquals(0, mapped.size());
+    assertEquals(false, mapped.contains("a"));
+    assertEquals(false, mapped.iterator().hasNext());
+  }
+
+  @Test
+  void rejectsBadFilesAndUpdates() throws IOException, InvalidWordException {
+    SimplePrefixTree tree = new SimplePrefixTree();
+    tree.addAll(Arrays.asList("cat", "cats", "dog"));
+    Path path = directory.resolve("words.dawg");
+    MappedWordSet.write(tree.freeze(), path);
+    MappedWordSet mapped = MappedWordSet.open(path);
+    assertThrows(UnsupportedOperationException.class, () -> mapped.add("cow"));
+    assertThrows(InvalidWordException.class, () -> mapped.contains("Cat"));
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+    assertThrows(IOException.class, () -> MappedWordSet.open(path));
+    bytes[0] ^= 1;
+    Files.write(path, bytes);
+    assertThrows(IOException.class, () -> MappedWordSet.open(path));
+  }
+
+  /*
+  Every byte after the header is overwritten in turn with a few values. Each corrupt file must
+  either be rejected when opened or still answer lookups and iterate to the end without reading
+  outside the mapping; a cycle would make the iteration below run forever.
+   */
+  @Test
+  void corruptBodiesAreRejectedOrHarmless() throws IOException, InvalidWordException {
+    SimplePrefixTree tree = new SimplePrefixTree();
+    tree.addAll(Arrays.asList("cat", "cats", "catty", "dog", "dot", "zoo"));
+    Path path = directory.resolve("corrupt.dawg");
+    MappedWordSet.write(tree.freeze(), path);
+    byte[] bytes = Files.readAllBytes(path);
+    int rejected = 0;
+    for (int at = 32; at < bytes.length; at++) {
+      for (int value : new int[] {0, 1, 25, 26, 0x7F, 0xFF, bytes[at] ^ 1}) {
+        byte[] corrupt = bytes.clone();
+        corrupt[at] = (byte) value;
+        Files.write(path, corrupt);
+        MappedWordSet mapped;
+        try {
+          mapped = MappedWordSet.open(path);
+        } catch (IOException e) {
+          rejected++;
+          continue;
+        }
+        int words = 0;
+        for (Iterator<String> i = mapped.iterator(); i.hasNext(); i.next()) {
+          assertTrue(++words <= 1000, "iteration does not terminate");
+        }
+        for (String word : Arrays.asList("cat", "catty", "dot", "zoo", "zz", "a")) {
+          mapped.contains(word);
+        }
+      }
+    }
+    assertTrue(rejected > 0);
+  }
+
+  @Test
+  void cyclesAreRejected() throws IOException, InvalidWordException {
+    SimplePrefixTree tree = new SimplePrefixTree();
+    tree.addAll(Arrays.asList("ab", "b"));
+    Path path = directory.resolve("cycle.dawg");
+    MappedWordSet.write(tree.freeze(), path);
+    byte[] bytes = Files.readAllBytes(path);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    int stateCount = buffer.getInt(8);
+    int edgeCount = buffer.getInt(12);
+    int rootState = buffer.getInt(16);
+    int edgeTargetAt = 32 + Long.BYTES * ((stateCount + 63) >>> 6)
+        + Integer.BYTES * (stateCount + 1);
+    //point the root's last edge back at the root
+    int lastRootEdge = buffer.getInt(edgeTargetAt - Integer.BYTES * (stateCount - rootState)) - 1;
+    assertTrue(lastRootEdge >= 0 && lastRootEdge < edgeCount);
+    buffer.putInt(edgeTargetAt + Integer.BYTES * lastRootEdge, rootState);
+    Files.write(path, bytes);
+    assertThrows(IOException.class, () -> MappedWordSet.open(path));
+  }
+}
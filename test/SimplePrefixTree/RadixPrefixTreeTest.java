@@ -0,0 +1,57 @@
+package SimplePrefixTree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class RadixPrefixTreeTest {
+
+  //long words over the whole alphabet: nodes pass from one child to sparse to full and back
+  private static String wideWord(Random random) {
+    char[] letters = new char[1 + random.nextInt(12)];
+    for (int i = 0; i < letters.length; i++) {
+      letters[i] = (char) ('a' + (i < 2 ? random.nextInt(26) : random.nextInt(3)));
+    }
+    return new String(letters);
+  }
+
+  @Test
+  void matchesTreeSetOnSharedPrefixes() throws InvalidWordException {
+    runAgainstModel(new Random(14L), false);
+  }
+
+  @Test
+  void matchesTreeSetOverTheWholeAlphabet() throws InvalidWordException {
+    runAgainstModel(new Random(15L), true);
+  }
+
+  private void runAgainstModel(Random random, boolean wide) throws InvalidWordException {
+    RadixPrefixTree tree = new RadixPrefixTree();
+    TreeSet<String> model = new TreeSet<>();
+    for (int i = 0; i < 200_000; i++) {
+      String word = wide ? wideWord(random) : SimplePrefixTreeTest.randomWord(random);
+      int choice = random.nextInt(10);
+      if (choice < 5) {
+        assertEquals(model.add(word), tree.add(word));
+      } else if (choice < 8) {
+        assertEquals(model.remove(word), tree.remove(word));
+      } else {
+        assertEquals(model.contains(word), tree.contains(word));
+      }
+      assertEquals(model.size(), tree.size());
+      if (i % 2000 == 0) {
+        assertEquals(new ArrayList<>(model), tree.uniqueWordsInAlphabeticOrder());
+      }
+    }
+    //draining it takes every node back through its merges
+    for (String word : new ArrayList<>(model)) {
+      assertEquals(true, tree.remove(word));
+      assertEquals(false, tree.contains(word));
+    }
+    assertEquals(0, tree.size());
+    assertEquals(new ArrayList<String>(), tree.uniqueWordsInAlphabeticOrder());
+  }
+}
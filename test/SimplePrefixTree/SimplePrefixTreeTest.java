@@ -0,0 +1,266 @@
+package SimplePrefixTree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class SimplePrefixTreeTest {
+
+  //short words over a small alphabet, so they share prefixes and collide often
+  static String randomWord(Random random) {
+    char[] letters = new char[1 + random.nextInt(6)];
+    for (int i = 0; i < letters.length; i++) {
+      letters[i] = (char) ('a' + random.nextInt(4));
+    }
+    return new String(letters);
+  }
+
+  @Test
+  void matchesTreeSet() throws InvalidWordException {
+    Random random = new Random(11L);
+    SimplePrefixTree tree = new SimplePrefixTree();
+    TreeSet<String> model = new TreeSet<>();
+    for (int i = 0; i < 100_000; i++) {
+      String word = randomWord(random);
+      int choice = random.nextInt(10);
+      if (choice < 5) {
+        assertEquals(model.add(word), tree.add(word));
+      } else if (choice < 8) {
+        assertEquals(model.remove(word), tree.remove(word));
+      } else {
+        assertEquals(model.contains(word), tree.contains(word));
+      }
+      assertEquals(model.size(), tree.size());
+      if (i % 1000 == 0) {
+        assertEquals(new ArrayList<>(model), tree.uniqueWordsInAlphabeticOrder());
+        assertEquals(new ArrayList<>(model), tree.stream().collect(Collectors.toList()));
+        String start = randomWord(random);
+        String prefix = start.substring(0, Math.min(start.length(), 1 + random.nextInt(2)));
+        int limit = random.nextInt(20);
+        List<String> expected = model.subSet(prefix, prefix + Character.MAX_VALUE).stream()
+            .limit(limit).collect(Collectors.toList());
+        List<String> actual = new ArrayList<>();
+        tree.wordsWithPrefix(prefix, limit).forEachRemaining(actual::add);
+        assertEquals(expected, actual);
+        assertEquals(!model.subSet(prefix, prefix + Character.MAX_VALUE).isEmpty(),
+            tree.startsWith(prefix));
+      }
+    }
+  }
+
+  //weights are set, raised, lowered and removed at random, which covers every maxWeight update
+  @Test
+  void topCompletionsMatchSortingByWeight() throws InvalidWordException {
+    Random random = new Random(17L);
+    SimplePrefixTree tree = new SimplePrefixTree();
+    TreeMap<String, Long> model = new TreeMap<>();
+    for (int i = 0; i < 50_000; i++) {
+      String word = randomWord(random);
+      int choice = random.nextInt(10);
+      if (choice < 3) {
+        tree.add(word);
+        model.putIfAbsent(word, SimplePrefixTree.DEFAULT_WEIGHT);
+      } else if (choice < 7) {
+        long weight = random.nextInt(50);
+        assertEquals(!model.containsKey(word), tree.add(word, weight));
+        model.put(word, weight);
+      } else {
+        assertEquals(model.remove(word) != null, tree.remove(word));
+      }
+      if (i % 100 == 0) {
+        String start = randomWord(random);
+        String prefix = start.substring(0, Math.min(start.length(), random.nextInt(3)));
+        int k = random.nextInt(12);
+        //heaviest first, alphabetical among equal weights
+        List<String> expected = model.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()
+            .stream()
+            .sorted(Comparator.comparing((Map.Entry<String, Long> e) -> -e.getValue())
+                .thenComparing(Map.Entry::getKey))
+            .limit(k).map(Map.Entry::getKey).collect(Collectors.toList());
+        assertEquals(expected, tree.topCompletions(prefix, k));
+        assertEquals(model.getOrDefault(word, -1L), tree.weightOf(word));
+      }
+    }
+  }
+
+  @Test
+  void fuzzyMatchesMatchBruteForce() throws InvalidWordException {
+    Random random = new Random(18L);
+    SimplePrefixTree tree = new SimplePrefixTree();
+    TreeSet<String> model = new TreeSet<>();
+    for (int i = 0; i < 2000; i++) {
+      String word = randomWord(random);
+      tree.add(word);
+      model.add(word);
+    }
+    for (int i = 0; i < 200; i++) {
+      String word = randomWord(random);
+      int maxEdits = random.nextInt(3);
+      //closest first, alphabetical within each distance
+      List<String> expected = model.stream()
+          .filter(candidate -> editDistance(candidate, word) <= maxEdits)
+          .sorted(Comparator.comparing((String candidate) -> editDistance(candidate, word))
+              .thenComparing(Comparator.naturalOrder()))
+          .collect(Collectors.toList());
+      assertEquals(expected, tree.fuzzyMatches(word, maxEdits));
+    }
+  }
+
+  private static int editDistance(String a, String b) {
+    int[][] table = new int[a.length() + 1][b.length() + 1];
+    for (int i = 0; i <= a.length(); i++) {
+      for (int j = 0; j <= b.length(); j++) {
+        if (i == 0 || j == 0) {
+          table[i][j] = i + j;
+        } else {
+          int substitute = table[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+          table[i][j] = Math.min(substitute, Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+        }
+      }
+    }
+    return table[a.length()][b.length()];
+  }
+
+  @Test
+  void batchOperations() throws InvalidWordException {
+    Random random = new Random(23L);
+    SimplePrefixTree tree = new SimplePrefixTree();
+    TreeSet<String> model = new TreeSet<>();
+    for (int round = 0; round < 2000; round++) {
+      List<String> batch = new ArrayList<>();
+      int count = random.nextInt(50);
+      for (int j = 0; j < count; j++) {
+        batch.add(randomWord(random));
+      }
+      if (random.nextBoolean()) {
+        assertEquals(model.addAll(batch), tree.addAll(batch));
+      } else {
+        assertEquals(model.removeAll(batch), tree.removeAll(batch));
+      }
+      //more words than one round of lanes, with misses and repeats
+      String[] words = new String[count + 3];
+      for (int j = 0; j < words.length; j++) {
+        words[j] = j < count ? batch.get(j) : randomWord(random);
+      }
+      boolean[] found = new boolean[words.length];
+      tree.containsAll(words, found);
+      for (int j = 0; j < words.length; j++) {
+        assertEquals(model.contains(words[j]), found[j]);
+      }
+      assertEquals(model.size(), tree.size());
+    }
+    assertEquals(new ArrayList<>(model), tree.uniqueWordsInAlphabeticOrder());
+  }
+
+  //a batch with an invalid word is rejected before any of it is applied
+  @Test
+  void invalidBatchesChangeNothing() throws InvalidWordException {
+    SimplePrefixTree tree = new SimplePrefixTree();
+    tree.addAll(Arrays.asList("ant", "bee"));
+    assertThrows(InvalidWordException.class, () -> tree.addAll(Arrays.asList("cat", "Dog")));
+    assertThrows(InvalidWordException.class, () -> tree.removeAll(Arrays.asList("ant", "")));
+    assertEquals(Arrays.asList("ant", "bee"), tree.uniqueWordsInAlphabeticOrder());
+  }
+
+  /*
+  A writer keeps adding and removing the same pair of words as one batch, so a consistent view
+  of the tree has both or neither. A reader's iterator must either run to the end over such a
+  view or fail fast with ConcurrentModificationException; it must never return a mix.
+   */
+  @Test
+  void iteratorsFailFastUnderConcurrentWrites()
+      throws InterruptedException, InvalidWordException {
+    SimplePrefixTree tree = new SimplePrefixTree();
+    tree.addAll(Arrays.asList("apple", "banana", "cherry"));
+    List<String> pair = Arrays.asList("bandana", "bandanas");
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread writer = new Thread(() -> {
+      try {
+        for (int i = 0; i < 20_000; i++) {
+          tree.addAll(pair);
+          tree.removeAll(pair);
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    writer.start();
+    while (writer.isAlive()) {
+      List<String> seen = new ArrayList<>();
+      try {
+        tree.iterator().forEachRemaining(seen::add);
+      } catch (ConcurrentModificationException e) {
+        continue;
+      }
+      assertTrue(seen.size() == 3 || seen.size() == 5, seen.toString());
+      assertEquals(seen.size() == 5, seen.containsAll(pair));
+    }
+    writer.join();
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    assertFalse(tree.contains("bandana"));
+    assertEquals(Arrays.asList("apple", "banana", "cherry"), tree.uniqueWordsInAlphabeticOrder());
+  }
+
+  //adding or removing a word invalidates open iterators; changing a weight does not
+  @Test
+  void iteratorsFailFastAfterUpdates() throws InvalidWordException {
+    SimplePrefixTree tree = new SimplePrefixTree();
+    tree.addAll(Arrays.asList("ant", "bee", "cat"));
+    Iterator<String> words = tree.iterator();
+    assertEquals("ant", words.next());
+    tree.add("bee", 5);
+    assertEquals("bee", words.next());
+    tree.add("dog");
+    assertThrows(ConcurrentModificationException.class, words::next);
+    Iterator<String> prefixed = tree.wordsWithPrefix("");
+    tree.remove("ant");
+    assertThrows(ConcurrentModificationException.class, prefixed::next);
+    //a failed add or remove changes nothing
+    Iterator<String> again = tree.iterator();
+    tree.add("cat");
+    tree.remove("eel");
+    assertEquals("bee", again.next());
+  }
+
+  //limit stops the walk itself, and a limited or short-circuited stream reads only what it needs
+  @Test
+  void limitsAreAppliedLazily() throws InvalidWordException {
+    SimplePrefixTree tree = new SimplePrefixTree();
+    List<String> all = new ArrayList<>();
+    for (char a = 'a'; a <= 'z'; a++) {
+      for (char b = 'a'; b <= 'z'; b++) {
+        all.add("" + a + b);
+      }
+    }
+    tree.addAll(all);
+    Iterator<String> limited = tree.wordsWithPrefix("b", 3);
+    assertEquals("ba", limited.next());
+    tree.add("zzz");
+    //a limited iterator fails fast like any other
+    assertThrows(ConcurrentModificationException.class, limited::next);
+    Iterator<String> two = tree.wordsWithPrefix("c", 2);
+    assertEquals(Arrays.asList("ca", "cb"), Arrays.asList(two.next(), two.next()));
+    assertFalse(two.hasNext());
+    assertThrows(NoSuchElementException.class, two::next);
+    assertEquals(all.subList(0, 100), tree.stream().limit(100).collect(Collectors.toList()));
+    assertFalse(tree.wordsWithPrefix("q", 0).hasNext());
+  }
+}
@@ -0,0 +1,84 @@
+package SimplePrefixTree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class UnicodePrefixTreeTest {
+
+  //the order the tree promises: by code point, not by UTF-16 char as String.compareTo is
+  private static final Comparator<String> CODE_POINT_ORDER = (a, b) -> {
+    int i = 0;
+    int j = 0;
+    while (i < a.length() && j < b.length()) {
+      int x = a.codePointAt(i);
+      int y = b.codePointAt(j);
+      if (x != y) {
+        return Integer.compare(x, y);
+      }
+      i += Character.charCount(x);
+      j += Character.charCount(y);
+    }
+    return Boolean.compare(i < a.length(), j < b.length());
+  };
+
+  //one to four UTF-8 bytes per character, including the range where UTF-16 order disagrees
+  private static final String[] PIECES = {"a", "b", "c", "\u0000", "\u00e9", "\u4e2d",
+      "\ud83d\ude00", "\uffff"};
+
+  @Test
+  void matchesCodePointOrderedTreeSet() throws InvalidWordException {
+    Random random = new Random(19L);
+    for (int round = 0; round < 20; round++) {
+      UnicodePrefixTree tree = new UnicodePrefixTree();
+      TreeSet<String> model = new TreeSet<>(CODE_POINT_ORDER);
+      //even rounds start words with one of 200 chars, so the root passes through every node size
+      boolean wide = round % 2 == 0;
+      for (int i = 0; i < 6000; i++) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(wide ? 3 : 6);
+        for (int j = 0; j < length; j++) {
+          if (wide && j == 0) {
+            word.append((char) (1 + random.nextInt(200)));
+          } else {
+            word.append(PIECES[random.nextInt(round % 4 < 2 ? 3 : PIECES.length)]);
+          }
+        }
+        String w = word.toString();
+        int choice = random.nextInt(10);
+        if (choice < (i < 3000 ? 7 : 3)) {
+          assertEquals(model.add(w), tree.add(w));
+        } else if (choice < 9) {
+          assertEquals(model.remove(w), tree.remove(w));
+        } else {
+          assertEquals(model.contains(w), tree.contains(w));
+        }
+        assertEquals(model.size(), tree.size());
+        if (i % 500 == 0) {
+          assertEquals(new ArrayList<>(model), tree.uniqueWordsInAlphabeticOrder());
+        }
+      }
+      for (String w : new ArrayList<>(model)) {
+        assertEquals(true, tree.remove(w));
+      }
+      assertEquals(0, tree.size());
+      assertEquals(false, tree.iterator().hasNext());
+    }
+  }
+
+  @Test
+  void rejectsEmptyWordsAndUnpairedSurrogates() throws InvalidWordException {
+    UnicodePrefixTree tree = new UnicodePrefixTree();
+    assertThrows(InvalidWordException.class, () -> tree.add(""));
+    assertThrows(InvalidWordException.class, () -> tree.add(null));
+    assertThrows(InvalidWordException.class, () -> tree.add("a\ud83d"));
+    assertThrows(InvalidWordException.class, () -> tree.contains("\ude00a"));
+    assertEquals(true, tree.add("\ud83d\ude00"));
+    assertEquals(1, tree.size());
+  }
+}